@@ -0,0 +1,155 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Bench {
+    private static final long DEFAULT_WARMUP_MS = 500;
+    private static final long DEFAULT_MEASURE_MS = 1000;
+    private static final int ITERATIONS = 5;
+
+    public interface Op {
+        long run();
+    }
+
+    private static volatile long sink;
+
+    private final List<Result> results = new ArrayList<>();
+    private final String filter;
+    private final long warmupMs;
+    private final long measureMs;
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    public Bench(String filter) {
+        this(filter, DEFAULT_WARMUP_MS, DEFAULT_MEASURE_MS);
+    }
+
+    public Bench(String filter, long warmupMs, long measureMs) {
+        this.filter = filter;
+        this.warmupMs = warmupMs;
+        this.measureMs = measureMs;
+        this.threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    public Result run(String name, Op op) {
+        if (filter != null && !name.contains(filter)) {
+            return null;
+        }
+
+        runFor(op, warmupMs * 1_000_000L);
+
+        double bestOpsPerSecond = 0;
+        double totalOps = 0;
+        double totalBytes = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long threadId = Thread.currentThread().getId();
+            long bytesBefore = threadBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            long ops = runFor(op, measureMs * 1_000_000L / ITERATIONS);
+            long elapsed = System.nanoTime() - start;
+            long bytes = threadBean.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+            bestOpsPerSecond = Math.max(bestOpsPerSecond, ops * 1e9 / elapsed);
+            totalOps += ops;
+            totalBytes += bytes;
+        }
+
+        Result result = new Result(name, bestOpsPerSecond, totalBytes / totalOps);
+        results.add(result);
+        System.out.printf("%-52s %14.0f ops/s %12.1f ns/op %10.1f B/op%n",
+                name, result.opsPerSecond, 1e9 / result.opsPerSecond, result.bytesPerOp);
+        return result;
+    }
+
+    public long allocatedBytes(Runnable runnable) {
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        runnable.run();
+        return threadBean.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    private static long runFor(Op op, long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long ops = 0;
+        long accumulator = 0;
+        int batch = 1;
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < batch; i++) {
+                accumulator += op.run();
+            }
+            ops += batch;
+            if (batch < 1024) {
+                batch <<= 1;
+            }
+        }
+        sink += accumulator;
+        return ops;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public void save(Path path) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Result result : results) {
+            lines.add(result.name + "," + result.opsPerSecond + "," + result.bytesPerOp);
+        }
+        Files.write(path, lines);
+    }
+
+    public int compare(Path baselinePath, double tolerance) throws IOException {
+        Map<String, double[]> baseline = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(baselinePath)) {
+            String[] parts = line.split(",");
+            if (parts.length == 3) {
+                baseline.put(parts[0], new double[] { Double.parseDouble(parts[1]), Double.parseDouble(parts[2]) });
+            }
+        }
+
+        int regressions = 0;
+        for (Result result : results) {
+            double[] base = baseline.get(result.name);
+            if (base == null) {
+                continue;
+            }
+            boolean slower = result.opsPerSecond < base[0] * (1 - tolerance);
+            boolean moreGarbage = result.bytesPerOp > base[1] * (1 + tolerance) + 16;
+            if (slower || moreGarbage) {
+                regressions++;
+                System.out.printf("REGRESSION %s: %.0f -> %.0f ops/s, %.1f -> %.1f B/op%n",
+                        result.name, base[0], result.opsPerSecond, base[1], result.bytesPerOp);
+            }
+        }
+        return regressions;
+    }
+
+    public static class Result {
+        private final String name;
+        private final double opsPerSecond;
+        private final double bytesPerOp;
+
+        Result(String name, double opsPerSecond, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSecond = opsPerSecond;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.awt.Rectangle;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CollisionAllocationCheck {
+    private static final int WARMUP_PASSES = 20000;
+    private static final int MEASURED_PASSES = 5000;
+    private static final long DEFAULT_BUDGET_BYTES = 0;
+
+    private static volatile long sink;
+
+    private final Bench bench = new Bench(null);
+    private final long budgetBytes;
+    private int failures;
+
+    CollisionAllocationCheck(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        long budget = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_BUDGET_BYTES;
+        CollisionAllocationCheck check = new CollisionAllocationCheck(budget);
+        if (escapeAnalysisEnabled()) {
+            System.out.println("Escape analysis is on and can hide temporaries; "
+                    + "run with -XX:-DoEscapeAnalysis for a strict check");
+        }
+
+        GameSimulation simulation = GameBenchmarks.newSimulation();
+        CollisionManager collision = simulation.getCollisionManager();
+        Player player = simulation.getPlayer();
+        RoomManager roomManager = simulation.getRoomManager();
+        List<Room> rooms = roomManager.getRooms();
+        int[] probes = probes(roomManager);
+
+        check.measure("index", probes, player, () -> {
+            Room room = collision.getCurrentRoom(player, roomManager);
+            int hits = room != null && collision.isPlayerInsideRoom(player, room) ? 1 : 0;
+            hits += collision.checkPlayerObstacleCollision(player, roomManager) ? 1 : 0;
+            hits += collision.isPlayerOnDoor(player, roomManager) ? 1 : 0;
+            hits += collision.checkPlayerCucumberCollision(player, roomManager) != null ? 1 : 0;
+            hits += collision.checkPlayerPowerUpCollision(player, roomManager) != null ? 1 : 0;
+            hits += collision.checkPlayerGuardCollision(player, roomManager) != null ? 1 : 0;
+            return hits;
+        });
+
+        check.measure("entities", probes, player, () -> {
+            int hits = 0;
+            for (int i = 0; i < rooms.size(); i++) {
+                Guard guard = rooms.get(i).getGuard();
+                if (guard != null && player.collidesWith(guard)) {
+                    hits++;
+                }
+            }
+            return hits;
+        });
+
+        if (check.failures > 0) {
+            System.out.println(check.failures + " pass(es) over the " + budget + " B/pass budget");
+            System.exit(1);
+        }
+        System.out.println("All collision passes within " + budget + " B/pass");
+    }
+
+    private static boolean escapeAnalysisEnabled() {
+        HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        return diagnostics == null || Boolean.parseBoolean(diagnostics.getVMOption("DoEscapeAnalysis").getValue());
+    }
+
+    private static int[] probes(RoomManager roomManager) {
+        List<int[]> points = new ArrayList<>();
+        for (Room room : roomManager.getRooms()) {
+            points.add(new int[] { room.getX() + room.getWidth() / 2, room.getY() + room.getHeight() / 2 });
+            for (Obstacle obstacle : room.getObstacles()) {
+                points.add(new int[] { obstacle.getX(), obstacle.getY() });
+            }
+            if (room.getCucumber() != null) {
+                points.add(new int[] { (int) room.getCucumber().getX(), (int) room.getCucumber().getY() });
+            }
+            if (room.getPowerUp() != null) {
+                points.add(new int[] { (int) room.getPowerUp().getX(), (int) room.getPowerUp().getY() });
+            }
+        }
+        for (Rectangle door : roomManager.getDoors()) {
+            points.add(new int[] { door.x, door.y });
+        }
+
+        int[] probes = new int[points.size() * 2];
+        for (int i = 0; i < points.size(); i++) {
+            probes[i * 2] = points.get(i)[0];
+            probes[i * 2 + 1] = points.get(i)[1];
+        }
+        return probes;
+    }
+
+    private void measure(String pass, int[] probes, Player player, Bench.Op op) {
+        Runnable sweep = () -> {
+            long hits = 0;
+            for (int i = 0; i < probes.length; i += 2) {
+                player.setPosition(probes[i], probes[i + 1]);
+                hits += op.run();
+            }
+            sink = hits;
+        };
+        for (int i = 0; i < WARMUP_PASSES; i++) {
+            sweep.run();
+        }
+        long bytes = bench.allocatedBytes(() -> {
+            for (int i = 0; i < MEASURED_PASSES; i++) {
+                sweep.run();
+            }
+        });
+        double perPass = (double) bytes / MEASURED_PASSES;
+        boolean ok = perPass <= budgetBytes;
+        if (!ok) {
+            failures++;
+        }
+        System.out.printf("%-12s %10.1f B/pass  %s%n", pass, perPass, ok ? "ok" : "OVER BUDGET");
+    }
+}
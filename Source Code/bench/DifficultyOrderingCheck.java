@@ -0,0 +1,54 @@
+public class DifficultyOrderingCheck {
+    private static final int DEFAULT_GAMES = 300;
+    private static final long[] DEFAULT_SEEDS = { 7L, 11L };
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        long[] seeds = DEFAULT_SEEDS;
+        if (args.length > 1) {
+            seeds = new long[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                seeds[i - 1] = Long.parseLong(args[i]);
+            }
+        }
+
+        int failures = 0;
+        for (long seed : seeds) {
+            failures += check(games, seed);
+        }
+        if (failures > 0) {
+            System.out.println(failures + " seed(s) where the seeker is caught less often on a harder difficulty");
+            System.exit(1);
+        }
+        System.out.println("Seeker catch rate rises with guard speed on every seed");
+    }
+
+    private static int check(int games, long seed) {
+        DifficultyBalancer balancer = new DifficultyBalancer(games, seed, DifficultyBalancer.Strategy.SEEKER,
+                Runtime.getRuntime().availableProcessors());
+        try {
+            double previous = 0;
+            String previousName = null;
+            StringBuilder rates = new StringBuilder();
+            boolean ordered = true;
+            for (int difficulty = 1; difficulty <= GameSimulation.getDifficultyCount(); difficulty++) {
+                double catchRate = balancer.run(difficulty).getCatchRate();
+                String name = GameSimulation.getDifficultyName(difficulty);
+                if (previousName != null && catchRate < previous) {
+                    ordered = false;
+                    rates.append(" < ");
+                } else if (previousName != null) {
+                    rates.append(" <= ");
+                }
+                rates.append(String.format("%s %.1f%%", name, catchRate * 100));
+                previous = catchRate;
+                previousName = name;
+            }
+            System.out.printf("%s seed %d, %d games: caught %s%n", ordered ? "OK" : "FAIL", seed, games, rates);
+            return ordered ? 0 : 1;
+        } finally {
+            balancer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,337 @@
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.nio.file.Paths;
+import java.util.List;
+
+public class GameBenchmarks {
+    private static final long SEED = 42L;
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+
+        String filter = null;
+        String savePath = null;
+        String comparePath = null;
+        double tolerance = 0.2;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter":
+                    filter = args[++i];
+                    break;
+                case "--save":
+                    savePath = args[++i];
+                    break;
+                case "--compare":
+                    comparePath = args[++i];
+                    break;
+                case "--tolerance":
+                    tolerance = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        Bench bench = new Bench(filter);
+        runCollisionBenchmarks(bench);
+        runGuardBenchmarks(bench);
+        runSimulationBenchmarks(bench);
+        runRenderBenchmarks(bench);
+        runLevelBenchmarks(bench);
+
+        if (savePath != null) {
+            bench.save(Paths.get(savePath));
+        }
+        if (comparePath != null && bench.compare(Paths.get(comparePath), tolerance) > 0) {
+            System.exit(1);
+        }
+    }
+
+    static GameSimulation newSimulation() {
+        GameSimulation simulation = new GameSimulation(new RoomManager(new java.util.Random(SEED)));
+        simulation.newGame(SEED);
+        return simulation;
+    }
+
+    private static void runCollisionBenchmarks(Bench bench) {
+        GameSimulation simulation = newSimulation();
+        CollisionManager collision = simulation.getCollisionManager();
+        Player player = simulation.getPlayer();
+        RoomManager roomManager = simulation.getRoomManager();
+
+        player.setPosition(600, 400);
+        bench.run("collision.index.findRoomAt",
+                () -> roomManager.findRoomAt(player.getX() + 15, player.getY() + 15) != null ? 1 : 0);
+        bench.run("collision.index.getCurrentRoom",
+                () -> collision.getCurrentRoom(player, roomManager) != null ? 1 : 0);
+        bench.run("collision.index.checkPlayerObstacleCollision",
+                () -> collision.checkPlayerObstacleCollision(player, roomManager) ? 1 : 0);
+        bench.run("collision.index.isPlayerOnDoor",
+                () -> collision.isPlayerOnDoor(player, roomManager) ? 1 : 0);
+        int[] probe = new int[1];
+        bench.run("collision.walkability.isWalkable", () -> {
+            int offset = probe[0]++ & 15;
+            return roomManager.isWalkable((int) player.getX() + offset, (int) player.getY() + offset,
+                    player.getWidth(), player.getHeight()) ? 1 : 0;
+        });
+
+        runLargeHouseBenchmarks(bench, player);
+    }
+
+    private static void runLargeHouseBenchmarks(Bench bench, Player player) {
+        int side = 100;
+        int spacing = 50;
+        List<Obstacle> obstacles = new java.util.ArrayList<>();
+        SpatialGrid<Obstacle> grid = new SpatialGrid<>(0, 0, side * spacing, side * spacing,
+                SpatialGrid.DEFAULT_CELL_SIZE);
+        for (int row = 0; row < side; row++) {
+            for (int column = 0; column < side; column++) {
+                Obstacle obstacle = new Obstacle(Obstacle.ObstacleType.CHAIR, column * spacing, row * spacing);
+                obstacles.add(obstacle);
+                grid.insert(obstacle, obstacle.getX(), obstacle.getY(), obstacle.getWidth(), obstacle.getHeight());
+            }
+        }
+
+        player.setPosition(side * spacing / 2 + 26, side * spacing / 2 + 26);
+        int x = (int) player.getX();
+        int y = (int) player.getY();
+        bench.run("collision.largeHouse.scan", () -> {
+            for (int i = 0; i < obstacles.size(); i++) {
+                if (obstacles.get(i).intersects(x, y, player.getWidth(), player.getHeight())) {
+                    return 1;
+                }
+            }
+            return 0;
+        });
+        bench.run("collision.largeHouse.grid",
+                () -> grid.findFirst(x, y, player.getWidth(), player.getHeight()) != null ? 1 : 0);
+    }
+
+    private static void runLevelBenchmarks(Bench bench) throws java.io.IOException {
+        int rooms = 10_000;
+        java.nio.file.Path path = java.nio.file.Files.createTempFile("house", Level.BINARY_EXTENSION);
+        try {
+            new HouseGenerator(SEED).generate(rooms).writeBinary(path);
+            bench.run("level.generate.10k", () -> new HouseGenerator(SEED).generate(rooms).getDoors().size());
+            bench.run("level.readBinary.10k", () -> {
+                try {
+                    return Level.readBinary(path).getRooms().size();
+                } catch (java.io.IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            });
+        } finally {
+            java.nio.file.Files.deleteIfExists(path);
+        }
+    }
+
+    private static void runGuardBenchmarks(Bench bench) {
+        GameSimulation simulation = newSimulation();
+        Player player = simulation.getPlayer();
+        Guard guard = simulation.getRoomManager().getRooms().get(3).getGuard();
+
+        bench.run("guard.update", () -> {
+            guard.update();
+            return (long) guard.getX();
+        });
+        player.setPosition(100, 450);
+        bench.run("guard.canDetectPlayer", () -> guard.canDetectPlayer(player) ? 1 : 0);
+
+        RoomManager roomManager = new RoomManager(new HouseGenerator(SEED).generate(10_000));
+        roomManager.setGuardScheduler(new GuardScheduler(GuardScheduler.DEFAULT_NEAR_DISTANCE, 1, Integer.MAX_VALUE,
+                Integer.MAX_VALUE));
+        runGuardSchedulerBenchmark(bench, "guards.update.10k.all.serial", roomManager);
+        roomManager.setGuardScheduler(new GuardScheduler(GuardScheduler.DEFAULT_NEAR_DISTANCE, 1, Integer.MAX_VALUE));
+        runGuardSchedulerBenchmark(bench, "guards.update.10k.all.parallel", roomManager);
+        roomManager.setGuardScheduler(new GuardScheduler());
+        runGuardSchedulerBenchmark(bench, "guards.update.10k.scheduled", roomManager);
+
+        runGuardStoreBenchmarks(bench, 1_000_000);
+    }
+
+    private static void runGuardStoreBenchmarks(Bench bench, int count) {
+        GuardStore store = new GuardStore(count);
+        List<Guard> guards = new java.util.ArrayList<>(count);
+        java.util.Random random = new java.util.Random(SEED);
+        Guard.GuardType[] types = Guard.GuardType.values();
+        for (int i = 0; i < count; i++) {
+            double x = random.nextInt(100_000);
+            double y = random.nextInt(100_000);
+            Guard guard = random.nextBoolean()
+                    ? new Guard(types[random.nextInt(types.length)], x, y, x + 200, y)
+                    : new Guard(types[random.nextInt(types.length)], x, y, x, y + 150);
+            guard.moveTo(store);
+            guards.add(guard);
+        }
+        java.util.Collections.shuffle(guards, random);
+
+        bench.run("guards.advance.1m.objects", () -> {
+            for (int i = 0; i < guards.size(); i++) {
+                guards.get(i).advance(1);
+            }
+            return (long) guards.get(0).getX();
+        });
+        bench.run("guards.advance.1m.store", () -> {
+            store.advanceAllTo(store.getClock(0) + 1);
+            return (long) store.getX(0);
+        });
+    }
+
+    private static void runGuardSchedulerBenchmark(Bench bench, String name, RoomManager roomManager) {
+        GuardScheduler scheduler = roomManager.getGuardScheduler();
+        scheduler.resetMetrics();
+        Bench.Result result = bench.run(name, () -> {
+            roomManager.beginTick();
+            roomManager.update();
+            return roomManager.getGuardTicks();
+        });
+        if (result != null) {
+            System.out.printf("  %-50s %14.1f guards/tick %10.1f us/tick%n", name,
+                    scheduler.getAverageUpdatedGuards(), scheduler.getAverageTickNanos() / 1e3);
+        }
+    }
+
+    private static void runSimulationBenchmarks(Bench bench) {
+        GameSimulation simulation = newSimulation();
+        simulation.getPlayer().setPosition(150, 180);
+
+        bench.run("simulation.step", () -> {
+            if (!simulation.getGameState().isPlaying()) {
+                simulation.newGame(SEED);
+            }
+            simulation.step(0);
+            return simulation.getTickCount();
+        });
+
+        GameSimulation resident = newLargeSimulation(false);
+        bench.run("simulation.step.2k", () -> stepLarge(resident));
+        GameSimulation streamed = newLargeSimulation(true);
+        try {
+            bench.run("simulation.step.2k.streamed", () -> stepLarge(streamed));
+        } finally {
+            streamed.getRoomManager().getStreamer().close();
+        }
+    }
+
+    private static GameSimulation newLargeSimulation(boolean streaming) {
+        RoomManager roomManager = new RoomManager(new HouseGenerator(SEED).generate(2_000));
+        if (streaming) {
+            try {
+                roomManager.enableStreaming(java.nio.file.Files.createTempDirectory("bench-world"));
+            } catch (java.io.IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }
+        GameSimulation simulation = new GameSimulation(roomManager);
+        simulation.newGame(SEED);
+        return simulation;
+    }
+
+    private static long stepLarge(GameSimulation simulation) {
+        if (!simulation.getGameState().isPlaying()) {
+            simulation.newGame(SEED);
+        }
+        simulation.step(0);
+        return simulation.getTickCount();
+    }
+
+    private static void runRenderBenchmarks(Bench bench) {
+        GameSimulation simulation = newSimulation();
+        GamePanel panel = new GamePanel(new GameWindow.ProgressBar(), simulation);
+        panel.setSize(panel.getPreferredSize());
+        BufferedImage frame = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+
+        RoomManager roomManager = simulation.getRoomManager();
+        StaticSceneLayer sceneLayer = new StaticSceneLayer(frame.getWidth(), frame.getHeight(), panel.getBackground());
+        bench.run("render.staticScene.primitives", () -> {
+            Graphics2D g2d = frame.createGraphics();
+            try {
+                roomManager.drawStatic(g2d);
+            } finally {
+                g2d.dispose();
+            }
+            return frame.getRGB(0, 0);
+        });
+        bench.run("render.staticScene.cached", () -> {
+            Graphics2D g2d = frame.createGraphics();
+            try {
+                sceneLayer.draw(g2d, roomManager, null);
+            } finally {
+                g2d.dispose();
+            }
+            return frame.getRGB(0, 0);
+        });
+
+        Player player = simulation.getPlayer();
+        SpriteCache spriteCache = SpriteCache.getInstance();
+        Bench.Op drawSprites = () -> {
+            Graphics2D g2d = frame.createGraphics();
+            try {
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                roomManager.drawDynamic(g2d);
+                player.draw(g2d);
+            } finally {
+                g2d.dispose();
+            }
+            return frame.getRGB(0, 0);
+        };
+        spriteCache.setEnabled(false);
+        bench.run("render.sprites.primitives", drawSprites);
+        spriteCache.setEnabled(true);
+        bench.run("render.sprites.cached", drawSprites);
+
+        bench.run("render.paintComponent", () -> {
+            simulation.step(0);
+            Graphics2D g2d = frame.createGraphics();
+            try {
+                panel.paintComponent(g2d);
+            } finally {
+                g2d.dispose();
+            }
+            return frame.getRGB(0, 0);
+        });
+
+        GameSimulation large = new GameSimulation(new RoomManager(new HouseGenerator(SEED).generate(10_000)));
+        large.newGame(SEED);
+        RoomManager largeRooms = large.getRoomManager();
+        Room middle = largeRooms.getRooms().get(largeRooms.getRooms().size() / 2);
+        Player largePlayer = large.getPlayer();
+        largePlayer.setPosition(middle.getX() + 20, middle.getY() + 20);
+        largePlayer.syncRenderPosition();
+        GamePanel largePanel = new GamePanel(new GameWindow.ProgressBar(), large);
+        largePanel.setSize(largePanel.getPreferredSize());
+        Camera camera = new Camera(frame.getWidth(), frame.getHeight());
+        camera.follow(largePlayer, largeRooms.getBounds());
+        bench.run("render.dynamic.10k.all", () -> {
+            Graphics2D g2d = frame.createGraphics();
+            try {
+                g2d.translate(-camera.getX(), -camera.getY());
+                largeRooms.drawDynamic(g2d);
+            } finally {
+                g2d.dispose();
+            }
+            return frame.getRGB(0, 0);
+        });
+        bench.run("render.dynamic.10k.culled", () -> {
+            Graphics2D g2d = frame.createGraphics();
+            try {
+                g2d.translate(-camera.getX(), -camera.getY());
+                largeRooms.drawDynamic(g2d, camera.getView());
+            } finally {
+                g2d.dispose();
+            }
+            return frame.getRGB(0, 0);
+        });
+        bench.run("render.paintComponent.10k", () -> {
+            Graphics2D g2d = frame.createGraphics();
+            try {
+                largePanel.paintComponent(g2d);
+            } finally {
+                g2d.dispose();
+            }
+            return frame.getRGB(0, 0);
+        });
+    }
+}
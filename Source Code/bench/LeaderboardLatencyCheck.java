@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class LeaderboardLatencyCheck {
+    private static final int DEFAULT_ROWS = 10_000_000;
+    private static final double DEFAULT_P99_BUDGET_MS = 5.0;
+    private static final int SEED_CHUNK = 100_000;
+    private static final int WARMUP_QUERIES = 20_000;
+    private static final int MEASURED_QUERIES = 10_000;
+    private static final int PAGE_SIZE = 10;
+    private static final int DEEP_PAGES = 100;
+    private static final int UNINDEXED_VERSION = 3;
+
+    private static volatile long sink;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROWS;
+        double budgetMs = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_P99_BUDGET_MS;
+
+        Path directory = Files.createTempDirectory("leaderboard-bench");
+        String url = "jdbc:h2:" + directory.resolve("scores").toAbsolutePath();
+        int failures = 0;
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            SchemaMigrations.migrate(connection, UNINDEXED_VERSION);
+            seed(connection, rows);
+            SchemaMigrations.migrate(connection);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CHECKPOINT SYNC");
+            }
+            printPlan(connection, "Normal");
+            printPlan(connection, null);
+
+            String[] difficulties = new String[GameSimulation.getDifficultyCount()];
+            for (int i = 0; i < difficulties.length; i++) {
+                difficulties[i] = GameSimulation.getDifficultyName(i + 1);
+            }
+            Path rankSnapshot = directory.resolve("scores.ranks");
+            DatabaseManager database = new DatabaseManager(url, rankSnapshot);
+            try {
+                failures += checkRanks(connection, database.getRanks(), difficulties);
+
+                double topP99 = report("top10.byDifficulty",
+                        i -> database.getHighScoreEntries(difficulties[i % difficulties.length], PAGE_SIZE));
+                report("top10.all", i -> database.getHighScoreEntries(PAGE_SIZE));
+
+                DatabaseManager.HighScoreEntry[] cursors = deepCursors(database, difficulties);
+                report("page" + (DEEP_PAGES + 1) + ".keyset.byDifficulty",
+                        i -> database.getHighScorePage(cursors[i % cursors.length].getDifficulty(),
+                                cursors[i % cursors.length], PAGE_SIZE));
+
+                if (topP99 > budgetMs) {
+                    failures++;
+                    System.out.printf("FAIL top-10 p99 %.3f ms exceeds budget %.3f ms%n", topP99, budgetMs);
+                } else {
+                    System.out.printf("OK top-10 p99 %.3f ms within budget %.3f ms%n", topP99, budgetMs);
+                }
+            } finally {
+                database.close();
+            }
+
+            DatabaseManager reopened = new DatabaseManager(url, rankSnapshot);
+            try {
+                failures += checkRanks(connection, reopened.getRanks(), difficulties);
+            } finally {
+                reopened.close();
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private interface Query {
+        List<DatabaseManager.HighScoreEntry> run(int iteration);
+    }
+
+    private static void seed(Connection connection, int rows) throws SQLException {
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            for (int from = 1; from <= rows; from += SEED_CHUNK) {
+                int to = Math.min(rows, from + SEED_CHUNK - 1);
+                stmt.executeUpdate("""
+                            INSERT INTO high_scores (player_name, cucumbers_collected, completion_time_ms, completed, difficulty, score_date)
+                            SELECT 'Player' || MOD(X, 1000), 5, 20000 + MOD(X * 7919, 600000),
+                                CASE WHEN MOD(X, 10) < 7 THEN 1 ELSE 0 END,
+                                CASE MOD(X, 3) WHEN 0 THEN 'Easy' WHEN 1 THEN 'Normal' ELSE 'Hard' END,
+                                '2026-01-01T00:00:00'
+                            FROM SYSTEM_RANGE(%d, %d)
+                        """.formatted(from, to));
+                connection.commit();
+                System.out.printf("Seeded %,d / %,d rows%n", to, rows);
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        System.out.printf("Seeding took %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    private static void printPlan(Connection connection, String difficulty) throws SQLException {
+        String sql = "EXPLAIN " + DatabaseManager.highScoreQuery("id", difficulty, null);
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            DatabaseManager.bindHighScoreQuery(pstmt, difficulty, null, PAGE_SIZE);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    System.out.println(rs.getString(1).replaceAll("\\s+", " "));
+                }
+            }
+        }
+    }
+
+    private static int checkRanks(Connection connection, RankService ranks, String[] difficulties)
+            throws SQLException {
+        long[] times = new long[MEASURED_QUERIES];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = 20_000 + (i * 7919L) % 600_000;
+        }
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            sink += ranks.place(difficulties[i % difficulties.length], times[i % times.length]).getRank();
+        }
+        long[] nanos = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            long start = System.nanoTime();
+            sink += ranks.place(difficulties[i % difficulties.length], times[i]).getRank();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-36s p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms%n", "rank.place.byDifficulty",
+                percentileMs(nanos, 0.50), percentileMs(nanos, 0.99), nanos[nanos.length - 1] / 1e6);
+
+        int mismatches = 0;
+        String sql = "SELECT COUNT(*) FROM high_scores WHERE completed = 1 AND difficulty = ? AND completion_time_ms < ?";
+        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
+            for (int i = 0; i < 3 * difficulties.length; i++) {
+                String difficulty = difficulties[i % difficulties.length];
+                long time = times[i * 97] / RankService.BUCKET_MS * RankService.BUCKET_MS;
+                pstmt.setString(1, difficulty);
+                pstmt.setLong(2, time);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    rs.next();
+                    RankService.Placement placement = ranks.place(difficulty, time);
+                    if (placement.getRank() != rs.getLong(1) + 1) {
+                        mismatches++;
+                        System.out.printf("FAIL rank of %d ms on %s: %d, database says %d%n", time, difficulty,
+                                placement.getRank(), rs.getLong(1) + 1);
+                    }
+                }
+            }
+        }
+        System.out.println("Example placement: " + ranks.place(difficulties[0], 45_000));
+        return mismatches;
+    }
+
+    private static DatabaseManager.HighScoreEntry[] deepCursors(DatabaseManager database, String[] difficulties) {
+        DatabaseManager.HighScoreEntry[] cursors = new DatabaseManager.HighScoreEntry[difficulties.length];
+        for (int i = 0; i < difficulties.length; i++) {
+            DatabaseManager.HighScoreEntry after = null;
+            for (int page = 0; page < DEEP_PAGES; page++) {
+                List<DatabaseManager.HighScoreEntry> entries = database.getHighScorePage(difficulties[i], after,
+                        PAGE_SIZE);
+                after = entries.get(entries.size() - 1);
+            }
+            cursors[i] = after;
+        }
+        return cursors;
+    }
+
+    private static double report(String name, Query query) {
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            sink += query.run(i).size();
+        }
+        long[] nanos = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            long start = System.nanoTime();
+            List<DatabaseManager.HighScoreEntry> entries = query.run(i);
+            nanos[i] = System.nanoTime() - start;
+            if (entries == null || entries.size() != PAGE_SIZE) {
+                throw new IllegalStateException(name + " returned " + entries);
+            }
+            sink += entries.size();
+        }
+        Arrays.sort(nanos);
+        double p99 = percentileMs(nanos, 0.99);
+        System.out.printf("%-36s p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms%n", name,
+                percentileMs(nanos, 0.50), p99, nanos[nanos.length - 1] / 1e6);
+        return p99;
+    }
+
+    private static double percentileMs(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+public class PaintAllocationCheck {
+    private static final int WARMUP_FRAMES = 3000;
+    private static final int MEASURED_FRAMES = 500;
+    private static final long DEFAULT_BUDGET_BYTES = 64;
+
+    private final Bench bench = new Bench(null);
+    private final long budgetBytes;
+    private int failures;
+
+    PaintAllocationCheck(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        long budget = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_BUDGET_BYTES;
+        PaintAllocationCheck check = new PaintAllocationCheck(budget);
+
+        GameSimulation simulation = GameBenchmarks.newSimulation();
+        GameState gameState = simulation.getGameState();
+        GameWindow.ProgressBar progressBar = new GameWindow.ProgressBar();
+        GamePanel panel = new GamePanel(progressBar, simulation);
+        panel.setSize(panel.getPreferredSize());
+        progressBar.setSize(progressBar.getPreferredSize());
+        BufferedImage frame = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+        BufferedImage barFrame = new BufferedImage(progressBar.getWidth(), progressBar.getHeight(),
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = frame.createGraphics();
+        Graphics2D barG2d = barFrame.createGraphics();
+        Runnable paintPanel = () -> panel.paintComponent(g2d);
+
+        gameState.returnToMenu();
+        check.measure("menu", paintPanel);
+
+        simulation.newGame(42L);
+        collectPowerUp(simulation);
+        panel.showStatusMessage("Game Saved!");
+        check.measure("hud", paintPanel);
+
+        progressBar.setProgress(3, gameState.getTotalCucumbers());
+        check.measure("progressBar", () -> progressBar.paintComponent(barG2d));
+
+        panel.setShowHighScores(true);
+        check.measure("highScores", paintPanel);
+        panel.setShowHighScores(false);
+
+        gameState.caughtByGuard("Mom");
+        check.measure("gameOver", paintPanel);
+
+        gameState.reset();
+        gameState.setCucumbersCollected(gameState.getTotalCucumbers() - 1);
+        gameState.collectCucumber();
+        check.measure("win", paintPanel);
+
+        g2d.dispose();
+        barG2d.dispose();
+        if (check.failures > 0) {
+            System.out.println(check.failures + " scene(s) over the " + budget + " B/frame budget");
+            System.exit(1);
+        }
+        System.out.println("All scenes within " + budget + " B/frame");
+    }
+
+    private static void collectPowerUp(GameSimulation simulation) {
+        for (Room room : simulation.getRoomManager().getRooms()) {
+            PowerUp powerUp = room.getPowerUp();
+            if (powerUp == null) {
+                continue;
+            }
+            simulation.getPlayer().setPosition(powerUp.getX(), powerUp.getY());
+            simulation.step(0);
+            if (simulation.getActivePowerUp() != null) {
+                return;
+            }
+        }
+    }
+
+    private void measure(String scene, Runnable paint) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            paint.run();
+        }
+        long bytes = bench.allocatedBytes(() -> {
+            for (int i = 0; i < MEASURED_FRAMES; i++) {
+                paint.run();
+            }
+        });
+        double perFrame = (double) bytes / MEASURED_FRAMES;
+        boolean ok = perFrame <= budgetBytes;
+        if (!ok) {
+            failures++;
+        }
+        System.out.printf("%-12s %10.1f B/frame  %s%n", scene, perFrame, ok ? "ok" : "OVER BUDGET");
+    }
+}
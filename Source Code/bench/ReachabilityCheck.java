@@ -0,0 +1,97 @@
+import java.awt.Rectangle;
+import java.util.BitSet;
+
+public class ReachabilityCheck {
+    private static final long[] DEFAULT_SEEDS = { 1L, 42L, 20240101L };
+    private static final int[] DEFAULT_ROOM_COUNTS = { 5, 40, 300 };
+
+    public static void main(String[] args) {
+        System.setProperty("java.awt.headless", "true");
+        int failures = 0;
+        for (long seed : DEFAULT_SEEDS) {
+            for (int roomCount : DEFAULT_ROOM_COUNTS) {
+                failures += check(seed, roomCount);
+            }
+        }
+        if (failures > 0) {
+            System.out.println(failures + " unreachable cucumber(s)");
+            System.exit(1);
+        }
+        System.out.println("Every cucumber is reachable from the start in every generated house");
+    }
+
+    private static int check(long seed, int roomCount) {
+        Level level = new HouseGenerator(seed).generate(roomCount);
+        RoomManager roomManager = new RoomManager(level);
+        Rectangle bounds = level.getBounds();
+        int step = roomManager.getWalkabilityResolution();
+        int columns = bounds.width / step + 1;
+        int rows = bounds.height / step + 1;
+        int originX = bounds.x + Math.floorMod(level.getStartX() - bounds.x, step);
+        int originY = bounds.y + Math.floorMod(level.getStartY() - bounds.y, step);
+
+        BitSet reached = new BitSet(columns * rows);
+        int[] queue = new int[columns * rows];
+        int head = 0;
+        int tail = 0;
+        int start = (level.getStartY() - originY) / step * columns + (level.getStartX() - originX) / step;
+        if (roomManager.isWalkable(level.getStartX(), level.getStartY(), Player.SIZE, Player.SIZE)) {
+            reached.set(start);
+            queue[tail++] = start;
+        }
+        while (head < tail) {
+            int node = queue[head++];
+            int column = node % columns;
+            int row = node / columns;
+            for (int direction = 0; direction < 4; direction++) {
+                int nextColumn = column + (direction == 0 ? 1 : direction == 1 ? -1 : 0);
+                int nextRow = row + (direction == 2 ? 1 : direction == 3 ? -1 : 0);
+                int next = nextRow * columns + nextColumn;
+                if (nextColumn < 0 || nextRow < 0 || nextColumn >= columns || nextRow >= rows || reached.get(next)
+                        || !roomManager.isWalkable(originX + nextColumn * step, originY + nextRow * step,
+                                Player.SIZE, Player.SIZE)) {
+                    continue;
+                }
+                reached.set(next);
+                queue[tail++] = next;
+            }
+        }
+
+        int cucumbers = 0;
+        int unreachable = 0;
+        for (Room room : level.getRooms()) {
+            Room.Cucumber cucumber = room.getCucumber();
+            if (cucumber == null) {
+                continue;
+            }
+            cucumbers++;
+            if (!isReached(reached, cucumber, columns, rows, originX, originY, step)) {
+                System.out.printf("FAIL seed %d, %d rooms: cucumber in %s at (%.0f, %.0f) is unreachable%n",
+                        seed, roomCount, room.getName(), cucumber.getX(), cucumber.getY());
+                unreachable++;
+            }
+        }
+        if (unreachable == 0) {
+            System.out.printf("OK seed %d, %d rooms: %d cucumbers reachable, %d positions flooded%n",
+                    seed, roomCount, cucumbers, tail);
+        }
+        return unreachable;
+    }
+
+    private static boolean isReached(BitSet reached, Room.Cucumber cucumber, int columns, int rows,
+            int originX, int originY, int step) {
+        int minColumn = Math.max(0, (int) Math.floor((cucumber.getX() - Player.SIZE - originX) / step));
+        int maxColumn = Math.min(columns - 1, (int) Math.ceil((cucumber.getX() + Room.Cucumber.WIDTH - originX) / step));
+        int minRow = Math.max(0, (int) Math.floor((cucumber.getY() - Player.SIZE - originY) / step));
+        int maxRow = Math.min(rows - 1, (int) Math.ceil((cucumber.getY() + Room.Cucumber.HEIGHT - originY) / step));
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int column = minColumn; column <= maxColumn; column++) {
+                if (reached.get(row * columns + column)
+                        && cucumber.intersects(originX + column * step, originY + row * step, Player.SIZE, Player.SIZE)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,17 @@
+public final class Aabb {
+
+    private Aabb() {
+    }
+
+    public static boolean intersects(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return aw > 0 && ah > 0 && bw > 0 && bh > 0
+                && bx < ax + aw && ax < bx + bw
+                && by < ay + ah && ay < by + bh;
+    }
+
+    public static boolean contains(int ax, int ay, int aw, int ah, int bx, int by, int bw, int bh) {
+        return aw > 0 && ah > 0 && bw > 0 && bh > 0
+                && bx >= ax && by >= ay
+                && bx + bw <= ax + aw && by + bh <= ay + ah;
+    }
+}
@@ -0,0 +1,48 @@
+import java.awt.Rectangle;
+
+public class Camera {
+    private static final int WORLD_MARGIN = 10;
+
+    private final Rectangle view;
+
+    public Camera(int width, int height) {
+        this.view = new Rectangle(0, 0, width, height);
+    }
+
+    public void follow(double targetX, double targetY, Rectangle world) {
+        int left = Math.min(0, world.x - WORLD_MARGIN);
+        int top = Math.min(0, world.y - WORLD_MARGIN);
+        int right = Math.max(view.width, world.x + world.width + WORLD_MARGIN);
+        int bottom = Math.max(view.height, world.y + world.height + WORLD_MARGIN);
+        view.x = clamp((int) Math.round(targetX) - view.width / 2, left, right - view.width);
+        view.y = clamp((int) Math.round(targetY) - view.height / 2, top, bottom - view.height);
+    }
+
+    public void follow(Entity entity, Rectangle world) {
+        follow(entity.getRenderX() + entity.getWidth() / 2.0, entity.getRenderY() + entity.getHeight() / 2.0, world);
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    public Rectangle getView() {
+        return view;
+    }
+
+    public int getX() {
+        return view.x;
+    }
+
+    public int getY() {
+        return view.y;
+    }
+
+    public int getWidth() {
+        return view.width;
+    }
+
+    public int getHeight() {
+        return view.height;
+    }
+}
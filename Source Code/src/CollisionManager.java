@@ -0,0 +1,63 @@
+public class CollisionManager {
+
+    public Guard checkPlayerGuardCollision(Player player, RoomManager roomManager) {
+        Room playerRoom = getCurrentRoom(player, roomManager);
+        if (playerRoom == null) {
+            return null;
+        }
+
+        Guard guard = playerRoom.getGuard();
+        if (guard != null && guard.canDetectPlayer(player)) {
+            return guard;
+        }
+        return null;
+    }
+
+    public Room.Cucumber checkPlayerCucumberCollision(Player player, RoomManager roomManager) {
+        Room.Cucumber cucumber = roomManager.findCucumber(
+                (int) player.getX(), (int) player.getY(), player.getWidth(), player.getHeight());
+        return cucumber != null && !cucumber.isCollected() ? cucumber : null;
+    }
+
+
+    public boolean isPlayerInRoom(Player player, Room room) {
+        double centerX = player.getX() + player.getWidth() / 2.0;
+        double centerY = player.getY() + player.getHeight() / 2.0;
+        return room.containsPoint(centerX, centerY);
+    }
+
+    public Room getCurrentRoom(Player player, RoomManager roomManager) {
+        return roomManager.updateCurrentRoom(player.getX(), player.getY(), player.getWidth(), player.getHeight());
+    }
+
+
+    public boolean isPlayerInsideRoom(Player player, Room room) {
+        return room.contains((int) player.getX(), (int) player.getY(), player.getWidth(), player.getHeight());
+    }
+
+    public boolean isPlayerOnClearFloor(Player player, Room room, RoomManager roomManager) {
+        int x = (int) player.getX();
+        int y = (int) player.getY();
+        return room.contains(x, y, player.getWidth(), player.getHeight())
+                && roomManager.isWalkable(x, y, player.getWidth(), player.getHeight());
+    }
+
+    public boolean isPlayerOnDoor(Player player, RoomManager roomManager) {
+        return roomManager.findDoor(
+                (int) player.getX(), (int) player.getY(), player.getWidth(), player.getHeight()) != null;
+    }
+
+
+
+    public boolean checkPlayerObstacleCollision(Player player, RoomManager roomManager) {
+        return roomManager.findObstacle(
+                (int) player.getX(), (int) player.getY(), player.getWidth(), player.getHeight()) != null;
+    }
+
+
+    public PowerUp checkPlayerPowerUpCollision(Player player, RoomManager roomManager) {
+        PowerUp powerUp = roomManager.findPowerUp(
+                (int) player.getX(), (int) player.getY(), player.getWidth(), player.getHeight());
+        return powerUp != null && !powerUp.isCollected() ? powerUp : null;
+    }
+}
@@ -1,32 +1,82 @@
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class DatabaseManager {
     private static final String DB_URL = "jdbc:h2:./game_data;AUTO_SERVER=TRUE";
+    private static final String RANK_SNAPSHOT = "game_data.ranks";
+    private static final int LEADERBOARD_SIZE = 10;
+    private static final String GAME_SAVE_KEY = "game_saves";
+    private static final Object STARTUP_LOCK = new Object();
     private static DatabaseManager instance;
+    private static CompletableFuture<DatabaseManager> startup;
     private Connection connection;
+    private Connection readConnection;
+    private PersistenceQueue writes;
+    private final Map<String, Leaderboard> difficultyLeaderboards = new LinkedHashMap<>();
+    private final RankService ranks = new RankService();
+    private final Path rankSnapshot;
+    private volatile boolean ranksLoaded;
 
     private DatabaseManager() {
-        initializeDatabase();
+        this(DB_URL, Paths.get(RANK_SNAPSHOT));
+    }
+
+    DatabaseManager(String url, Path rankSnapshot) {
+        this.rankSnapshot = rankSnapshot;
+        for (int difficulty = 1; difficulty <= GameSimulation.getDifficultyCount(); difficulty++) {
+            String name = GameSimulation.getDifficultyName(difficulty);
+            difficultyLeaderboards.put(name, new Leaderboard(LEADERBOARD_SIZE, name));
+        }
+        initializeDatabase(url);
     }
 
     public static synchronized DatabaseManager getInstance() {
         if (instance == null) {
             instance = new DatabaseManager();
+            final DatabaseManager shutdownInstance = instance;
+            Runtime.getRuntime().addShutdownHook(new Thread(shutdownInstance::close, "database-shutdown"));
         }
         return instance;
     }
 
-    private void initializeDatabase() {
+    public static CompletableFuture<DatabaseManager> start() {
+        synchronized (STARTUP_LOCK) {
+            if (startup == null) {
+                startup = CompletableFuture.supplyAsync(DatabaseManager::getInstance, task -> {
+                    Thread thread = new Thread(task, "database-startup");
+                    thread.setDaemon(true);
+                    thread.start();
+                });
+            }
+            return startup;
+        }
+    }
+
+    private void initializeDatabase(String url) {
+        long start = System.nanoTime();
         try {
             Class.forName("org.h2.Driver");
 
-            connection = DriverManager.getConnection(DB_URL, "sa", "");
+            connection = DriverManager.getConnection(url, "sa", "");
 
-            createTables();
+            SchemaMigrations.migrate(connection);
+            readConnection = DriverManager.getConnection(url, "sa", "");
+            for (Leaderboard difficultyLeaderboard : difficultyLeaderboards.values()) {
+                difficultyLeaderboard.load(this);
+            }
+            loadRanks();
+            writes = new PersistenceQueue(connection);
 
-            System.out.println("Database initialized successfully!");
+            System.out.printf("Database initialized successfully in %.1f ms!%n", (System.nanoTime() - start) / 1e6);
+            StartupTimer.mark("database ready");
         } catch (ClassNotFoundException e) {
             System.err.println("H2 JDBC driver not found: " + e.getMessage());
             e.printStackTrace();
@@ -37,87 +87,86 @@ public class DatabaseManager {
             System.err.println("Unexpected error: " + e.getMessage());
             e.printStackTrace();
         }
+        if (writes == null) {
+            closeConnection();
+            connection = null;
+            readConnection = null;
+        }
     }
 
     public boolean isConnected() {
         try {
-            return connection != null && !connection.isClosed();
+            return connection != null && !connection.isClosed()
+                    && readConnection != null && !readConnection.isClosed();
         } catch (SQLException e) {
             return false;
         }
     }
 
-    private void createTables() throws SQLException {
-        String createSavesTable = """
-                    CREATE TABLE IF NOT EXISTS game_saves (
-                        id INT PRIMARY KEY AUTO_INCREMENT,
-                        player_name VARCHAR(255) DEFAULT 'Player',
-                        player_x DOUBLE NOT NULL,
-                        player_y DOUBLE NOT NULL,
-                        cucumbers_collected INT DEFAULT 0,
-                        room_states VARCHAR(255),
-                        save_date VARCHAR(255) NOT NULL
-                    )
-                """;
-
-        String createHighScoresTable = """
-                    CREATE TABLE IF NOT EXISTS high_scores (
-                        id INT PRIMARY KEY AUTO_INCREMENT,
-                        player_name VARCHAR(255) DEFAULT 'Player',
-                        cucumbers_collected INT DEFAULT 0,
-                        completion_time_ms BIGINT,
-                        completed INT DEFAULT 0,
-                        difficulty VARCHAR(20) DEFAULT 'Normal',
-                        score_date VARCHAR(255) NOT NULL
-                    )
-                """;
-
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(createSavesTable);
-            stmt.execute(createHighScoresTable);
-
-            try {
-                stmt.execute(
-                        "ALTER TABLE high_scores ADD COLUMN IF NOT EXISTS difficulty VARCHAR(20) DEFAULT 'Normal'");
-            } catch (SQLException e) {
-            }
-        }
+    public boolean saveGame(SaveData saveData) {
+        return saveGameAsync(saveData).join();
     }
 
-    public boolean saveGame(SaveData saveData) {
+    public CompletableFuture<Boolean> saveGameAsync(SaveData saveData) {
         if (!isConnected()) {
             System.err.println("Cannot save: database not connected");
-            return false;
-        }
+            return CompletableFuture.completedFuture(false);
+        }
+
+        final String playerName = saveData.getPlayerName() != null ? saveData.getPlayerName() : "Player";
+        final double playerX = saveData.getPlayerX();
+        final double playerY = saveData.getPlayerY();
+        final int cucumbersCollected = saveData.getCucumbersCollected();
+        final String roomStates = saveData.roomStatesToString();
+        final String saveDate = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        return writes.submit(new PersistenceQueue.Write() {
+            @Override
+            public void execute(Connection connection) throws SQLException {
+                writeGame(connection, playerName, playerX, playerY, cucumbersCollected, roomStates, saveDate);
+            }
+
+            @Override
+            public String getCoalesceKey() {
+                return GAME_SAVE_KEY;
+            }
+        }).thenApply(saved -> {
+            if (saved) {
+                System.out.println("Game saved successfully!");
+            }
+            return saved;
+        });
+    }
 
+    private void writeGame(Connection connection, String playerName, double playerX, double playerY,
+            int cucumbersCollected, String roomStates, String saveDate) throws SQLException {
         String deleteSql = "DELETE FROM game_saves";
         String insertSql = """
                     INSERT INTO game_saves (player_name, player_x, player_y, cucumbers_collected, room_states, save_date)
                     VALUES (?, ?, ?, ?, ?, ?)
                 """;
 
-        try {
-            try (Statement stmt = connection.createStatement()) {
-                stmt.execute(deleteSql);
-            }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(deleteSql);
+        }
 
-            try (PreparedStatement pstmt = connection.prepareStatement(insertSql)) {
-                pstmt.setString(1, saveData.getPlayerName() != null ? saveData.getPlayerName() : "Player");
-                pstmt.setDouble(2, saveData.getPlayerX());
-                pstmt.setDouble(3, saveData.getPlayerY());
-                pstmt.setInt(4, saveData.getCucumbersCollected());
-                pstmt.setString(5, saveData.roomStatesToString());
-                pstmt.setString(6, LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        try (PreparedStatement pstmt = connection.prepareStatement(insertSql)) {
+            pstmt.setString(1, playerName);
+            pstmt.setDouble(2, playerX);
+            pstmt.setDouble(3, playerY);
+            pstmt.setInt(4, cucumbersCollected);
+            pstmt.setString(5, roomStates);
+            pstmt.setString(6, saveDate);
 
-                pstmt.executeUpdate();
-            }
+            pstmt.executeUpdate();
+        }
+    }
 
-            System.out.println("Game saved successfully!");
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Error saving game: " + e.getMessage());
-            return false;
+    public CompletableFuture<SaveData> loadGameAsync() {
+        if (!isConnected()) {
+            System.err.println("Cannot load: database not connected");
+            return CompletableFuture.completedFuture(null);
         }
+        return CompletableFuture.supplyAsync(this::loadGame);
     }
 
     public SaveData loadGame() {
@@ -126,9 +175,10 @@ public class DatabaseManager {
             return null;
         }
 
+        writes.flush();
         String sql = "SELECT * FROM game_saves ORDER BY id DESC LIMIT 1";
 
-        try (Statement stmt = connection.createStatement();
+        try (Statement stmt = readConnection.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
 
             if (rs.next()) {
@@ -152,9 +202,14 @@ public class DatabaseManager {
     }
 
     public boolean hasSaveGame() {
+        if (!isConnected()) {
+            return false;
+        }
+
+        writes.flush();
         String sql = "SELECT COUNT(*) FROM game_saves";
 
-        try (Statement stmt = connection.createStatement();
+        try (Statement stmt = readConnection.createStatement();
                 ResultSet rs = stmt.executeQuery(sql)) {
             if (rs.next()) {
                 return rs.getInt(1) > 0;
@@ -167,38 +222,70 @@ public class DatabaseManager {
 
     public void saveHighScore(String playerName, int cucumbersCollected, long completionTimeMs, boolean completed,
             String difficulty) {
-        String sql = """
-                    INSERT INTO high_scores (player_name, cucumbers_collected, completion_time_ms, completed, difficulty, score_date)
-                    VALUES (?, ?, ?, ?, ?, ?)
-                """;
+        saveHighScoreAsync(playerName, cucumbersCollected, completionTimeMs, completed, difficulty).join();
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, playerName);
-            pstmt.setInt(2, cucumbersCollected);
-            pstmt.setLong(3, completionTimeMs);
-            pstmt.setInt(4, completed ? 1 : 0);
-            pstmt.setString(5, difficulty);
-            pstmt.setString(6, LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+    public CompletableFuture<Boolean> saveHighScoreAsync(final String playerName, final int cucumbersCollected,
+            final long completionTimeMs, final boolean completed, final String difficulty) {
+        if (!isConnected()) {
+            System.err.println("Cannot save high score: database not connected");
+            return CompletableFuture.completedFuture(false);
+        }
+
+        final String scoreDate = LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        final long[] id = new long[1];
+        return writes.submit(connection -> {
+            String sql = """
+                        INSERT INTO high_scores (player_name, cucumbers_collected, completion_time_ms, completed, difficulty, score_date)
+                        VALUES (?, ?, ?, ?, ?, ?)
+                    """;
+
+            try (PreparedStatement pstmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.setString(1, playerName);
+                pstmt.setInt(2, cucumbersCollected);
+                pstmt.setLong(3, completionTimeMs);
+                pstmt.setInt(4, completed ? 1 : 0);
+                pstmt.setString(5, difficulty);
+                pstmt.setString(6, scoreDate);
 
-            pstmt.executeUpdate();
-            System.out.println("High score saved! Difficulty: " + difficulty);
-        } catch (SQLException e) {
-            System.err.println("Error saving high score: " + e.getMessage());
-        }
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    if (keys.next()) {
+                        id[0] = keys.getLong(1);
+                    }
+                }
+            }
+        }).thenApply(saved -> {
+            if (saved) {
+                if (completed) {
+                    HighScoreEntry entry = new HighScoreEntry(id[0], playerName, completionTimeMs, difficulty);
+                    Leaderboard difficultyLeaderboard = difficultyLeaderboards.get(difficulty);
+                    if (difficultyLeaderboard != null) {
+                        difficultyLeaderboard.addScore(entry);
+                    }
+                    ranks.addScore(difficulty, completionTimeMs);
+                }
+                System.out.println("High score saved! Difficulty: " + difficulty);
+            }
+            return saved;
+        });
     }
 
     public ResultSet getTopHighScores(int limit) {
-        String sql = """
-                    SELECT player_name, cucumbers_collected, completion_time_ms, completed, score_date
-                    FROM high_scores
-                    WHERE completed = 1
-                    ORDER BY completion_time_ms ASC
-                    LIMIT ?
-                """;
+        return getTopHighScores(null, limit);
+    }
+
+    public ResultSet getTopHighScores(String difficulty, int limit) {
+        if (!isConnected()) {
+            return null;
+        }
+
+        String sql = highScoreQuery(
+                "player_name, cucumbers_collected, completion_time_ms, completed, score_date", difficulty, null);
 
         try {
-            PreparedStatement pstmt = connection.prepareStatement(sql);
-            pstmt.setInt(1, limit);
+            PreparedStatement pstmt = readConnection.prepareStatement(sql);
+            bindHighScoreQuery(pstmt, difficulty, null, limit);
             return pstmt.executeQuery();
         } catch (SQLException e) {
             System.err.println("Error getting high scores: " + e.getMessage());
@@ -207,55 +294,180 @@ public class DatabaseManager {
     }
 
     public String[] getHighScoresList(int limit) {
+        return getHighScoresList(null, limit);
+    }
+
+    public String[] getHighScoresList(String difficulty, int limit) {
         if (!isConnected()) {
             return new String[] { "Database not connected" };
         }
 
-        String sql = """
-                    SELECT player_name, completion_time_ms, difficulty, score_date
-                    FROM high_scores
-                    WHERE completed = 1
-                    ORDER BY completion_time_ms ASC
-                    LIMIT ?
-                """;
+        List<HighScoreEntry> entries = getHighScoreEntries(difficulty, limit);
+        if (entries == null) {
+            return new String[] { "Error loading scores" };
+        }
+        return Leaderboard.formatLines(entries, 1);
+    }
 
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, limit);
-            ResultSet rs = pstmt.executeQuery();
-
-            java.util.List<String> scores = new java.util.ArrayList<>();
-            int rank = 1;
-            while (rs.next()) {
-                String name = rs.getString("player_name");
-                long timeMs = rs.getLong("completion_time_ms");
-                String difficulty = rs.getString("difficulty");
-                if (difficulty == null)
-                    difficulty = "Normal";
-                String formattedTime = formatTime(timeMs);
-                scores.add(String.format("%d. %s - %s [%s]", rank, name, formattedTime, difficulty));
-                rank++;
-            }
+    public List<HighScoreEntry> getHighScoreEntries(int limit) {
+        return getHighScoreEntries(null, limit);
+    }
 
-            if (scores.isEmpty()) {
-                return new String[] { "No high scores yet!" };
-            }
+    public List<HighScoreEntry> getHighScoreEntries(String difficulty, int limit) {
+        return getHighScorePage(difficulty, null, limit);
+    }
+
+    public List<HighScoreEntry> getHighScorePage(String difficulty, HighScoreEntry after, int limit) {
+        if (!isConnected()) {
+            return null;
+        }
 
-            return scores.toArray(new String[0]);
+        String sql = highScoreQuery("id, player_name, completion_time_ms, difficulty", difficulty, after);
+
+        try (PreparedStatement pstmt = readConnection.prepareStatement(sql)) {
+            bindHighScoreQuery(pstmt, difficulty, after, limit);
+            List<HighScoreEntry> entries = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String entryDifficulty = rs.getString("difficulty");
+                    entries.add(new HighScoreEntry(
+                            rs.getLong("id"),
+                            rs.getString("player_name"),
+                            rs.getLong("completion_time_ms"),
+                            entryDifficulty != null ? entryDifficulty : "Normal"));
+                }
+            }
+            return entries;
         } catch (SQLException e) {
             System.err.println("Error getting high scores: " + e.getMessage());
-            return new String[] { "Error loading scores" };
+            return null;
+        }
+    }
+
+    static String highScoreQuery(String columns, String difficulty, HighScoreEntry after) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns)
+                .append(" FROM high_scores WHERE completed = 1");
+        if (difficulty != null) {
+            sql.append(" AND difficulty = ?");
+        }
+        if (after != null) {
+            sql.append(" AND completion_time_ms >= ? AND (completion_time_ms > ? OR id > ?)");
+        }
+        // Leading with the equality columns lets H2 read the index in order instead of sorting every match.
+        return sql.append(difficulty != null ? " ORDER BY difficulty, completed" : " ORDER BY completed")
+                .append(", completion_time_ms ASC, id ASC LIMIT ?").toString();
+    }
+
+    static void bindHighScoreQuery(PreparedStatement pstmt, String difficulty, HighScoreEntry after,
+            int limit) throws SQLException {
+        int index = 1;
+        if (difficulty != null) {
+            pstmt.setString(index++, difficulty);
+        }
+        if (after != null) {
+            pstmt.setLong(index++, after.getCompletionTimeMs());
+            pstmt.setLong(index++, after.getCompletionTimeMs());
+            pstmt.setLong(index++, after.getId());
+        }
+        pstmt.setInt(index, limit);
+    }
+
+    private void loadRanks() throws SQLException {
+        long start = System.nanoTime();
+        boolean fromSnapshot = ranks.readSnapshot(rankSnapshot);
+
+        long rows;
+        long maxId;
+        long newerRows;
+        try (PreparedStatement pstmt = readConnection.prepareStatement("""
+                    SELECT (SELECT COUNT(*) FROM high_scores),
+                           (SELECT COALESCE(MAX(id), 0) FROM high_scores),
+                           (SELECT COUNT(*) FROM high_scores WHERE id > ?)
+                """)) {
+            pstmt.setLong(1, ranks.getCoveredId());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                rows = rs.getLong(1);
+                maxId = rs.getLong(2);
+                newerRows = rs.getLong(3);
+            }
+        }
+        if (ranks.getCoveredId() > maxId || rows - newerRows != ranks.getCoveredRows()) {
+            ranks.clear();
+            fromSnapshot = false;
+        }
+
+        // A full rebuild reads the covering leaderboard index; catching up on a snapshot reads the newest
+        // rows by primary key, since H2 would otherwise scan the whole index to apply the id range.
+        String sql = ranks.getCoveredId() == 0
+                ? """
+                            SELECT difficulty, completion_time_ms, completed
+                            FROM high_scores USE INDEX (idx_high_scores_difficulty_time)
+                            WHERE completed = 1 AND id > ? AND id <= ?
+                        """
+                : """
+                            SELECT difficulty, completion_time_ms, completed
+                            FROM high_scores
+                            WHERE id > ? AND id <= ?
+                        """;
+
+        long added = 0;
+        try (PreparedStatement pstmt = readConnection.prepareStatement(sql)) {
+            pstmt.setLong(1, ranks.getCoveredId());
+            pstmt.setLong(2, maxId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long completionTimeMs = rs.getLong("completion_time_ms");
+                    if (rs.wasNull() || rs.getInt("completed") != 1) {
+                        continue;
+                    }
+                    String difficulty = rs.getString("difficulty");
+                    ranks.addBucket(difficulty != null ? difficulty : "Normal",
+                            RankService.bucketOf(completionTimeMs), 1);
+                    added++;
+                }
+            }
         }
+        ranks.setCovered(maxId, rows);
+        ranksLoaded = true;
+        System.out.printf("Rank index loaded (%s, %,d new scores) in %.1f ms%n",
+                fromSnapshot ? "from snapshot" : "full rebuild", added, (System.nanoTime() - start) / 1e6);
+    }
+
+    public RankService getRanks() {
+        return ranks;
     }
 
-    private String formatTime(long timeMs) {
+    public Leaderboard getLeaderboard(String difficulty) {
+        return difficultyLeaderboards.get(difficulty);
+    }
+
+    static String formatTime(long timeMs) {
         long minutes = (timeMs / 1000) / 60;
         long seconds = (timeMs / 1000) % 60;
         long millis = (timeMs % 1000) / 10;
         return String.format("%02d:%02d.%02d", minutes, seconds, millis);
     }
 
+    public PersistenceQueue getWrites() {
+        return writes;
+    }
+
     public void close() {
+        if (writes != null) {
+            writes.close();
+        }
+        if (ranksLoaded) {
+            ranks.writeSnapshot(rankSnapshot);
+        }
+        closeConnection();
+    }
+
+    private void closeConnection() {
         try {
+            if (readConnection != null && !readConnection.isClosed()) {
+                readConnection.close();
+            }
             if (connection != null && !connection.isClosed()) {
                 connection.close();
                 System.out.println("Database connection closed.");
@@ -265,6 +477,36 @@ public class DatabaseManager {
         }
     }
 
+    public static class HighScoreEntry {
+        private final long id;
+        private final String playerName;
+        private final long completionTimeMs;
+        private final String difficulty;
+
+        public HighScoreEntry(long id, String playerName, long completionTimeMs, String difficulty) {
+            this.id = id;
+            this.playerName = playerName;
+            this.completionTimeMs = completionTimeMs;
+            this.difficulty = difficulty;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getPlayerName() {
+            return playerName;
+        }
+
+        public long getCompletionTimeMs() {
+            return completionTimeMs;
+        }
+
+        public String getDifficulty() {
+            return difficulty;
+        }
+    }
+
     public static class SaveData {
         private int id;
         private String playerName;
@@ -355,12 +597,13 @@ public class DatabaseManager {
         }
 
         public static boolean[] parseRoomStates(String statesString) {
-            boolean[] states = new boolean[5];
-            if (statesString != null && !statesString.isEmpty()) {
-                String[] parts = statesString.split(",");
-                for (int i = 0; i < Math.min(parts.length, 5); i++) {
-                    states[i] = "1".equals(parts[i].trim());
-                }
+            if (statesString == null || statesString.isEmpty()) {
+                return new boolean[0];
+            }
+            String[] parts = statesString.split(",");
+            boolean[] states = new boolean[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                states[i] = "1".equals(parts[i].trim());
             }
             return states;
         }
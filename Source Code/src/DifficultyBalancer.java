@@ -0,0 +1,769 @@
+import java.awt.Rectangle;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class DifficultyBalancer {
+    private static final int DEFAULT_GAMES = 20000;
+    private static final long DEFAULT_SEED = 20240101L;
+    private static final int MAX_TICKS = 5 * 60 * GameLoop.TICKS_PER_SECOND;
+    private static final int GAMES_PER_TASK = 64;
+    private static final int HISTOGRAM_BUCKET_SECONDS = 10;
+    private static final int HISTOGRAM_BUCKETS = MAX_TICKS / GameLoop.TICKS_PER_SECOND / HISTOGRAM_BUCKET_SECONDS + 1;
+
+    public enum Strategy {
+        RANDOM_WALK,
+        SEEKER
+    }
+
+    private final int games;
+    private final long seed;
+    private final Strategy strategy;
+    private final ForkJoinPool pool;
+
+    public DifficultyBalancer(int games, long seed, Strategy strategy, int parallelism) {
+        this.games = games;
+        this.seed = seed;
+        this.strategy = strategy;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public Result run(int difficulty) {
+        return run(difficulty, GameSimulation.getDifficultySpeedMultiplier(difficulty));
+    }
+
+    public Result run(int difficulty, double speedMultiplier) {
+        long difficultySeed = seed * 31 + difficulty;
+        return pool.invoke(new BatchTask(difficultySeed, speedMultiplier, strategy, 0, games));
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static class BatchTask extends RecursiveTask<Result> {
+        private static final long serialVersionUID = 1L;
+
+        private final long seed;
+        private final double speedMultiplier;
+        private final Strategy strategy;
+        private final int from;
+        private final int to;
+
+        BatchTask(long seed, double speedMultiplier, Strategy strategy, int from, int to) {
+            this.seed = seed;
+            this.speedMultiplier = speedMultiplier;
+            this.strategy = strategy;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                return playGames();
+            }
+
+            int mid = (from + to) >>> 1;
+            BatchTask left = new BatchTask(seed, speedMultiplier, strategy, from, mid);
+            BatchTask right = new BatchTask(seed, speedMultiplier, strategy, mid, to);
+            left.fork();
+            Result rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+
+        private Result playGames() {
+            Result result = new Result(to - from);
+            GameSimulation simulation = new GameSimulation(new RoomManager(new Random(seed)));
+            NavigationGrid grid = strategy == Strategy.SEEKER ? new NavigationGrid(simulation.getRoomManager()) : null;
+            Guard[] caughtBy = new Guard[1];
+            simulation.setListener(new GameSimulation.Listener() {
+                @Override
+                public void onCucumberCollected(Room.Cucumber cucumber) {
+                }
+
+                @Override
+                public void onPowerUpCollected(PowerUp powerUp) {
+                }
+
+                @Override
+                public void onCaught(Guard guard) {
+                    caughtBy[0] = guard;
+                }
+
+                @Override
+                public void onWon() {
+                }
+            });
+
+            for (int game = from; game < to; game++) {
+                SplittableRandom random = new SplittableRandom(seed ^ (game * 0x9E3779B97F4A7C15L));
+                simulation.newGame(random.nextLong());
+                simulation.setGuardSpeedMultiplier(speedMultiplier);
+                caughtBy[0] = null;
+
+                PlayerScript script = new PlayerScript(strategy, random, grid);
+                GameState state = simulation.getGameState();
+                int ticks = 0;
+                while (state.isPlaying() && ticks < MAX_TICKS) {
+                    simulation.step(script.nextInput(simulation));
+                    ticks++;
+                }
+
+                result.recordCucumbers(state.getCucumbersCollected());
+                if (state.isWon()) {
+                    result.recordWin(ticks);
+                } else if (state.isGameOver() && caughtBy[0] != null) {
+                    result.recordCatch(caughtBy[0].getType());
+                } else {
+                    result.recordTimeout();
+                }
+            }
+            return result;
+        }
+    }
+
+    private static class PlayerScript {
+        private static final int EVADE_MARGIN = 10;
+        private static final int LOOKAHEAD_TICKS = 40;
+        private static final int ENTRY_LOOKAHEAD_TICKS = 120;
+        private static final int ARRIVAL_TICKS = 8;
+        private static final int REACTION_TICKS = 12;
+        private static final int MAX_START_DELAY_TICKS = 180;
+        private static final int UNKNOWN = 0;
+        private static final int[] DIRECTIONS = {
+                GameSimulation.INPUT_UP,
+                GameSimulation.INPUT_DOWN,
+                GameSimulation.INPUT_LEFT,
+                GameSimulation.INPUT_RIGHT,
+                GameSimulation.INPUT_UP | GameSimulation.INPUT_LEFT,
+                GameSimulation.INPUT_UP | GameSimulation.INPUT_RIGHT,
+                GameSimulation.INPUT_DOWN | GameSimulation.INPUT_LEFT,
+                GameSimulation.INPUT_DOWN | GameSimulation.INPUT_RIGHT
+        };
+
+        private enum Plan {
+            FOLLOW, HOLD, STRAIGHT
+        }
+
+        private final Strategy strategy;
+        private final SplittableRandom random;
+        private final NavigationGrid grid;
+        private int input;
+        private int ticksUntilChange;
+        private double lastPlayerX = Double.NaN;
+        private double lastPlayerY = Double.NaN;
+        private final double[] guardOffsets;
+        private final int[] guardDirections;
+        private final long[] guardSeenTicks;
+        private final double[][] guardHistory;
+        private final long[] predictedTicks;
+        private final int[] predictedFrozenTicks;
+        private final double[][] predictedX;
+        private final double[][] predictedY;
+        private final int[] path = new int[ENTRY_LOOKAHEAD_TICKS + 1];
+        private int currentNode;
+        private long tick;
+
+        PlayerScript(Strategy strategy, SplittableRandom random, NavigationGrid grid) {
+            this.strategy = strategy;
+            this.random = random;
+            this.grid = grid;
+            int rooms = grid == null ? 0 : grid.getRoomCount();
+            guardOffsets = new double[rooms];
+            guardDirections = new int[rooms];
+            guardSeenTicks = new long[rooms];
+            guardHistory = new double[rooms][REACTION_TICKS + 1];
+            predictedTicks = new long[rooms];
+            predictedFrozenTicks = new int[rooms];
+            predictedX = new double[rooms][];
+            predictedY = new double[rooms][];
+            Arrays.fill(guardSeenTicks, -1);
+            Arrays.fill(predictedTicks, -1);
+        }
+
+        int nextInput(GameSimulation simulation) {
+            if (strategy == Strategy.SEEKER) {
+                return seek(simulation);
+            }
+
+            if (--ticksUntilChange <= 0) {
+                ticksUntilChange = 10 + random.nextInt(30);
+                input = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+            }
+            return input;
+        }
+
+        // Walks the grid towards the next cucumber, but only along paths that stay outside every predicted
+        // detection radius for the lookahead window; otherwise it holds or backs off until the guard passes.
+        private int seek(GameSimulation simulation) {
+            tick++;
+            Player player = simulation.getPlayer();
+            RoomManager roomManager = simulation.getRoomManager();
+            Room room = simulation.getCollisionManager().getCurrentRoom(player, roomManager);
+
+            boolean blocked = input != 0 && player.getX() == lastPlayerX && player.getY() == lastPlayerY;
+            lastPlayerX = player.getX();
+            lastPlayerY = player.getY();
+            observeGuards(simulation);
+
+            // Players start at different moments, so they meet the guards at different points of their patrols.
+            if (tick == 1) {
+                ticksUntilChange = random.nextInt(MAX_START_DELAY_TICKS + 1);
+                input = 0;
+            }
+            if (ticksUntilChange > 0) {
+                ticksUntilChange--;
+                return input;
+            }
+            int node = grid.nodeAt(player.getX(), player.getY());
+            currentNode = node;
+            Room.Cucumber cucumber = room == null ? null : room.getCucumber();
+            int[] field = grid.fieldTo(cucumber != null && !cucumber.isCollected()
+                    ? cucumber : grid.nearestCucumber(node));
+            if (blocked || node < 0 || field == null || field[node] == NavigationGrid.UNREACHABLE) {
+                ticksUntilChange = 2 + random.nextInt(6);
+                input = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+                return input;
+            }
+
+            int stride = Math.max(1, (int) Math.round(player.getSpeed() / NavigationGrid.STEP));
+            int frozenTicks = simulation.getActivePowerUp() == PowerUp.PowerUpType.FREEZE_GUARDS
+                    ? (int) (simulation.getPowerUpRemainingMs() * GameLoop.TICKS_PER_SECOND / 1000) : 0;
+
+            int fastest = -1;
+            int fastestLanding = -1;
+            for (int i = -1; i < DIRECTIONS.length; i++) {
+                int candidate = i < 0 ? 0 : DIRECTIONS[i];
+                int landing = grid.step(node, candidate, stride);
+                if (landing >= 0 && field[landing] != NavigationGrid.UNREACHABLE
+                        && (fastestLanding < 0 || field[landing] < field[fastestLanding])) {
+                    fastest = candidate;
+                    fastestLanding = landing;
+                }
+            }
+            if (fastestLanding < 0) {
+                input = 0;
+                return input;
+            }
+            if (clearance(simulation, field, fastestLanding, stride, Plan.FOLLOW, fastest, frozenTicks) > 0) {
+                input = fastest;
+                return input;
+            }
+
+            int best = 0;
+            int bestRank = Integer.MAX_VALUE;
+            double bestClearance = Double.NEGATIVE_INFINITY;
+            for (int i = -1; i < DIRECTIONS.length; i++) {
+                int candidate = i < 0 ? 0 : DIRECTIONS[i];
+                int landing = grid.step(node, candidate, stride);
+                if (landing < 0 || field[landing] == NavigationGrid.UNREACHABLE) {
+                    continue;
+                }
+                double clearance = clearance(simulation, field, landing, stride, Plan.FOLLOW, candidate, frozenTicks);
+                int rank = field[landing];
+                if (clearance <= 0) {
+                    clearance = clearance(simulation, field, landing, stride, Plan.HOLD, candidate, frozenTicks);
+                    rank += NavigationGrid.UNREACHABLE;
+                }
+                if (clearance <= 0) {
+                    clearance = Math.max(clearance,
+                            clearance(simulation, field, landing, stride, Plan.STRAIGHT, candidate, frozenTicks));
+                    rank = clearance > 0 ? rank + NavigationGrid.UNREACHABLE : Integer.MAX_VALUE;
+                }
+                if (rank < bestRank || (rank == bestRank && clearance > bestClearance)) {
+                    best = candidate;
+                    bestRank = rank;
+                    bestClearance = clearance;
+                }
+            }
+            input = best;
+            return input;
+        }
+
+        // Plans against where each guard was REACTION_TICKS ago, like a player reacting to what is on screen;
+        // the faster the guards, the further they have moved since.
+        private void observeGuards(GameSimulation simulation) {
+            List<Room> rooms = simulation.getRoomManager().getRooms();
+            for (int i = 0; i < guardOffsets.length; i++) {
+                Guard guard = rooms.get(i).getGuard();
+                if (guard == null) {
+                    continue;
+                }
+                double[] history = guardHistory[i];
+                if (guardSeenTicks[i] < 0) {
+                    Arrays.fill(history, grid.patrolOffset(guard));
+                }
+                history[(int) (tick % history.length)] = grid.patrolOffset(guard);
+                double offset = history[(int) ((tick + 1) % history.length)];
+                if (guardSeenTicks[i] == tick - 1 && offset != guardOffsets[i]) {
+                    guardDirections[i] = offset > guardOffsets[i] ? 1 : -1;
+                } else if (offset <= 0) {
+                    guardDirections[i] = 1;
+                } else if (offset >= grid.patrolLength(guard)) {
+                    guardDirections[i] = -1;
+                }
+                guardOffsets[i] = offset;
+                guardSeenTicks[i] = tick;
+            }
+        }
+
+        // Smallest distance, beyond the detection radius plus margin, between the player and a guard of any
+        // room it overlaps over the lookahead, after landing and then following the field, holding still or
+        // repeating the same input; negative means the plan is seen.
+        private double clearance(GameSimulation simulation, int[] field, int landing, int stride,
+                Plan plan, int candidate, int frozenTicks) {
+            if (grid.picksUpPowerUp(landing)) {
+                frozenTicks = 0;
+            }
+            int length = 0;
+            int node = landing;
+            path[length++] = node;
+            int end = grid.entersLockedRoom(currentNode, landing) ? ENTRY_LOOKAHEAD_TICKS : LOOKAHEAD_TICKS;
+            while (length <= end) {
+                if (plan == Plan.FOLLOW) {
+                    for (int step = 0; step < stride && field[node] > 0; step++) {
+                        node = grid.downhill(field, node);
+                    }
+                    if (field[node] == 0) {
+                        end = Math.min(end, length + ARRIVAL_TICKS);
+                    }
+                } else if (plan == Plan.STRAIGHT) {
+                    int next = grid.step(node, candidate, stride);
+                    node = next >= 0 ? next : node;
+                }
+                path[length++] = node;
+            }
+
+            double clearance = Double.MAX_VALUE;
+            List<Room> rooms = simulation.getRoomManager().getRooms();
+            for (int t = 0; t < length; t++) {
+                double playerX = grid.centerX(path[t]);
+                double playerY = grid.centerY(path[t]);
+                for (int slot = 0; slot < NavigationGrid.ROOMS_PER_NODE; slot++) {
+                    int roomIndex = grid.roomOf(path[t], slot);
+                    if (roomIndex < 0 || rooms.get(roomIndex).getGuard() == null) {
+                        continue;
+                    }
+                    Guard guard = rooms.get(roomIndex).getGuard();
+                    predict(roomIndex, guard, frozenTicks);
+                    double radius = guard.getDetectionRadius() + EVADE_MARGIN;
+                    for (int direction = 0; direction < 2; direction++) {
+                        double dx = predictedX[roomIndex][direction * (ENTRY_LOOKAHEAD_TICKS + 1) + t] - playerX;
+                        double dy = predictedY[roomIndex][direction * (ENTRY_LOOKAHEAD_TICKS + 1) + t] - playerY;
+                        clearance = Math.min(clearance, Math.sqrt(dx * dx + dy * dy) - radius);
+                    }
+                }
+            }
+            return clearance;
+        }
+
+        private void predict(int roomIndex, Guard guard, int frozenTicks) {
+            if (predictedTicks[roomIndex] == tick && predictedFrozenTicks[roomIndex] == frozenTicks) {
+                return;
+            }
+            predictedTicks[roomIndex] = tick;
+            predictedFrozenTicks[roomIndex] = frozenTicks;
+            if (predictedX[roomIndex] == null) {
+                predictedX[roomIndex] = new double[2 * (ENTRY_LOOKAHEAD_TICKS + 1)];
+                predictedY[roomIndex] = new double[2 * (ENTRY_LOOKAHEAD_TICKS + 1)];
+            }
+            double length = grid.patrolLength(guard);
+            double speed = guard.getSpeed();
+            double startX = guard.getPatrolStartX() + guard.getWidth() / 2.0;
+            double startY = guard.getPatrolStartY() + guard.getHeight() / 2.0;
+            double directionX = length > 0 ? (guard.getPatrolEndX() - guard.getPatrolStartX()) / length : 0;
+            double directionY = length > 0 ? (guard.getPatrolEndY() - guard.getPatrolStartY()) / length : 0;
+            for (int direction = 0; direction < 2; direction++) {
+                int heading = guardDirections[roomIndex] != UNKNOWN ? guardDirections[roomIndex]
+                        : direction == 0 ? 1 : -1;
+                double offset = guardOffsets[roomIndex];
+                for (int t = 0; t <= ENTRY_LOOKAHEAD_TICKS; t++) {
+                    if (t >= frozenTicks && length > 0) {
+                        offset += heading * speed;
+                        if (offset > length) {
+                            offset = 2 * length - offset;
+                            heading = -1;
+                        } else if (offset < 0) {
+                            offset = -offset;
+                            heading = 1;
+                        }
+                    }
+                    predictedX[roomIndex][direction * (ENTRY_LOOKAHEAD_TICKS + 1) + t] = startX + offset * directionX;
+                    predictedY[roomIndex][direction * (ENTRY_LOOKAHEAD_TICKS + 1) + t] = startY + offset * directionY;
+                }
+            }
+        }
+
+        private static int directionX(int input) {
+            return ((input & GameSimulation.INPUT_RIGHT) != 0 ? 1 : 0)
+                    - ((input & GameSimulation.INPUT_LEFT) != 0 ? 1 : 0);
+        }
+
+        private static int directionY(int input) {
+            return ((input & GameSimulation.INPUT_DOWN) != 0 ? 1 : 0)
+                    - ((input & GameSimulation.INPUT_UP) != 0 ? 1 : 0);
+        }
+    }
+
+    private static class NavigationGrid {
+        static final int STEP = 4;
+        static final int ROOMS_PER_NODE = 2;
+        static final int UNREACHABLE = Integer.MAX_VALUE / 4;
+
+        private final RoomManager roomManager;
+        private final int originX;
+        private final int originY;
+        private final int columns;
+        private final int rows;
+        private final boolean[] walkable;
+        private final boolean[] onDoor;
+        private final int[] centerRooms;
+        private final int[] rooms;
+        private final Map<Room.Cucumber, int[]> fields = new HashMap<>();
+
+        NavigationGrid(RoomManager roomManager) {
+            this.roomManager = roomManager;
+            Rectangle bounds = roomManager.getBounds();
+            originX = bounds.x;
+            originY = bounds.y;
+            columns = Math.max(1, (bounds.width - Player.SIZE) / STEP + 1);
+            rows = Math.max(1, (bounds.height - Player.SIZE) / STEP + 1);
+            walkable = new boolean[columns * rows];
+            onDoor = new boolean[columns * rows];
+            centerRooms = new int[columns * rows];
+            rooms = new int[columns * rows * ROOMS_PER_NODE];
+            Arrays.fill(rooms, -1);
+            List<Room> roomList = roomManager.getRooms();
+            for (int node = 0; node < walkable.length; node++) {
+                onDoor[node] = roomManager.findDoor(x(node), y(node), Player.SIZE, Player.SIZE) != null;
+                walkable[node] = isLegal(roomList, node);
+                centerRooms[node] = roomList.indexOf(roomManager.findRoomAt(centerX(node), centerY(node)));
+            }
+            for (int i = 0; i < roomList.size(); i++) {
+                Room room = roomList.get(i);
+                for (int node = 0; node < walkable.length; node++) {
+                    if (walkable[node] && room.getX() < x(node) + Player.SIZE && x(node) < room.getX() + room.getWidth()
+                            && room.getY() < y(node) + Player.SIZE && y(node) < room.getY() + room.getHeight()) {
+                        int slot = rooms[node * ROOMS_PER_NODE] < 0 ? 0 : 1;
+                        rooms[node * ROOMS_PER_NODE + slot] = i;
+                    }
+                }
+            }
+        }
+
+        // Same rule as GameSimulation.validateMove: clear of obstacles, and either inside a room or on a door.
+        private boolean isLegal(List<Room> roomList, int node) {
+            if (roomManager.findObstacle(x(node), y(node), Player.SIZE, Player.SIZE) != null) {
+                return false;
+            }
+            if (onDoor[node]) {
+                return true;
+            }
+            for (Room room : roomList) {
+                if (room.contains(x(node), y(node), Player.SIZE, Player.SIZE)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        boolean picksUpPowerUp(int node) {
+            return roomManager.findPowerUp(x(node), y(node), Player.SIZE, Player.SIZE) != null;
+        }
+
+        int getRoomCount() {
+            return roomManager.getRooms().size();
+        }
+
+        int x(int node) {
+            return originX + (node % columns) * STEP;
+        }
+
+        int y(int node) {
+            return originY + (node / columns) * STEP;
+        }
+
+        double centerX(int node) {
+            return x(node) + Player.SIZE / 2.0;
+        }
+
+        double centerY(int node) {
+            return y(node) + Player.SIZE / 2.0;
+        }
+
+        int roomOf(int node, int slot) {
+            return rooms[node * ROOMS_PER_NODE + slot];
+        }
+
+        int nodeAt(double x, double y) {
+            int column = (int) Math.round((x - originX) / STEP);
+            int row = (int) Math.round((y - originY) / STEP);
+            if (column < 0 || row < 0 || column >= columns || row >= rows) {
+                return -1;
+            }
+            return row * columns + column;
+        }
+
+        // The room under the player's centre may only change while the player is on a door.
+        int move(int node, int input, int stride) {
+            int column = node % columns + PlayerScript.directionX(input) * stride;
+            int row = node / columns + PlayerScript.directionY(input) * stride;
+            if (column < 0 || row < 0 || column >= columns || row >= rows) {
+                return -1;
+            }
+            int target = row * columns + column;
+            return walkable[target] && (centerRooms[target] == centerRooms[node] || onDoor[target]) ? target : -1;
+        }
+
+        boolean entersLockedRoom(int from, int to) {
+            return from >= 0 && centerRooms[to] != centerRooms[from] && centerRooms[to] >= 0
+                    && !roomManager.getRooms().get(centerRooms[to]).isUnlocked();
+        }
+
+        // Like move, but also refuses to leave a room whose cucumber is still there.
+        int step(int node, int input, int stride) {
+            int target = move(node, input, stride);
+            if (target < 0 || centerRooms[target] == centerRooms[node] || centerRooms[node] < 0
+                    || roomManager.getRooms().get(centerRooms[node]).isUnlocked()) {
+                return target;
+            }
+            return -1;
+        }
+
+        int downhill(int[] field, int node) {
+            int best = node;
+            for (int input : PlayerScript.DIRECTIONS) {
+                int next = move(node, input, 1);
+                if (next >= 0 && field[next] < field[best]) {
+                    best = next;
+                }
+            }
+            return best;
+        }
+
+        Room.Cucumber nearestCucumber(int node) {
+            Room.Cucumber nearest = null;
+            int nearestDistance = UNREACHABLE;
+            if (node < 0) {
+                return null;
+            }
+            for (Room room : roomManager.getRooms()) {
+                Room.Cucumber cucumber = room.getCucumber();
+                if (cucumber != null && !cucumber.isCollected() && fieldTo(cucumber)[node] < nearestDistance) {
+                    nearest = cucumber;
+                    nearestDistance = fieldTo(cucumber)[node];
+                }
+            }
+            return nearest;
+        }
+
+        int[] fieldTo(Room.Cucumber cucumber) {
+            if (cucumber == null) {
+                return null;
+            }
+            int[] field = fields.get(cucumber);
+            if (field != null) {
+                return field;
+            }
+            field = new int[walkable.length];
+            Arrays.fill(field, UNREACHABLE);
+            int[] queue = new int[walkable.length];
+            int head = 0;
+            int tail = 0;
+            for (int node = 0; node < walkable.length; node++) {
+                if (walkable[node] && cucumber.intersects(x(node), y(node), Player.SIZE, Player.SIZE)) {
+                    field[node] = 0;
+                    queue[tail++] = node;
+                }
+            }
+            while (head < tail) {
+                int node = queue[head++];
+                for (int input : PlayerScript.DIRECTIONS) {
+                    int next = move(node, input, 1);
+                    if (next >= 0 && field[next] == UNREACHABLE) {
+                        field[next] = field[node] + 1;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            fields.put(cucumber, field);
+            return field;
+        }
+
+        double patrolLength(Guard guard) {
+            return Math.hypot(guard.getPatrolEndX() - guard.getPatrolStartX(),
+                    guard.getPatrolEndY() - guard.getPatrolStartY());
+        }
+
+        double patrolOffset(Guard guard) {
+            double length = patrolLength(guard);
+            if (length == 0) {
+                return 0;
+            }
+            return ((guard.getX() - guard.getPatrolStartX()) * (guard.getPatrolEndX() - guard.getPatrolStartX())
+                    + (guard.getY() - guard.getPatrolStartY()) * (guard.getPatrolEndY() - guard.getPatrolStartY()))
+                    / length;
+        }
+    }
+
+    public static class Result {
+        private int games;
+        private int wins;
+        private int catches;
+        private int timeouts;
+        private long cucumbers;
+        private final int[] catchesByGuard;
+        private int[] completionTicks;
+        private final int[] histogram;
+
+        Result(int capacity) {
+            this.catchesByGuard = new int[Guard.GuardType.values().length];
+            this.completionTicks = new int[Math.max(1, capacity)];
+            this.histogram = new int[HISTOGRAM_BUCKETS];
+        }
+
+        void recordWin(int ticks) {
+            if (wins == completionTicks.length) {
+                completionTicks = Arrays.copyOf(completionTicks, wins * 2);
+            }
+            completionTicks[wins++] = ticks;
+            histogram[Math.min(HISTOGRAM_BUCKETS - 1,
+                    ticks / GameLoop.TICKS_PER_SECOND / HISTOGRAM_BUCKET_SECONDS)]++;
+            games++;
+        }
+
+        void recordCucumbers(int collected) {
+            cucumbers += collected;
+        }
+
+        void recordCatch(Guard.GuardType guardType) {
+            catchesByGuard[guardType.ordinal()]++;
+            catches++;
+            games++;
+        }
+
+        void recordTimeout() {
+            timeouts++;
+            games++;
+        }
+
+        Result merge(Result other) {
+            Result merged = new Result(wins + other.wins);
+            merged.games = games + other.games;
+            merged.catches = catches + other.catches;
+            merged.timeouts = timeouts + other.timeouts;
+            merged.wins = wins + other.wins;
+            merged.cucumbers = cucumbers + other.cucumbers;
+            System.arraycopy(completionTicks, 0, merged.completionTicks, 0, wins);
+            System.arraycopy(other.completionTicks, 0, merged.completionTicks, wins, other.wins);
+            for (int i = 0; i < catchesByGuard.length; i++) {
+                merged.catchesByGuard[i] = catchesByGuard[i] + other.catchesByGuard[i];
+            }
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                merged.histogram[i] = histogram[i] + other.histogram[i];
+            }
+            return merged;
+        }
+
+        public double getCatchRate() {
+            return games == 0 ? 0 : (double) catches / games;
+        }
+
+        public double getWinRate() {
+            return games == 0 ? 0 : (double) wins / games;
+        }
+
+        public double getAverageCucumbers() {
+            return games == 0 ? 0 : (double) cucumbers / games;
+        }
+
+        public long getCompletionPercentileMs(double percentile) {
+            if (wins == 0) {
+                return 0;
+            }
+            int[] sorted = Arrays.copyOf(completionTicks, wins);
+            Arrays.sort(sorted);
+            int index = (int) Math.min(wins - 1, Math.max(0, Math.ceil(percentile * wins) - 1));
+            return (long) sorted[index] * 1000 / GameLoop.TICKS_PER_SECOND;
+        }
+
+        public Guard.GuardType getDeadliestGuard() {
+            Guard.GuardType deadliest = null;
+            int most = 0;
+            for (Guard.GuardType type : Guard.GuardType.values()) {
+                if (catchesByGuard[type.ordinal()] > most) {
+                    most = catchesByGuard[type.ordinal()];
+                    deadliest = type;
+                }
+            }
+            return deadliest;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public int getCatches(Guard.GuardType type) {
+            return catchesByGuard[type.ordinal()];
+        }
+
+        public void print(String label) {
+            System.out.printf("%s: %d games | win %.1f%% | caught %.1f%% | timeout %.1f%% | avg cucumbers %.2f%n",
+                    label, games, getWinRate() * 100, getCatchRate() * 100,
+                    games == 0 ? 0.0 : timeouts * 100.0 / games, getAverageCucumbers());
+
+            if (wins > 0) {
+                System.out.printf("  completion p10 %s | p50 %s | p90 %s%n",
+                        DatabaseManager.formatTime(getCompletionPercentileMs(0.10)),
+                        DatabaseManager.formatTime(getCompletionPercentileMs(0.50)),
+                        DatabaseManager.formatTime(getCompletionPercentileMs(0.90)));
+                for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                    if (histogram[i] > 0) {
+                        System.out.printf("  %3ds-%3ds %6d%n", i * HISTOGRAM_BUCKET_SECONDS,
+                                (i + 1) * HISTOGRAM_BUCKET_SECONDS, histogram[i]);
+                    }
+                }
+            }
+
+            for (Guard.GuardType type : Guard.GuardType.values()) {
+                if (catchesByGuard[type.ordinal()] > 0) {
+                    System.out.printf("  caught by %-15s %6d%n", type.getDisplayName(), catchesByGuard[type.ordinal()]);
+                }
+            }
+            Guard.GuardType deadliest = getDeadliestGuard();
+            if (deadliest != null) {
+                System.out.println("  deadliest guard: " + deadliest.getDisplayName());
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAMES;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        Strategy strategy = args.length > 2 ? Strategy.valueOf(args[2].toUpperCase()) : Strategy.SEEKER;
+        int parallelism = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        DifficultyBalancer balancer = new DifficultyBalancer(games, seed, strategy, parallelism);
+        System.out.printf("Balancing %d games per difficulty, seed %d, %s player, %d threads%n",
+                games, seed, strategy, parallelism);
+
+        try {
+            for (int difficulty = 1; difficulty <= GameSimulation.getDifficultyCount(); difficulty++) {
+                long start = System.nanoTime();
+                Result result = balancer.run(difficulty);
+                long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+                result.print(GameSimulation.getDifficultyName(difficulty) + " (x"
+                        + GameSimulation.getDifficultySpeedMultiplier(difficulty) + ")");
+                System.out.printf("  %d ms, %.0f games/s%n", elapsedMs, games * 1000.0 / Math.max(1, elapsedMs));
+            }
+        } finally {
+            balancer.shutdown();
+        }
+    }
+}
@@ -7,6 +7,10 @@ public abstract class Entity {
     protected int width;
     protected int height;
     protected double speed;
+    protected double renderX;
+    protected double renderY;
+    private double tickStartX;
+    private double tickStartY;
 
     public Entity(double x, double y, int width, int height) {
         this.x = x;
@@ -14,14 +18,39 @@ public abstract class Entity {
         this.width = width;
         this.height = height;
         this.speed = 3.0;
+        this.tickStartX = x;
+        this.tickStartY = y;
+        this.renderX = x;
+        this.renderY = y;
+    }
+
+    public void beginTick() {
+        tickStartX = getX();
+        tickStartY = getY();
+    }
+
+    public void interpolate(double alpha) {
+        renderX = tickStartX + (getX() - tickStartX) * alpha;
+        renderY = tickStartY + (getY() - tickStartY) * alpha;
+    }
+
+    public void syncRenderPosition() {
+        tickStartX = getX();
+        tickStartY = getY();
+        renderX = tickStartX;
+        renderY = tickStartY;
     }
 
     public Rectangle getBounds() {
-        return new Rectangle((int) x, (int) y, width, height);
+        return new Rectangle((int) getX(), (int) getY(), width, height);
+    }
+
+    public boolean intersects(int otherX, int otherY, int otherWidth, int otherHeight) {
+        return Aabb.intersects((int) getX(), (int) getY(), width, height, otherX, otherY, otherWidth, otherHeight);
     }
 
     public boolean collidesWith(Entity other) {
-        return getBounds().intersects(other.getBounds());
+        return other.intersects((int) getX(), (int) getY(), width, height);
     }
 
     public abstract void draw(Graphics2D g2d);
@@ -36,6 +65,14 @@ public abstract class Entity {
         return y;
     }
 
+    public double getRenderX() {
+        return renderX;
+    }
+
+    public double getRenderY() {
+        return renderY;
+    }
+
     public void setX(double x) {
         this.x = x;
     }
@@ -0,0 +1,99 @@
+import java.util.concurrent.locks.LockSupport;
+
+public class GameLoop implements Runnable {
+    public static final int TICKS_PER_SECOND = 60;
+    public static final long NANOS_PER_TICK = 1_000_000_000L / TICKS_PER_SECOND;
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    public interface Listener {
+        void tick();
+
+        void render();
+    }
+
+    private final Listener listener;
+    private volatile boolean running;
+    private volatile long lastTickTime;
+    private volatile long droppedTicks;
+    private Thread thread;
+
+    public GameLoop(Listener listener) {
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, "GameLoop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null && thread != Thread.currentThread()) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        thread = null;
+    }
+
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long lag = 0;
+        lastTickTime = previous;
+
+        while (running) {
+            long now = System.nanoTime();
+            lag += now - previous;
+            previous = now;
+
+            int steps = 0;
+            while (lag >= NANOS_PER_TICK && steps < MAX_CATCH_UP_TICKS) {
+                try {
+                    listener.tick();
+                } catch (RuntimeException e) {
+                    System.err.println("Error in game tick: " + e.getMessage());
+                    e.printStackTrace();
+                }
+                lag -= NANOS_PER_TICK;
+                lastTickTime = now - lag;
+                steps++;
+            }
+
+            if (lag >= NANOS_PER_TICK) {
+                droppedTicks += lag / NANOS_PER_TICK;
+                lag %= NANOS_PER_TICK;
+                lastTickTime = now - lag;
+            }
+
+            if (steps > 0) {
+                listener.render();
+            }
+
+            long sleepNanos = NANOS_PER_TICK - lag - (System.nanoTime() - now);
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(sleepNanos);
+            }
+        }
+    }
+
+    public double getInterpolationAlpha() {
+        double alpha = (double) (System.nanoTime() - lastTickTime) / NANOS_PER_TICK;
+        return Math.max(0.0, Math.min(1.0, alpha));
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -1,90 +1,259 @@
 import javax.swing.*;
 import java.awt.*;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
-public class GamePanel extends JPanel implements ActionListener {
+public class GamePanel extends JPanel implements GameLoop.Listener, GameSimulation.Listener {
     private static final int PANEL_WIDTH = 780;
     private static final int PANEL_HEIGHT = 510;
-    private static final int FPS = 60;
-    private static final int DELAY = 1000 / FPS;
 
+    private GameSimulation simulation;
+    private Replay recording;
+    private Replay playback;
+    private int playbackTick;
     private Player player;
     private RoomManager roomManager;
     private GameState gameState;
     private InputHandler inputHandler;
-    private CollisionManager collisionManager;
     private GameWindow.ProgressBar progressBar;
-    private Timer gameTimer;
-    private DatabaseManager databaseManager;
+    private GameLoop gameLoop;
+    private StaticSceneLayer sceneLayer;
+    private Camera camera;
+    private final Object stateLock = new Object();
+    private volatile DatabaseManager databaseManager;
+    private CompletableFuture<DatabaseManager> databaseStartup;
+    private DatabaseManager.SaveData pendingLoad;
+    private boolean loadInProgress;
+    private boolean firstFramePainted;
     private AudioManager audioManager;
 
     private String statusMessage = "";
     private long statusMessageTime = 0;
     private static final long STATUS_DISPLAY_DURATION = 2000;
-    private boolean highScoreSaved = false;
     private boolean showHighScores = false;
-    private int currentDifficulty = 2;
-    private static final String[] DIFFICULTY_NAMES = { "", "Easy", "Normal", "Hard" };
-    private static final double[] DIFFICULTY_SPEED_MULTIPLIERS = { 0, 0.5, 1.0, 1.5 };
+    private final java.util.List<java.util.List<DatabaseManager.HighScoreEntry>> scorePages = new java.util.ArrayList<>();
+    private String[] scorePageLines;
+    private String scorePageDifficulty;
+    private boolean scorePageLoading;
+    private final AtomicLong overlayQueryCount = new AtomicLong();
+    private long overlayQuerySampleTime = 0;
+    private long overlayQuerySampleCount = 0;
+    private long overlayQueriesPerSecond = 0;
 
     private int menuSelectedIndex = 0;
     private static final String[] MENU_OPTIONS = { "Start Game", "High Scores", "Difficulty", "Exit" };
+    private static final String[] DATABASE_UNAVAILABLE = { "Database not available" };
+    private static final String[] DATABASE_CONNECTING = { "Database connecting..." };
+    private static final String TIME_PREFIX = "Time: ";
+    private static final String QUERY_RATE_PREFIX = "DB queries/s: ";
+    private static final String CONTROLS_HINT =
+            "WASD: Move | R: Restart | F5: Save | F9: Load | F7: Replay | H: High Scores | ESC: Menu";
+
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font HINT_FONT = new Font("Arial", Font.PLAIN, 10);
+    private static final Font SMALL_BOLD_FONT = new Font("Arial", Font.BOLD, 11);
+    private static final Font STATUS_FONT = new Font("Arial", Font.BOLD, 14);
+    private static final Font BANNER_FONT = new Font("Arial", Font.BOLD, 48);
+    private static final Font GAME_OVER_MESSAGE_FONT = new Font("Arial", Font.PLAIN, 24);
+    private static final Font PROMPT_FONT = new Font("Arial", Font.BOLD, 18);
+    private static final Font WIN_TIME_FONT = new Font("Arial", Font.BOLD, 28);
+    private static final Font WIN_MESSAGE_FONT = new Font("Arial", Font.PLAIN, 20);
+    private static final Font OVERLAY_TITLE_FONT = new Font("Arial", Font.BOLD, 36);
+    private static final Font SCORE_FONT = new Font("Consolas", Font.PLAIN, 18);
+    private static final Font FOOTER_FONT = new Font("Arial", Font.PLAIN, 14);
+    private static final Font SUBTITLE_FONT = new Font("Arial", Font.ITALIC, 18);
+    private static final Font MENU_FONT = new Font("Arial", Font.BOLD, 24);
+    private static final Font VERSION_FONT = new Font("Arial", Font.PLAIN, 11);
+
+    private static final Color HUD_TIME_COLOR = new Color(255, 255, 255, 200);
+    private static final Color HINT_COLOR = new Color(200, 200, 200);
+    private static final Color BADGE_COLOR = new Color(100, 100, 100, 180);
+    private static final Color POWER_UP_BAR_BACKGROUND = new Color(0, 0, 0, 150);
+    private static final Color TOAST_BACKGROUND = new Color(50, 50, 50);
+    private static final Color TOAST_TEXT_COLOR = new Color(255, 255, 100);
+    private static final AlphaComposite[] FADE_COMPOSITES = fadeRamp();
+    private static final Color GAME_OVER_SHADE = new Color(0, 0, 0, 180);
+    private static final Color WIN_SHADE = new Color(0, 50, 0, 180);
+    private static final Color WIN_TITLE_COLOR = new Color(50, 255, 50);
+    private static final Color GOLD = new Color(255, 215, 0);
+    private static final Color SILVER = new Color(192, 192, 192);
+    private static final Color BRONZE = new Color(205, 127, 50);
+    private static final Color OVERLAY_SHADE = new Color(0, 0, 50, 220);
+    private static final Color GOLD_RULE = new Color(255, 215, 0, 150);
+    private static final Color ROW_STRIPE = new Color(255, 255, 255, 30);
+    private static final Color FOOTER_COLOR = new Color(150, 150, 150);
+    private static final Color DIM_COLOR = new Color(100, 100, 100);
+    private static final Color MENU_BACKGROUND = new Color(20, 30, 50);
+    private static final Color MENU_TILE = new Color(30, 45, 70);
+    private static final Color TITLE_SHADOW = new Color(0, 0, 0, 100);
+    private static final Color TITLE_COLOR = new Color(50, 200, 50);
+    private static final Color MENU_HIGHLIGHT = new Color(50, 150, 50, 100);
+    private static final Color MENU_HIGHLIGHT_BORDER = new Color(100, 255, 100);
+    private static final Color MENU_OPTION_COLOR = new Color(180, 180, 180);
+    private static final Color CUCUMBER_DARK = new Color(34, 139, 34);
+    private static final Color CUCUMBER_LIGHT = new Color(50, 180, 50);
+    private static final Color CUCUMBER_STEM = new Color(100, 180, 100);
+    private static final Color CUCUMBER_OUTLINE = new Color(20, 80, 20);
+    private static final BasicStroke MENU_STROKE = new BasicStroke(2);
+    private static final SpriteCache.Painter MENU_CUCUMBER_PAINTER =
+            (g2d, key, x, y) -> paintMenuCucumber(g2d, x, y);
+    private static final int POWER_UP_BAR_WIDTH = 100;
+    private static final int POWER_UP_BAR_HEIGHT = 18;
+    private static final SpriteCache.Painter BADGE_PAINTER = (g2d, key, x, y) -> {
+        g2d.setColor(BADGE_COLOR);
+        g2d.fillRoundRect(x, y, 75, 20, 5, 5);
+    };
+    private static final SpriteCache.Painter POWER_UP_BAR_PAINTER = (g2d, key, x, y) -> {
+        g2d.setColor(POWER_UP_BAR_BACKGROUND);
+        g2d.fillRoundRect(x, y, POWER_UP_BAR_WIDTH + 10, POWER_UP_BAR_HEIGHT + 4, 8, 8);
+    };
+    private static final SpriteCache.Painter POWER_UP_FILL_PAINTER = (g2d, key, x, y) -> {
+        g2d.setColor(((PowerUp.PowerUpType) key).getColor());
+        g2d.fillRoundRect(x, y, POWER_UP_BAR_WIDTH, POWER_UP_BAR_HEIGHT, 5, 5);
+    };
+    private static final SpriteCache.Painter MENU_HIGHLIGHT_PAINTER = (g2d, key, x, y) -> {
+        int boxWidth = ((TextLabel) key).getWidth(g2d) + 40;
+        g2d.setColor(MENU_HIGHLIGHT);
+        g2d.fillRoundRect(x, y, boxWidth, 40, 10, 10);
+
+        g2d.setColor(MENU_HIGHLIGHT_BORDER);
+        g2d.setStroke(MENU_STROKE);
+        g2d.drawRoundRect(x, y, boxWidth, 40, 10, 10);
+    };
+    private static final SpriteCache.Painter TOAST_PAINTER = (g2d, key, x, y) -> {
+        g2d.setColor(TOAST_BACKGROUND);
+        g2d.fillRoundRect(x, y, 200, 30, 10, 10);
+    };
+
+    private final char[] timeText = new char[32];
+    private final GlyphCache timeGlyphs = new GlyphCache(HUD_FONT, TIME_PREFIX + "0123456789:.");
+    private final GlyphCache queryRateGlyphs = new GlyphCache(HINT_FONT, QUERY_RATE_PREFIX + "0123456789");
+    private final Rectangle powerUpFillClip = new Rectangle();
+    private final char[] queryRateText = new char[48];
+    private final TextLabel controlsHint = new TextLabel(HINT_FONT, CONTROLS_HINT);
+    private final TextLabel[] difficultyBadges;
+    private final TextLabel[] powerUpLabels;
+    private final TextLabel statusLabel = new TextLabel(STATUS_FONT);
+    private final TextLabel gameOverTitle = new TextLabel(BANNER_FONT, "GAME OVER!");
+    private final TextLabel gameOverMessage = new TextLabel(GAME_OVER_MESSAGE_FONT);
+    private final TextLabel restartPrompt = new TextLabel(PROMPT_FONT, "Press R to Restart");
+    private final TextLabel winTitle = new TextLabel(BANNER_FONT, "YOU WIN!");
+    private final TextLabel winTimeLabel = new TextLabel(WIN_TIME_FONT);
+    private final TextLabel winRankLabel = new TextLabel(WIN_MESSAGE_FONT, "");
+    private long winTimeValue = -1;
+    private final TextLabel winMessage = new TextLabel(WIN_MESSAGE_FONT, "All cucumbers collected!");
+    private final TextLabel playAgainPrompt = new TextLabel(PROMPT_FONT, "Press R to Play Again");
+    private final TextLabel overlayTitle = new TextLabel(OVERLAY_TITLE_FONT, "HIGH SCORES");
+    private final TextLabel overlayFooter = new TextLabel(FOOTER_FONT);
+    private String[] scoreLines;
+    private TextLabel[] scoreLabels;
+    private final TextLabel menuTitle = new TextLabel(BANNER_FONT, "HIDE MY CUCUMBER");
+    private final TextLabel menuTitleShadow = new TextLabel(BANNER_FONT, menuTitle.getText());
+    private final TextLabel menuArrow = new TextLabel(MENU_FONT, "►");
+    private final TextLabel versionLabel = new TextLabel(VERSION_FONT, "Hide My Cucumber v1.0");
+    private final TextLabel menuSubtitle = new TextLabel(SUBTITLE_FONT, "Collect all cucumbers without getting caught!");
+    private final TextLabel menuControls = new TextLabel(FOOTER_FONT, "↑↓: Navigate | Enter/Space: Select");
+    private final TextLabel[] menuOptionLabels;
+    private final TextLabel[] difficultyLabels;
 
-    private static final double START_X = 250;
-    private static final double START_Y = 100;
+    public GamePanel(GameWindow.ProgressBar progressBar) {
+        this(progressBar, new RoomManager());
+    }
 
-    private PowerUp.PowerUpType activePowerUp = null;
-    private long powerUpEndTime = 0;
-    private static final double NORMAL_SPEED = 4.0;
-    private static final double BOOST_SPEED = 8.0;
+    public GamePanel(GameWindow.ProgressBar progressBar, RoomManager roomManager) {
+        this(progressBar, new GameSimulation(roomManager));
+        initializeGame();
+    }
 
-    public GamePanel(GameWindow.ProgressBar progressBar) {
+    GamePanel(GameWindow.ProgressBar progressBar, GameSimulation simulation) {
         this.progressBar = progressBar;
+        this.simulation = simulation;
         setPreferredSize(new Dimension(PANEL_WIDTH, PANEL_HEIGHT));
         setBackground(new Color(40, 40, 40));
         setFocusable(true);
+        sceneLayer = new StaticSceneLayer(PANEL_WIDTH, PANEL_HEIGHT, getBackground());
+        camera = new Camera(PANEL_WIDTH, PANEL_HEIGHT);
+
+        TIME_PREFIX.getChars(0, TIME_PREFIX.length(), timeText, 0);
+        QUERY_RATE_PREFIX.getChars(0, QUERY_RATE_PREFIX.length(), queryRateText, 0);
+        PowerUp.PowerUpType[] powerUpTypes = PowerUp.PowerUpType.values();
+        powerUpLabels = new TextLabel[powerUpTypes.length];
+        for (PowerUp.PowerUpType type : powerUpTypes) {
+            powerUpLabels[type.ordinal()] = new TextLabel(SMALL_BOLD_FONT, type.getDisplayName());
+        }
+        menuOptionLabels = new TextLabel[MENU_OPTIONS.length];
+        for (int i = 0; i < MENU_OPTIONS.length; i++) {
+            menuOptionLabels[i] = new TextLabel(MENU_FONT, MENU_OPTIONS[i]);
+        }
+        difficultyLabels = new TextLabel[GameSimulation.getDifficultyCount() + 1];
+        difficultyBadges = new TextLabel[difficultyLabels.length];
+        for (int i = 1; i < difficultyLabels.length; i++) {
+            difficultyLabels[i] = new TextLabel(MENU_FONT, "Difficulty: " + GameSimulation.getDifficultyName(i));
+            difficultyBadges[i] = new TextLabel(SMALL_BOLD_FONT, GameSimulation.getDifficultyName(i));
+        }
 
-        initializeGame();
+        scorePageDifficulty = GameSimulation.getDifficultyName(simulation.getDifficulty());
+        updateScorePageLines();
+
+        simulation.setListener(this);
+        player = simulation.getPlayer();
+        roomManager = simulation.getRoomManager();
+        gameState = simulation.getGameState();
+        inputHandler = new InputHandler();
+        audioManager = AudioManager.getInstance();
     }
 
     private void initializeGame() {
-        player = new Player(START_X, START_Y);
-        roomManager = new RoomManager();
-        gameState = new GameState();
-        collisionManager = new CollisionManager();
-        inputHandler = new InputHandler(player);
-
-        try {
-            databaseManager = DatabaseManager.getInstance();
-        } catch (Exception e) {
-            System.err.println("Failed to initialize database: " + e.getMessage());
-            databaseManager = null;
-        }
+        databaseStartup = DatabaseManager.start();
+        databaseStartup.whenComplete((database, error) -> {
+            if (error != null) {
+                System.err.println("Failed to initialize database: " + error.getMessage());
+            } else {
+                databaseManager = database;
+            }
+        });
 
-        audioManager = AudioManager.getInstance();
         audioManager.playBackgroundMusic();
 
         addKeyListener(inputHandler);
 
-        gameTimer = new Timer(DELAY, this);
-        gameTimer.start();
+        gameLoop = new GameLoop(this);
+        gameLoop.start();
 
-        progressBar.setProgress(0, 5);
+        updateProgress();
     }
 
     @Override
-    public void actionPerformed(ActionEvent e) {
-        if (gameState.isMenu()) {
-            handleMenuInput();
-            repaint();
-            return;
+    public void tick() {
+        synchronized (stateLock) {
+            if (gameState.isMenu()) {
+                simulation.idle();
+                handleMenuInput();
+            } else {
+                tickGame();
+            }
+        }
+    }
+
+    @Override
+    public void render() {
+        repaint();
+    }
+
+    private void tickGame() {
+        if (pendingLoad != null) {
+            applyLoadedGame(pendingLoad);
+            pendingLoad = null;
         }
 
         if (gameState.isPlaying() && !showHighScores) {
-            update();
+            stepSimulation();
+        } else {
+            simulation.idle();
         }
 
         if (inputHandler.isEscapeRequested()) {
@@ -106,16 +275,81 @@ public class GamePanel extends JPanel implements ActionListener {
             loadGame();
         }
 
+        if (inputHandler.isReplayRequested()) {
+            showHighScores = false;
+            startPlayback();
+        }
+
         if (inputHandler.isHighScoresRequested()) {
             showHighScores = !showHighScores;
         }
 
         int diffChange = inputHandler.getDifficultyChangeRequested();
-        if (diffChange > 0 && diffChange <= 3) {
+        if (diffChange > 0 && diffChange <= GameSimulation.getDifficultyCount()) {
             changeDifficulty(diffChange);
         }
 
-        repaint();
+        handleScorePaging();
+    }
+
+    private void handleScorePaging() {
+        String difficulty = GameSimulation.getDifficultyName(simulation.getDifficulty());
+        if (!difficulty.equals(scorePageDifficulty) || (!showHighScores && !scorePages.isEmpty())) {
+            scorePages.clear();
+            scorePageDifficulty = difficulty;
+            updateScorePageLines();
+        }
+        boolean previous = inputHandler.isPreviousPageRequested();
+        boolean next = inputHandler.isNextPageRequested();
+        if (!showHighScores || databaseManager == null) {
+            return;
+        }
+
+        if (previous && !scorePages.isEmpty()) {
+            scorePages.remove(scorePages.size() - 1);
+            updateScorePageLines();
+        }
+
+        if (!next || scorePageLoading) {
+            return;
+        }
+        Leaderboard leaderboard = databaseManager.getLeaderboard(difficulty);
+        java.util.List<DatabaseManager.HighScoreEntry> current = scorePages.isEmpty()
+                ? leaderboard.getEntries()
+                : scorePages.get(scorePages.size() - 1);
+        if (current.size() < leaderboard.getCapacity()) {
+            return;
+        }
+
+        final DatabaseManager database = databaseManager;
+        final DatabaseManager.HighScoreEntry after = current.get(current.size() - 1);
+        final int pageSize = leaderboard.getCapacity();
+        scorePageLoading = true;
+        overlayQueryCount.incrementAndGet();
+        CompletableFuture.supplyAsync(() -> database.getHighScorePage(difficulty, after, pageSize))
+                .thenAcceptAsync(page -> {
+                    synchronized (stateLock) {
+                        scorePageLoading = false;
+                        if (page != null && !page.isEmpty() && showHighScores
+                                && difficulty.equals(scorePageDifficulty)) {
+                            scorePages.add(page);
+                            updateScorePageLines();
+                        }
+                    }
+                    repaint();
+                }, SwingUtilities::invokeLater);
+    }
+
+    private void updateScorePageLines() {
+        overlayFooter.setText(scorePageDifficulty + " - Page " + (scorePages.size() + 1)
+                + " | PgUp/PgDn: Page | H: Close | R: Restart");
+        if (scorePages.isEmpty()) {
+            scorePageLines = null;
+            return;
+        }
+        int pageSize = databaseManager.getLeaderboard(scorePageDifficulty).getCapacity();
+        scorePageLines = Leaderboard.formatLines(scorePages.get(scorePages.size() - 1),
+                scorePages.size() * pageSize + 1);
     }
 
     private void handleMenuInput() {
@@ -129,20 +363,14 @@ public class GamePanel extends JPanel implements ActionListener {
         if (inputHandler.isMenuSelectRequested()) {
             switch (menuSelectedIndex) {
                 case 0:
-                    gameState.startGame();
-                    player.reset(START_X, START_Y);
-                    roomManager.resetAll();
-                    progressBar.reset();
-                    highScoreSaved = false;
-                    requestFocusInWindow();
+                    restartGame();
                     break;
                 case 1:
                     showHighScores = true;
                     gameState.startGame();
                     break;
                 case 2:
-                    currentDifficulty = (currentDifficulty % 3) + 1;
-                    changeDifficulty(currentDifficulty);
+                    changeDifficulty(simulation.getDifficulty() % GameSimulation.getDifficultyCount() + 1);
                     break;
                 case 3:
                     System.exit(0);
@@ -150,130 +378,159 @@ public class GamePanel extends JPanel implements ActionListener {
             }
         }
 
+        if (inputHandler.isReplayRequested()) {
+            startPlayback();
+        }
+
         inputHandler.isRestartRequested();
         inputHandler.isSaveRequested();
         inputHandler.isLoadRequested();
         inputHandler.isHighScoresRequested();
+        inputHandler.isPreviousPageRequested();
+        inputHandler.isNextPageRequested();
         inputHandler.getDifficultyChangeRequested();
         inputHandler.isEscapeRequested();
     }
 
-    private void update() {
-        Room currentRoom = collisionManager.getCurrentRoom(player, roomManager.getRooms());
-
-        player.update();
-
-        if (collisionManager.checkPlayerObstacleCollision(player, roomManager.getAllObstacles())) {
-            player.restorePosition();
-        }
-
-        if (currentRoom != null && !collisionManager.isPlayerInsideRoom(player, currentRoom)) {
-            if (!collisionManager.isPlayerOnDoor(player, roomManager.getDoors())) {
-                player.restorePosition();
+    private void stepSimulation() {
+        if (playback != null) {
+            if (playbackTick < playback.getLength()) {
+                playback.apply(simulation, playbackTick++);
+            } else {
+                simulation.idle();
+            }
+            if (playbackTick >= playback.getLength() || !gameState.isPlaying()) {
+                playback = null;
+                showStatusMessage("Replay finished");
             }
+            return;
         }
 
-        Room newRoom = collisionManager.getCurrentRoom(player, roomManager.getRooms());
+        int input = inputHandler.getMovementInput();
+        if (recording != null) {
+            recording.record(input, simulation.getDifficulty());
+        }
+        simulation.step(input);
 
-        if (currentRoom != newRoom) {
-            if (currentRoom != null && !currentRoom.isUnlocked()) {
-                player.restorePosition();
-            } else if (!collisionManager.isPlayerOnDoor(player, roomManager.getDoors())) {
-                player.restorePosition();
-            }
+        if (recording != null && !gameState.isPlaying()) {
+            saveRecording();
         }
+    }
 
-        if (activePowerUp != null && System.currentTimeMillis() > powerUpEndTime) {
-            if (activePowerUp == PowerUp.PowerUpType.SPEED_BOOST) {
-                player.setSpeed(NORMAL_SPEED);
-            }
-            activePowerUp = null;
+    private void saveRecording() {
+        try {
+            recording.write(Paths.get(Replay.DEFAULT_FILE));
+        } catch (IOException e) {
+            System.err.println("Error saving replay: " + e.getMessage());
         }
+        recording = null;
+    }
 
-        boolean guardsAreFrozen = (activePowerUp == PowerUp.PowerUpType.FREEZE_GUARDS);
-        if (!guardsAreFrozen) {
-            roomManager.update();
+    private void startPlayback() {
+        Replay replay;
+        try {
+            replay = Replay.read(Paths.get(Replay.DEFAULT_FILE));
+        } catch (IOException e) {
+            showStatusMessage("No replay found!");
+            return;
+        }
+        if (!replay.getLevel().equals(roomManager.getLevelSource())) {
+            showStatusMessage("Replay is from a different house!");
+            return;
         }
 
-        PowerUp collectedPowerUp = collisionManager.checkPlayerPowerUpCollision(
-                player, roomManager.getAllPowerUps());
-        if (collectedPowerUp != null) {
-            collectedPowerUp.collect();
-            activePowerUp = collectedPowerUp.getType();
-            powerUpEndTime = System.currentTimeMillis() + collectedPowerUp.getType().getDurationMs();
-            audioManager.playCollectSound();
+        recording = null;
+        playback = replay;
+        playbackTick = 0;
+        replay.start(simulation);
+        resetProgress();
+        showStatusMessage("Replaying last run");
+    }
 
-            if (activePowerUp == PowerUp.PowerUpType.SPEED_BOOST) {
-                player.setSpeed(BOOST_SPEED);
-            }
-        }
+    @Override
+    public void onCucumberCollected(Room.Cucumber cucumber) {
+        audioManager.playCollectSound();
+        updateProgress();
+    }
 
-        Room.Cucumber collected = collisionManager.checkPlayerCucumberCollision(
-                player, roomManager.getAllCucumbers());
-        if (collected != null) {
-            collected.collect();
-            gameState.collectCucumber();
-            audioManager.playCollectSound();
-            progressBar.setProgress(
-                    gameState.getCucumbersCollected(),
-                    gameState.getTotalCucumbers());
-        }
-
-        boolean hasImmunity = (activePowerUp == PowerUp.PowerUpType.IMMUNITY);
-        if (!hasImmunity) {
-            Guard caughtBy = collisionManager.checkPlayerGuardCollision(
-                    player, roomManager.getRooms());
-            if (caughtBy != null) {
-                gameState.caughtByGuard(caughtBy.getType().getDisplayName());
-                audioManager.playCaughtSound();
-            }
-        }
+    @Override
+    public void onPowerUpCollected(PowerUp powerUp) {
+        audioManager.playCollectSound();
+    }
 
-        if (gameState.isWon() && !highScoreSaved) {
-            audioManager.playWinSound();
+    @Override
+    public void onCaught(Guard guard) {
+        audioManager.playCaughtSound();
+    }
+
+    @Override
+    public void onWon() {
+        audioManager.playWinSound();
+        winRankLabel.setText("");
+        if (playback == null) {
             saveHighScore();
-            highScoreSaved = true;
         }
     }
 
     private void restartGame() {
-        player.reset(START_X, START_Y);
-        roomManager.resetAll();
-        gameState.reset();
-        progressBar.reset();
-        highScoreSaved = false;
-        activePowerUp = null;
-        player.setSpeed(NORMAL_SPEED);
+        long seed = System.nanoTime();
+        simulation.newGame(seed);
+        LevelSource level = roomManager.getLevelSource();
+        recording = level != null ? new Replay(seed, level) : null;
+        playback = null;
+        resetProgress();
         requestFocusInWindow();
     }
 
-    private void changeDifficulty(int difficulty) {
-        if (difficulty == currentDifficulty)
-            return;
+    // Simulation callbacks run on the game-loop thread; the progress bar is painted on the EDT.
+    private void updateProgress() {
+        final int collected = gameState.getCucumbersCollected();
+        final int total = gameState.getTotalCucumbers();
+        SwingUtilities.invokeLater(() -> progressBar.setProgress(collected, total));
+    }
 
-        currentDifficulty = difficulty;
-        double speedMultiplier = DIFFICULTY_SPEED_MULTIPLIERS[difficulty];
+    private void resetProgress() {
+        SwingUtilities.invokeLater(progressBar::reset);
+    }
 
-        for (Guard guard : roomManager.getAllGuards()) {
-            double baseSpeed = guard.getType().getRiskLevel().getGuardSpeed();
-            guard.setSpeed(baseSpeed * speedMultiplier);
+    private void changeDifficulty(int difficulty) {
+        if (simulation.setDifficulty(difficulty)) {
+            showStatusMessage("Difficulty: " + GameSimulation.getDifficultyName(difficulty));
         }
-
-        showStatusMessage("Difficulty: " + DIFFICULTY_NAMES[difficulty]);
     }
 
     private void saveHighScore() {
-        if (databaseManager != null) {
-            databaseManager.saveHighScore(
-                    "Player",
-                    gameState.getCucumbersCollected(),
-                    gameState.getCompletionTime(),
-                    true,
-                    DIFFICULTY_NAMES[currentDifficulty]);
+        if (databaseStartup != null) {
+            final int cucumbersCollected = gameState.getCucumbersCollected();
+            final long completionTime = gameState.getCompletionTime();
+            final String difficulty = GameSimulation.getDifficultyName(simulation.getDifficulty());
+            databaseStartup.thenCompose(database -> {
+                final String placement = database.getRanks().place(difficulty, completionTime).toString();
+                return database.saveHighScoreAsync(
+                        "Player",
+                        cucumbersCollected,
+                        completionTime,
+                        true,
+                        difficulty).thenApply(saved -> saved && database.isConnected() ? placement : null);
+            }).thenAcceptAsync(placement -> {
+                synchronized (stateLock) {
+                    winRankLabel.setText(placement != null ? placement : "");
+                }
+                showSavedStatus(placement != null ? "High score saved!" : "High score not saved!");
+            }, SwingUtilities::invokeLater);
         }
     }
 
+    private boolean isDatabaseConnecting() {
+        return databaseManager == null && databaseStartup != null && !databaseStartup.isDone();
+    }
+
     private void saveGame() {
+        if (isDatabaseConnecting()) {
+            showStatusMessage("Database connecting...");
+            return;
+        }
+
         if (databaseManager == null) {
             showStatusMessage("Database not available!");
             return;
@@ -291,100 +548,139 @@ public class GamePanel extends JPanel implements ActionListener {
                 gameState.getCucumbersCollected(),
                 roomManager.getRoomUnlockStates());
 
-        if (databaseManager.saveGame(saveData)) {
-            showStatusMessage("Game Saved! (F9 to load)");
-        } else {
-            showStatusMessage("Save failed!");
+        showStatusMessage("Saving...");
+        databaseManager.saveGameAsync(saveData).thenAcceptAsync(
+                saved -> showSavedStatus(saved ? "Game Saved! (F9 to load)" : "Save failed!"),
+                SwingUtilities::invokeLater);
+    }
+
+    private void showSavedStatus(String message) {
+        synchronized (stateLock) {
+            showStatusMessage(message);
         }
+        repaint();
     }
 
     private void loadGame() {
+        if (isDatabaseConnecting()) {
+            showStatusMessage("Database connecting...");
+            return;
+        }
+
         if (databaseManager == null) {
             showStatusMessage("Database not available!");
             return;
         }
 
-        DatabaseManager.SaveData saveData = databaseManager.loadGame();
-
-        if (saveData == null) {
-            showStatusMessage("No save found!");
+        if (loadInProgress) {
             return;
         }
 
-        player.setPosition(saveData.getPlayerX(), saveData.getPlayerY());
+        showStatusMessage("Loading...");
+        loadInProgress = true;
+        databaseManager.loadGameAsync().whenComplete((saveData, error) -> {
+            synchronized (stateLock) {
+                loadInProgress = false;
+                if (saveData != null) {
+                    pendingLoad = saveData;
+                }
+            }
+            if (saveData == null) {
+                SwingUtilities.invokeLater(() -> showSavedStatus("No save found!"));
+            }
+        });
+    }
 
-        roomManager.resetAll();
-        roomManager.setRoomUnlockStates(saveData.getRoomUnlockStates());
+    private void applyLoadedGame(DatabaseManager.SaveData saveData) {
+        recording = null;
+        playback = null;
+        simulation.restore(saveData.getPlayerX(), saveData.getPlayerY(),
+                saveData.getRoomUnlockStates(), saveData.getCucumbersCollected());
 
-        gameState.reset();
-        gameState.setCucumbersCollected(saveData.getCucumbersCollected());
-
-        progressBar.setProgress(
-                gameState.getCucumbersCollected(),
-                gameState.getTotalCucumbers());
+        updateProgress();
 
         showStatusMessage("Game Loaded!");
         requestFocusInWindow();
     }
 
-    private void showStatusMessage(String message) {
+    void showStatusMessage(String message) {
         this.statusMessage = message;
+        statusLabel.setText(message);
         this.statusMessageTime = System.currentTimeMillis();
     }
 
+    void setShowHighScores(boolean showHighScores) {
+        this.showHighScores = showHighScores;
+    }
+
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        g.setColor(getBackground());
+        g.fillRect(0, 0, getWidth(), getHeight());
         Graphics2D g2d = (Graphics2D) g;
         g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
+        synchronized (stateLock) {
+            double alpha = gameLoop != null ? gameLoop.getInterpolationAlpha() : 1.0;
+            player.interpolate(alpha);
+            roomManager.interpolate(alpha);
+            paintScene(g2d);
+        }
+        if (!firstFramePainted) {
+            firstFramePainted = true;
+            StartupTimer.mark("first frame");
+        }
+    }
+
+    private void paintScene(Graphics2D g2d) {
         if (gameState.isMenu()) {
             drawMainMenu(g2d);
             return;
         }
 
-        roomManager.draw(g2d);
-
+        camera.follow(player, roomManager.getBounds());
+        Rectangle view = camera.getView();
+        g2d.translate(-view.x, -view.y);
+        sceneLayer.draw(g2d, roomManager, getGraphicsConfiguration(), view);
+        roomManager.drawDynamic(g2d, view);
         player.draw(g2d);
+        g2d.translate(view.x, view.y);
 
-        g2d.setColor(new Color(255, 255, 255, 200));
-        g2d.setFont(new Font("Arial", Font.BOLD, 16));
-        String timeStr = "Time: " + gameState.formatTime(gameState.getElapsedTime());
-        g2d.drawString(timeStr, PANEL_WIDTH - 120, 20);
+        g2d.setColor(HUD_TIME_COLOR);
+        int timeLength = gameState.formatTime(gameState.getElapsedTime(), timeText, TIME_PREFIX.length());
+        timeGlyphs.drawChars(g2d, timeText, 0, timeLength, PANEL_WIDTH - 120, 20);
 
-        g2d.setColor(new Color(200, 200, 200));
-        g2d.setFont(new Font("Arial", Font.PLAIN, 10));
-        g2d.drawString("WASD: Move | R: Restart | F5: Save | F9: Load | H: High Scores | ESC: Menu", 10,
-                PANEL_HEIGHT - 10);
+        g2d.setColor(HINT_COLOR);
+        controlsHint.draw(g2d, 10, PANEL_HEIGHT - 10);
 
-        g2d.setColor(new Color(100, 100, 100, 180));
-        g2d.fillRoundRect(5, 5, 75, 20, 5, 5);
-        g2d.setColor(currentDifficulty == 1 ? Color.GREEN : currentDifficulty == 2 ? Color.YELLOW : Color.RED);
-        g2d.setFont(new Font("Arial", Font.BOLD, 11));
-        g2d.drawString(DIFFICULTY_NAMES[currentDifficulty], 15, 19);
+        SpriteCache spriteCache = SpriteCache.getInstance();
+        spriteCache.draw(g2d, SpriteCache.Kind.DIFFICULTY_BADGE, 5, 5, 75, 20, BADGE_PAINTER);
+        int difficulty = simulation.getDifficulty();
+        g2d.setColor(difficulty == 1 ? Color.GREEN : difficulty == 2 ? Color.YELLOW : Color.RED);
+        difficultyBadges[difficulty].draw(g2d, 15, 19);
 
+        PowerUp.PowerUpType activePowerUp = simulation.getActivePowerUp();
         if (activePowerUp != null) {
-            long remaining = powerUpEndTime - System.currentTimeMillis();
+            long remaining = simulation.getPowerUpRemainingMs();
             if (remaining > 0) {
-                int barWidth = 100;
-                int barHeight = 18;
+                int barWidth = POWER_UP_BAR_WIDTH;
+                int barHeight = POWER_UP_BAR_HEIGHT;
                 int barX = PANEL_WIDTH / 2 - barWidth / 2;
                 int barY = 5;
 
-                g2d.setColor(new Color(0, 0, 0, 150));
-                g2d.fillRoundRect(barX - 5, barY - 2, barWidth + 10, barHeight + 4, 8, 8);
+                spriteCache.draw(g2d, SpriteCache.Kind.POWER_UP_BAR, barX - 5, barY - 2,
+                        barWidth + 10, barHeight + 4, POWER_UP_BAR_PAINTER);
 
                 double progress = (double) remaining / activePowerUp.getDurationMs();
                 int fillWidth = (int) (barWidth * progress);
-                g2d.setColor(activePowerUp.getColor());
-                g2d.fillRoundRect(barX, barY, fillWidth, barHeight, 5, 5);
+                powerUpFillClip.setBounds(barX, barY, fillWidth, barHeight);
+                spriteCache.drawClipped(g2d, activePowerUp, 1, barX, barY, barWidth, barHeight,
+                        POWER_UP_FILL_PAINTER, powerUpFillClip);
 
                 g2d.setColor(Color.WHITE);
-                g2d.setFont(new Font("Arial", Font.BOLD, 11));
-                FontMetrics fm = g2d.getFontMetrics();
-                String powerUpName = activePowerUp.getDisplayName();
-                int textX = barX + (barWidth - fm.stringWidth(powerUpName)) / 2;
-                g2d.drawString(powerUpName, textX, barY + 13);
+                TextLabel powerUpLabel = powerUpLabels[activePowerUp.ordinal()];
+                int textX = barX + (barWidth - powerUpLabel.getWidth(g2d)) / 2;
+                powerUpLabel.draw(g2d, textX, barY + 13);
             }
         }
 
@@ -392,13 +688,14 @@ public class GamePanel extends JPanel implements ActionListener {
             long elapsed = System.currentTimeMillis() - statusMessageTime;
             if (elapsed < STATUS_DISPLAY_DURATION) {
                 int alpha = (int) (255 * (1 - (double) elapsed / STATUS_DISPLAY_DURATION));
-                g2d.setColor(new Color(50, 50, 50, Math.min(200, alpha + 50)));
-                g2d.fillRoundRect(PANEL_WIDTH / 2 - 100, 20, 200, 30, 10, 10);
-                g2d.setColor(new Color(255, 255, 100, alpha));
-                g2d.setFont(new Font("Arial", Font.BOLD, 14));
-                FontMetrics fm = g2d.getFontMetrics();
-                int x = (PANEL_WIDTH - fm.stringWidth(statusMessage)) / 2;
-                g2d.drawString(statusMessage, x, 40);
+                Composite oldComposite = g2d.getComposite();
+                g2d.setComposite(FADE_COMPOSITES[Math.min(200, alpha + 50)]);
+                spriteCache.draw(g2d, SpriteCache.Kind.STATUS_TOAST, PANEL_WIDTH / 2 - 100, 20, 200, 30,
+                        TOAST_PAINTER);
+                g2d.setComposite(FADE_COMPOSITES[alpha]);
+                g2d.setColor(TOAST_TEXT_COLOR);
+                statusLabel.drawCentered(g2d, PANEL_WIDTH, 40);
+                g2d.setComposite(oldComposite);
             } else {
                 statusMessage = "";
             }
@@ -414,127 +711,132 @@ public class GamePanel extends JPanel implements ActionListener {
     }
 
     private void drawGameOver(Graphics2D g2d) {
-        g2d.setColor(new Color(0, 0, 0, 180));
+        g2d.setColor(GAME_OVER_SHADE);
         g2d.fillRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
 
         g2d.setColor(Color.RED);
-        g2d.setFont(new Font("Arial", Font.BOLD, 48));
-        String gameOver = "GAME OVER!";
-        FontMetrics fm = g2d.getFontMetrics();
-        int x = (PANEL_WIDTH - fm.stringWidth(gameOver)) / 2;
-        g2d.drawString(gameOver, x, PANEL_HEIGHT / 2 - 30);
+        gameOverTitle.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT / 2 - 30);
 
         g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.PLAIN, 24));
-        String message = gameState.getGameOverMessage();
-        fm = g2d.getFontMetrics();
-        x = (PANEL_WIDTH - fm.stringWidth(message)) / 2;
-        g2d.drawString(message, x, PANEL_HEIGHT / 2 + 20);
+        gameOverMessage.setText(gameState.getGameOverMessage());
+        gameOverMessage.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT / 2 + 20);
 
         g2d.setColor(Color.YELLOW);
-        g2d.setFont(new Font("Arial", Font.BOLD, 18));
-        String restart = "Press R to Restart";
-        fm = g2d.getFontMetrics();
-        x = (PANEL_WIDTH - fm.stringWidth(restart)) / 2;
-        g2d.drawString(restart, x, PANEL_HEIGHT / 2 + 70);
+        restartPrompt.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT / 2 + 70);
     }
 
     private void drawWinScreen(Graphics2D g2d) {
-        g2d.setColor(new Color(0, 50, 0, 180));
+        g2d.setColor(WIN_SHADE);
         g2d.fillRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
 
-        g2d.setColor(new Color(50, 255, 50));
-        g2d.setFont(new Font("Arial", Font.BOLD, 48));
-        String win = "YOU WIN!";
-        FontMetrics fm = g2d.getFontMetrics();
-        int x = (PANEL_WIDTH - fm.stringWidth(win)) / 2;
-        g2d.drawString(win, x, PANEL_HEIGHT / 2 - 60);
+        g2d.setColor(WIN_TITLE_COLOR);
+        winTitle.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT / 2 - 60);
 
-        g2d.setColor(new Color(255, 215, 0));
-        g2d.setFont(new Font("Arial", Font.BOLD, 28));
-        String timeMsg = "Completion Time: " + gameState.formatTime(gameState.getCompletionTime());
-        fm = g2d.getFontMetrics();
-        x = (PANEL_WIDTH - fm.stringWidth(timeMsg)) / 2;
-        g2d.drawString(timeMsg, x, PANEL_HEIGHT / 2 - 10);
+        long completionTime = gameState.getCompletionTime();
+        if (completionTime != winTimeValue) {
+            winTimeValue = completionTime;
+            winTimeLabel.setText("Completion Time: " + gameState.formatTime(completionTime));
+        }
+        g2d.setColor(GOLD);
+        winTimeLabel.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT / 2 - 10);
 
         g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.PLAIN, 20));
-        String message = "All cucumbers collected! High score saved!";
-        fm = g2d.getFontMetrics();
-        x = (PANEL_WIDTH - fm.stringWidth(message)) / 2;
-        g2d.drawString(message, x, PANEL_HEIGHT / 2 + 30);
+        if (!winRankLabel.getText().isEmpty()) {
+            winRankLabel.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT / 2 + 22);
+        }
+        winMessage.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT / 2 + 50);
 
         g2d.setColor(Color.YELLOW);
-        g2d.setFont(new Font("Arial", Font.BOLD, 18));
-        String restart = "Press R to Play Again";
-        fm = g2d.getFontMetrics();
-        x = (PANEL_WIDTH - fm.stringWidth(restart)) / 2;
-        g2d.drawString(restart, x, PANEL_HEIGHT / 2 + 70);
+        playAgainPrompt.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT / 2 + 85);
     }
 
     private void drawHighScoresOverlay(Graphics2D g2d) {
-        g2d.setColor(new Color(0, 0, 50, 220));
+        g2d.setColor(OVERLAY_SHADE);
         g2d.fillRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
 
-        g2d.setColor(new Color(255, 215, 0));
-        g2d.setFont(new Font("Arial", Font.BOLD, 36));
-        String title = "HIGH SCORES";
-        FontMetrics fm = g2d.getFontMetrics();
-        int x = (PANEL_WIDTH - fm.stringWidth(title)) / 2;
-        g2d.drawString(title, x, 60);
+        g2d.setColor(GOLD);
+        int x = overlayTitle.drawCentered(g2d, PANEL_WIDTH, 60);
 
         drawMenuCucumber(g2d, x - 55, 45);
-        drawMenuCucumber(g2d, x + fm.stringWidth(title) + 15, 45);
+        drawMenuCucumber(g2d, x + overlayTitle.getWidth(g2d) + 15, 45);
 
-        g2d.setColor(new Color(255, 215, 0, 150));
+        g2d.setColor(GOLD_RULE);
         g2d.fillRect(PANEL_WIDTH / 4, 75, PANEL_WIDTH / 2, 3);
 
         String[] scores;
-        if (databaseManager != null) {
-            scores = databaseManager.getHighScoresList(10);
+        if (scorePageLines != null) {
+            scores = scorePageLines;
+        } else if (databaseManager != null) {
+            scores = databaseManager.getLeaderboard(scorePageDifficulty).getLines();
+        } else if (isDatabaseConnecting()) {
+            scores = DATABASE_CONNECTING;
         } else {
-            scores = new String[] { "Database not available" };
+            scores = DATABASE_UNAVAILABLE;
+        }
+        if (scores != scoreLines) {
+            scoreLines = scores;
+            scoreLabels = new TextLabel[scores.length];
+            for (int i = 0; i < scores.length; i++) {
+                scoreLabels[i] = new TextLabel(SCORE_FONT, scores[i]);
+            }
         }
 
-        g2d.setFont(new Font("Consolas", Font.PLAIN, 18));
         int startY = 110;
         int lineHeight = 28;
 
         for (int i = 0; i < scores.length; i++) {
             if (i % 2 == 0) {
-                g2d.setColor(new Color(255, 255, 255, 30));
+                g2d.setColor(ROW_STRIPE);
                 g2d.fillRect(PANEL_WIDTH / 4 - 10, startY + i * lineHeight - 18, PANEL_WIDTH / 2 + 20, lineHeight);
             }
 
-            if (i == 0 && !scores[i].startsWith("No") && !scores[i].startsWith("Database")
+            if (scorePageLines != null) {
+                g2d.setColor(Color.WHITE);
+            } else if (i == 0 && !scores[i].startsWith("No") && !scores[i].startsWith("Database")
                     && !scores[i].startsWith("Error")) {
-                g2d.setColor(new Color(255, 215, 0));
+                g2d.setColor(GOLD);
             } else if (i == 1 && scores.length > 1) {
-                g2d.setColor(new Color(192, 192, 192));
+                g2d.setColor(SILVER);
             } else if (i == 2 && scores.length > 2) {
-                g2d.setColor(new Color(205, 127, 50));
+                g2d.setColor(BRONZE);
             } else {
                 g2d.setColor(Color.WHITE);
             }
 
-            fm = g2d.getFontMetrics();
-            x = (PANEL_WIDTH - fm.stringWidth(scores[i])) / 2;
-            g2d.drawString(scores[i], x, startY + i * lineHeight);
+            scoreLabels[i].drawCentered(g2d, PANEL_WIDTH, startY + i * lineHeight);
         }
 
-        g2d.setColor(new Color(150, 150, 150));
-        g2d.setFont(new Font("Arial", Font.PLAIN, 14));
-        String closeMsg = "Press H to close | Press R to restart";
-        fm = g2d.getFontMetrics();
-        x = (PANEL_WIDTH - fm.stringWidth(closeMsg)) / 2;
-        g2d.drawString(closeMsg, x, PANEL_HEIGHT - 30);
+        g2d.setColor(FOOTER_COLOR);
+        overlayFooter.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT - 30);
+
+        if (databaseManager != null) {
+            updateOverlayQueryRate();
+            g2d.setColor(DIM_COLOR);
+            int length = GameState.appendDigits(queryRateText, QUERY_RATE_PREFIX.length(),
+                    overlayQueriesPerSecond, 1);
+            queryRateGlyphs.drawChars(g2d, queryRateText, 0, length, 10, PANEL_HEIGHT - 10);
+        }
+    }
+
+    private void updateOverlayQueryRate() {
+        long now = System.currentTimeMillis();
+        long count = overlayQueryCount.get();
+        if (overlayQuerySampleTime == 0 || now - overlayQuerySampleTime > 2000) {
+            overlayQuerySampleTime = now;
+            overlayQuerySampleCount = count;
+            overlayQueriesPerSecond = 0;
+        } else if (now - overlayQuerySampleTime >= 1000) {
+            overlayQueriesPerSecond = (count - overlayQuerySampleCount) * 1000 / (now - overlayQuerySampleTime);
+            overlayQuerySampleTime = now;
+            overlayQuerySampleCount = count;
+        }
     }
 
     private void drawMainMenu(Graphics2D g2d) {
-        g2d.setColor(new Color(20, 30, 50));
+        g2d.setColor(MENU_BACKGROUND);
         g2d.fillRect(0, 0, PANEL_WIDTH, PANEL_HEIGHT);
 
-        g2d.setColor(new Color(30, 45, 70));
+        g2d.setColor(MENU_TILE);
         for (int i = 0; i < PANEL_WIDTH; i += 30) {
             for (int j = 0; j < PANEL_HEIGHT; j += 30) {
                 if ((i + j) % 60 == 0) {
@@ -543,181 +845,95 @@ public class GamePanel extends JPanel implements ActionListener {
             }
         }
 
-        g2d.setFont(new Font("Arial", Font.BOLD, 48));
-        String title = "HIDE MY CUCUMBER";
-        FontMetrics fm = g2d.getFontMetrics();
-        int x = (PANEL_WIDTH - fm.stringWidth(title)) / 2;
+        int x = (PANEL_WIDTH - menuTitle.getWidth(g2d)) / 2;
 
-        g2d.setColor(new Color(0, 0, 0, 100));
-        g2d.drawString(title, x + 3, 103);
+        g2d.setColor(TITLE_SHADOW);
+        menuTitleShadow.draw(g2d, x + 3, 103);
 
-        g2d.setColor(new Color(50, 200, 50));
-        g2d.drawString(title, x, 100);
+        g2d.setColor(TITLE_COLOR);
+        menuTitle.draw(g2d, x, 100);
 
         drawMenuCucumber(g2d, x - 55, 75);
-        drawMenuCucumber(g2d, x + fm.stringWidth(title) + 20, 75);
+        drawMenuCucumber(g2d, x + menuTitle.getWidth(g2d) + 20, 75);
 
-        g2d.setColor(new Color(150, 150, 150));
-        g2d.setFont(new Font("Arial", Font.ITALIC, 18));
-        String subtitle = "Collect all cucumbers without getting caught!";
-        fm = g2d.getFontMetrics();
-        x = (PANEL_WIDTH - fm.stringWidth(subtitle)) / 2;
-        g2d.drawString(subtitle, x, 140);
+        g2d.setColor(FOOTER_COLOR);
+        menuSubtitle.drawCentered(g2d, PANEL_WIDTH, 140);
 
         int startY = 200;
         int lineHeight = 50;
 
         for (int i = 0; i < MENU_OPTIONS.length; i++) {
-            String option = MENU_OPTIONS[i];
+            TextLabel option = menuOptionLabels[i];
 
             if (i == 2) {
-                option = "Difficulty: " + DIFFICULTY_NAMES[currentDifficulty];
+                option = difficultyLabels[simulation.getDifficulty()];
             }
 
             if (i == menuSelectedIndex) {
-                g2d.setColor(new Color(50, 150, 50, 100));
-                fm = g2d.getFontMetrics(new Font("Arial", Font.BOLD, 24));
-                int boxWidth = fm.stringWidth(option) + 40;
-                g2d.fillRoundRect((PANEL_WIDTH - boxWidth) / 2, startY + i * lineHeight - 25, boxWidth, 40, 10, 10);
+                int boxWidth = option.getWidth(g2d) + 40;
+                SpriteCache.getInstance().draw(g2d, option, (PANEL_WIDTH - boxWidth) / 2,
+                        startY + i * lineHeight - 25, boxWidth, 40, MENU_HIGHLIGHT_PAINTER);
 
-                g2d.setColor(new Color(100, 255, 100));
-                g2d.setStroke(new java.awt.BasicStroke(2));
-                g2d.drawRoundRect((PANEL_WIDTH - boxWidth) / 2, startY + i * lineHeight - 25, boxWidth, 40, 10, 10);
-
-                g2d.setFont(new Font("Arial", Font.BOLD, 24));
-                g2d.drawString("►", (PANEL_WIDTH - boxWidth) / 2 - 30, startY + i * lineHeight);
+                g2d.setColor(MENU_HIGHLIGHT_BORDER);
+                menuArrow.draw(g2d, (PANEL_WIDTH - boxWidth) / 2 - 30, startY + i * lineHeight);
 
                 g2d.setColor(Color.WHITE);
             } else {
-                g2d.setColor(new Color(180, 180, 180));
+                g2d.setColor(MENU_OPTION_COLOR);
             }
 
-            g2d.setFont(new Font("Arial", Font.BOLD, 24));
-            fm = g2d.getFontMetrics();
-            x = (PANEL_WIDTH - fm.stringWidth(option)) / 2;
-            g2d.drawString(option, x, startY + i * lineHeight);
+            option.drawCentered(g2d, PANEL_WIDTH, startY + i * lineHeight);
         }
 
-        g2d.setColor(new Color(100, 100, 100));
-        g2d.setFont(new Font("Arial", Font.PLAIN, 14));
-        String controls = "↑↓: Navigate | Enter/Space: Select";
-        fm = g2d.getFontMetrics();
-        x = (PANEL_WIDTH - fm.stringWidth(controls)) / 2;
-        g2d.drawString(controls, x, PANEL_HEIGHT - 40);
+        g2d.setColor(DIM_COLOR);
+        menuControls.drawCentered(g2d, PANEL_WIDTH, PANEL_HEIGHT - 40);
 
-        g2d.setFont(new Font("Arial", Font.PLAIN, 11));
-        g2d.drawString("Hide My Cucumber v1.0", 10, PANEL_HEIGHT - 10);
+        versionLabel.draw(g2d, 10, PANEL_HEIGHT - 10);
     }
 
     private void drawMenuCucumber(Graphics2D g2d, int x, int y) {
-        g2d.setColor(new Color(34, 139, 34));
+        SpriteCache.getInstance().draw(g2d, SpriteCache.Kind.MENU_CUCUMBER, x, y, 38, 15, MENU_CUCUMBER_PAINTER);
+    }
+
+    private static void paintMenuCucumber(Graphics2D g2d, int x, int y) {
+        g2d.setColor(CUCUMBER_DARK);
         g2d.fillOval(x, y, 35, 15);
 
-        g2d.setColor(new Color(50, 180, 50));
+        g2d.setColor(CUCUMBER_LIGHT);
         g2d.fillOval(x + 5, y + 4, 25, 7);
 
-        g2d.setColor(new Color(34, 139, 34));
+        g2d.setColor(CUCUMBER_DARK);
         for (int i = 0; i < 4; i++) {
             g2d.fillOval(x + 5 + i * 8, y + 2, 4, 4);
         }
 
-        g2d.setColor(new Color(100, 180, 100));
+        g2d.setColor(CUCUMBER_STEM);
         g2d.fillRect(x + 32, y + 5, 6, 4);
 
-        g2d.setColor(new Color(20, 80, 20));
+        g2d.setColor(CUCUMBER_OUTLINE);
         g2d.drawOval(x, y, 35, 15);
     }
 
-    public class CollisionManager {
-
-        public Guard checkPlayerGuardCollision(Player player, java.util.List<Room> rooms) {
-            Room playerRoom = getCurrentRoom(player, rooms);
-            if (playerRoom == null) {
-                return null;
-            }
-
-            Guard guard = playerRoom.getGuard();
-            if (guard != null && guard.canDetectPlayer(player)) {
-                return guard;
-            }
-            return null;
-        }
-
-        public Room.Cucumber checkPlayerCucumberCollision(Player player, java.util.List<Room.Cucumber> cucumbers) {
-            for (Room.Cucumber cucumber : cucumbers) {
-                if (!cucumber.isCollected() && player.getBounds().intersects(cucumber.getBounds())) {
-                    return cucumber;
-                }
-            }
-            return null;
-        }
-
-        public boolean isPlayerInRoom(Player player, Room room) {
-            double centerX = player.getX() + player.getWidth() / 2.0;
-            double centerY = player.getY() + player.getHeight() / 2.0;
-            return room.containsPoint(centerX, centerY);
-        }
-
-        public Room getCurrentRoom(Player player, java.util.List<Room> rooms) {
-            for (Room room : rooms) {
-                if (isPlayerInRoom(player, room)) {
-                    return room;
-                }
-            }
-            return null;
-        }
-
-        public boolean isPlayerInsideRoom(Player player, Room room) {
-            Rectangle playerBounds = player.getBounds();
-            Rectangle roomBounds = room.getBounds();
-            return roomBounds.contains(playerBounds);
-        }
-
-        public boolean isPlayerOnDoor(Player player, java.util.List<Rectangle> doors) {
-            Rectangle playerBounds = player.getBounds();
-            for (Rectangle door : doors) {
-                if (playerBounds.intersects(door)) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        public boolean canPlayerMoveToNewRoom(Room oldRoom, Room newRoom, Player player,
-                java.util.List<Rectangle> doors) {
-            if (oldRoom == newRoom) {
-                return true;
-            }
-
-            return isPlayerOnDoor(player, doors);
-        }
-
-        public boolean checkPlayerObstacleCollision(Player player, java.util.List<Obstacle> obstacles) {
-            Rectangle playerBounds = player.getBounds();
-            for (Obstacle obstacle : obstacles) {
-                if (playerBounds.intersects(obstacle.getBounds())) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-        public PowerUp checkPlayerPowerUpCollision(Player player, java.util.List<PowerUp> powerUps) {
-            for (PowerUp powerUp : powerUps) {
-                if (!powerUp.isCollected() && player.getBounds().intersects(powerUp.getBounds())) {
-                    return powerUp;
-                }
-            }
-            return null;
+    private static AlphaComposite[] fadeRamp() {
+        AlphaComposite[] composites = new AlphaComposite[256];
+        for (int alpha = 0; alpha < composites.length; alpha++) {
+            composites[alpha] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha / 255f);
         }
+        return composites;
     }
 
     public class InputHandler implements KeyListener {
-        private Player player;
+        private boolean upPressed;
+        private boolean downPressed;
+        private boolean leftPressed;
+        private boolean rightPressed;
         private boolean restartRequested;
         private boolean saveRequested;
         private boolean loadRequested;
+        private boolean replayRequested;
         private boolean highScoresRequested;
+        private boolean previousPageRequested;
+        private boolean nextPageRequested;
         private int difficultyChangeRequested;
 
         private boolean menuSelectRequested;
@@ -725,11 +941,11 @@ public class GamePanel extends JPanel implements ActionListener {
         private boolean menuDownRequested;
         private boolean escapeRequested;
 
-        public InputHandler(Player player) {
-            this.player = player;
+        public InputHandler() {
             this.restartRequested = false;
             this.saveRequested = false;
             this.loadRequested = false;
+            this.replayRequested = false;
             this.highScoresRequested = false;
             this.difficultyChangeRequested = 0;
             this.menuSelectRequested = false;
@@ -740,24 +956,29 @@ public class GamePanel extends JPanel implements ActionListener {
 
         @Override
         public void keyPressed(KeyEvent e) {
-            int key = e.getKeyCode();
+            synchronized (stateLock) {
+                handleKeyPressed(e.getKeyCode());
+            }
+        }
+
+        private void handleKeyPressed(int key) {
 
             switch (key) {
                 case KeyEvent.VK_W:
                 case KeyEvent.VK_UP:
-                    player.setMovingUp(true);
+                    upPressed = true;
                     break;
                 case KeyEvent.VK_S:
                 case KeyEvent.VK_DOWN:
-                    player.setMovingDown(true);
+                    downPressed = true;
                     break;
                 case KeyEvent.VK_A:
                 case KeyEvent.VK_LEFT:
-                    player.setMovingLeft(true);
+                    leftPressed = true;
                     break;
                 case KeyEvent.VK_D:
                 case KeyEvent.VK_RIGHT:
-                    player.setMovingRight(true);
+                    rightPressed = true;
                     break;
                 case KeyEvent.VK_R:
                     restartRequested = true;
@@ -768,9 +989,18 @@ public class GamePanel extends JPanel implements ActionListener {
                 case KeyEvent.VK_F9:
                     loadRequested = true;
                     break;
+                case KeyEvent.VK_F7:
+                    replayRequested = true;
+                    break;
                 case KeyEvent.VK_H:
                     highScoresRequested = true;
                     break;
+                case KeyEvent.VK_PAGE_UP:
+                    previousPageRequested = true;
+                    break;
+                case KeyEvent.VK_PAGE_DOWN:
+                    nextPageRequested = true;
+                    break;
                 case KeyEvent.VK_1:
                     difficultyChangeRequested = 1;
                     break;
@@ -798,24 +1028,29 @@ public class GamePanel extends JPanel implements ActionListener {
 
         @Override
         public void keyReleased(KeyEvent e) {
-            int key = e.getKeyCode();
+            synchronized (stateLock) {
+                handleKeyReleased(e.getKeyCode());
+            }
+        }
+
+        private void handleKeyReleased(int key) {
 
             switch (key) {
                 case KeyEvent.VK_W:
                 case KeyEvent.VK_UP:
-                    player.setMovingUp(false);
+                    upPressed = false;
                     break;
                 case KeyEvent.VK_S:
                 case KeyEvent.VK_DOWN:
-                    player.setMovingDown(false);
+                    downPressed = false;
                     break;
                 case KeyEvent.VK_A:
                 case KeyEvent.VK_LEFT:
-                    player.setMovingLeft(false);
+                    leftPressed = false;
                     break;
                 case KeyEvent.VK_D:
                 case KeyEvent.VK_RIGHT:
-                    player.setMovingRight(false);
+                    rightPressed = false;
                     break;
             }
         }
@@ -842,12 +1077,30 @@ public class GamePanel extends JPanel implements ActionListener {
             return result;
         }
 
+        public boolean isReplayRequested() {
+            boolean result = replayRequested;
+            replayRequested = false;
+            return result;
+        }
+
         public boolean isHighScoresRequested() {
             boolean result = highScoresRequested;
             highScoresRequested = false;
             return result;
         }
 
+        public boolean isPreviousPageRequested() {
+            boolean result = previousPageRequested;
+            previousPageRequested = false;
+            return result;
+        }
+
+        public boolean isNextPageRequested() {
+            boolean result = nextPageRequested;
+            nextPageRequested = false;
+            return result;
+        }
+
         public int getDifficultyChangeRequested() {
             int result = difficultyChangeRequested;
             difficultyChangeRequested = 0;
@@ -878,8 +1131,17 @@ public class GamePanel extends JPanel implements ActionListener {
             return result;
         }
 
-        public void setPlayer(Player player) {
-            this.player = player;
+        public int getMovementInput() {
+            int input = 0;
+            if (upPressed)
+                input |= GameSimulation.INPUT_UP;
+            if (downPressed)
+                input |= GameSimulation.INPUT_DOWN;
+            if (leftPressed)
+                input |= GameSimulation.INPUT_LEFT;
+            if (rightPressed)
+                input |= GameSimulation.INPUT_RIGHT;
+            return input;
         }
     }
 }
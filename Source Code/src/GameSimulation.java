@@ -0,0 +1,293 @@
+import java.awt.Rectangle;
+import java.util.Random;
+
+public class GameSimulation {
+    public static final int INPUT_UP = 1;
+    public static final int INPUT_DOWN = 2;
+    public static final int INPUT_LEFT = 4;
+    public static final int INPUT_RIGHT = 8;
+
+    public static final double START_X = 250;
+    public static final double START_Y = 100;
+    public static final int DEFAULT_DIFFICULTY = 2;
+
+    private static final String[] DIFFICULTY_NAMES = { "", "Easy", "Normal", "Hard" };
+    private static final double[] DIFFICULTY_SPEED_MULTIPLIERS = { 0, 0.5, 1.0, 1.5 };
+    private static final double NORMAL_SPEED = 4.0;
+    private static final double BOOST_SPEED = 8.0;
+
+    public interface Listener {
+        void onCucumberCollected(Room.Cucumber cucumber);
+
+        void onPowerUpCollected(PowerUp powerUp);
+
+        void onCaught(Guard guard);
+
+        void onWon();
+    }
+
+    private final Player player;
+    private final RoomManager roomManager;
+    private final GameState gameState;
+    private final CollisionManager collisionManager;
+    private Listener listener;
+
+    private PowerUp.PowerUpType activePowerUp = null;
+    private int powerUpTicksRemaining = 0;
+    private int difficulty = DEFAULT_DIFFICULTY;
+    private boolean winReported = false;
+    private long tickCount = 0;
+
+    public GameSimulation() {
+        this(new RoomManager());
+    }
+
+    public GameSimulation(RoomManager roomManager) {
+        this.player = new Player(roomManager.getStartX(), roomManager.getStartY());
+        Rectangle bounds = roomManager.getBounds();
+        this.player.setMovementBounds(bounds.x, bounds.y, bounds.width, bounds.height);
+        this.roomManager = roomManager;
+        this.gameState = new GameState();
+        this.gameState.setTotalCucumbers(roomManager.getCucumberCount());
+        this.collisionManager = new CollisionManager();
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void newGame(long seed) {
+        newGame(new Random(seed));
+    }
+
+    public void newGame(Random random) {
+        player.reset(roomManager.getStartX(), roomManager.getStartY());
+        player.setSpeed(NORMAL_SPEED);
+        roomManager.resetAll(random);
+        applyDifficulty();
+        gameState.startGame();
+        activePowerUp = null;
+        powerUpTicksRemaining = 0;
+        winReported = false;
+        tickCount = 0;
+    }
+
+    public void restore(double playerX, double playerY, boolean[] roomUnlockStates, int cucumbersCollected) {
+        player.setPosition(playerX, playerY);
+
+        roomManager.resetAll();
+        roomManager.setRoomUnlockStates(roomUnlockStates);
+
+        gameState.reset();
+        gameState.setCucumbersCollected(cucumbersCollected);
+        winReported = gameState.isWon();
+    }
+
+    public void step(int input) {
+        idle();
+        player.applyInput(input);
+
+        if (gameState.isPlaying()) {
+            update();
+            gameState.tick();
+        }
+        tickCount++;
+    }
+
+    public void run(int ticks, int input) {
+        for (int i = 0; i < ticks; i++) {
+            step(input);
+        }
+    }
+
+    public void idle() {
+        player.beginTick();
+        roomManager.beginTick();
+    }
+
+    private void update() {
+        roomManager.setFocus(player.getX() + player.getWidth() / 2.0, player.getY() + player.getHeight() / 2.0);
+        Room currentRoom = collisionManager.getCurrentRoom(player, roomManager);
+
+        player.update();
+
+        if (currentRoom == null || !collisionManager.isPlayerOnClearFloor(player, currentRoom, roomManager)) {
+            validateMove(currentRoom);
+        }
+
+        if (activePowerUp != null && --powerUpTicksRemaining <= 0) {
+            if (activePowerUp == PowerUp.PowerUpType.SPEED_BOOST) {
+                player.setSpeed(NORMAL_SPEED);
+            }
+            activePowerUp = null;
+        }
+
+        boolean guardsAreFrozen = (activePowerUp == PowerUp.PowerUpType.FREEZE_GUARDS);
+        Guard detectedBy;
+        if (!guardsAreFrozen) {
+            detectedBy = roomManager.update(player, collisionManager.getCurrentRoom(player, roomManager));
+        } else {
+            detectedBy = collisionManager.checkPlayerGuardCollision(player, roomManager);
+        }
+
+        PowerUp collectedPowerUp = collisionManager.checkPlayerPowerUpCollision(player, roomManager);
+        if (collectedPowerUp != null) {
+            roomManager.collectPowerUp(collectedPowerUp);
+            activePowerUp = collectedPowerUp.getType();
+            powerUpTicksRemaining = millisToTicks(collectedPowerUp.getType().getDurationMs());
+
+            if (activePowerUp == PowerUp.PowerUpType.SPEED_BOOST) {
+                player.setSpeed(BOOST_SPEED);
+            }
+            if (listener != null) {
+                listener.onPowerUpCollected(collectedPowerUp);
+            }
+        }
+
+        Room.Cucumber collected = collisionManager.checkPlayerCucumberCollision(player, roomManager);
+        if (collected != null) {
+            roomManager.collectCucumber(collected);
+            gameState.collectCucumber();
+            if (listener != null) {
+                listener.onCucumberCollected(collected);
+            }
+        }
+
+        boolean hasImmunity = (activePowerUp == PowerUp.PowerUpType.IMMUNITY);
+        if (!hasImmunity) {
+            if (detectedBy != null) {
+                gameState.caughtByGuard(detectedBy.getType().getDisplayName());
+                if (listener != null) {
+                    listener.onCaught(detectedBy);
+                }
+            }
+        }
+
+        if (gameState.isWon() && !winReported) {
+            winReported = true;
+            if (listener != null) {
+                listener.onWon();
+            }
+        }
+    }
+
+    private void validateMove(Room currentRoom) {
+        if (collisionManager.checkPlayerObstacleCollision(player, roomManager)) {
+            player.restorePosition();
+        }
+
+        if (currentRoom != null && !collisionManager.isPlayerInsideRoom(player, currentRoom)) {
+            if (!collisionManager.isPlayerOnDoor(player, roomManager)) {
+                player.restorePosition();
+            }
+        }
+
+        Room newRoom = collisionManager.getCurrentRoom(player, roomManager);
+
+        if (currentRoom != newRoom) {
+            if (currentRoom != null && !currentRoom.isUnlocked()) {
+                player.restorePosition();
+            } else if (!collisionManager.isPlayerOnDoor(player, roomManager)) {
+                player.restorePosition();
+            }
+        }
+    }
+
+    public boolean setDifficulty(int difficulty) {
+        if (difficulty == this.difficulty || difficulty < 1 || difficulty >= DIFFICULTY_NAMES.length) {
+            return false;
+        }
+
+        this.difficulty = difficulty;
+        applyDifficulty();
+        return true;
+    }
+
+    private void applyDifficulty() {
+        setGuardSpeedMultiplier(DIFFICULTY_SPEED_MULTIPLIERS[difficulty]);
+    }
+
+    public void setGuardSpeedMultiplier(double speedMultiplier) {
+        roomManager.setGuardSpeedMultiplier(speedMultiplier);
+    }
+
+    public long stateHash() {
+        roomManager.syncGuards();
+        long hash = tickCount;
+        hash = 31 * hash + Double.doubleToLongBits(player.getX());
+        hash = 31 * hash + Double.doubleToLongBits(player.getY());
+        hash = 31 * hash + gameState.getCurrentState().ordinal();
+        hash = 31 * hash + gameState.getCucumbersCollected();
+        hash = 31 * hash + gameState.getElapsedTicks();
+        hash = 31 * hash + (activePowerUp == null ? -1 : activePowerUp.ordinal());
+        hash = 31 * hash + powerUpTicksRemaining;
+
+        for (Room room : roomManager.getRooms()) {
+            Guard guard = room.getGuard();
+            if (guard != null) {
+                hash = 31 * hash + Double.doubleToLongBits(guard.getX());
+                hash = 31 * hash + Double.doubleToLongBits(guard.getY());
+            }
+            Room.Cucumber cucumber = room.getCucumber();
+            if (cucumber != null) {
+                hash = 31 * hash + (cucumber.isCollected() ? 1 : 0);
+            }
+            PowerUp powerUp = room.getPowerUp();
+            if (powerUp != null) {
+                hash = 31 * hash + powerUp.getType().ordinal();
+                hash = 31 * hash + Double.doubleToLongBits(powerUp.getX());
+                hash = 31 * hash + Double.doubleToLongBits(powerUp.getY());
+                hash = 31 * hash + (powerUp.isCollected() ? 1 : 0);
+            }
+        }
+        return hash;
+    }
+
+    public static String getDifficultyName(int difficulty) {
+        return DIFFICULTY_NAMES[difficulty];
+    }
+
+    public static double getDifficultySpeedMultiplier(int difficulty) {
+        return DIFFICULTY_SPEED_MULTIPLIERS[difficulty];
+    }
+
+    public static int getDifficultyCount() {
+        return DIFFICULTY_NAMES.length - 1;
+    }
+
+    private static int millisToTicks(long millis) {
+        return (int) (millis * GameLoop.TICKS_PER_SECOND / 1000);
+    }
+
+    public long getPowerUpRemainingMs() {
+        return activePowerUp == null ? 0 : (long) powerUpTicksRemaining * 1000 / GameLoop.TICKS_PER_SECOND;
+    }
+
+    public PowerUp.PowerUpType getActivePowerUp() {
+        return activePowerUp;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public RoomManager getRoomManager() {
+        return roomManager;
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public CollisionManager getCollisionManager() {
+        return collisionManager;
+    }
+}
@@ -11,7 +11,7 @@ public class GameState {
     private int cucumbersCollected;
     private int totalCucumbers;
     private String gameOverMessage;
-    private long startTime;
+    private long elapsedTicks;
     private long completionTime;
 
     public GameState() {
@@ -19,15 +19,21 @@ public class GameState {
         this.cucumbersCollected = 0;
         this.totalCucumbers = 5;
         this.gameOverMessage = "";
-        this.startTime = 0;
+        this.elapsedTicks = 0;
         this.completionTime = 0;
     }
 
+    public void tick() {
+        if (currentState == State.PLAYING) {
+            elapsedTicks++;
+        }
+    }
+
     public void collectCucumber() {
         cucumbersCollected++;
         if (cucumbersCollected >= totalCucumbers) {
             currentState = State.WON;
-            completionTime = System.currentTimeMillis() - startTime;
+            completionTime = ticksToMillis(elapsedTicks);
         }
     }
 
@@ -40,19 +46,27 @@ public class GameState {
         currentState = State.PLAYING;
         cucumbersCollected = 0;
         gameOverMessage = "";
-        startTime = System.currentTimeMillis();
+        elapsedTicks = 0;
         completionTime = 0;
     }
 
     public int getProgressPercentage() {
-        return (cucumbersCollected * 100) / totalCucumbers;
+        return totalCucumbers == 0 ? 100 : (cucumbersCollected * 100) / totalCucumbers;
     }
 
     public long getElapsedTime() {
         if (currentState == State.WON) {
             return completionTime;
         }
-        return System.currentTimeMillis() - startTime;
+        return ticksToMillis(elapsedTicks);
+    }
+
+    public long getElapsedTicks() {
+        return elapsedTicks;
+    }
+
+    private static long ticksToMillis(long ticks) {
+        return ticks * 1000 / GameLoop.TICKS_PER_SECOND;
     }
 
     public long getCompletionTime() {
@@ -66,6 +80,30 @@ public class GameState {
         return String.format("%02d:%02d.%02d", minutes, seconds, millis);
     }
 
+    public int formatTime(long timeMs, char[] buffer, int offset) {
+        long minutes = (timeMs / 1000) / 60;
+        long seconds = (timeMs / 1000) % 60;
+        long millis = (timeMs % 1000) / 10;
+        offset = appendDigits(buffer, offset, minutes, 2);
+        buffer[offset++] = ':';
+        offset = appendDigits(buffer, offset, seconds, 2);
+        buffer[offset++] = '.';
+        return appendDigits(buffer, offset, millis, 2);
+    }
+
+    static int appendDigits(char[] buffer, int offset, long value, int minDigits) {
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, minDigits);
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + digits;
+    }
+
     public State getCurrentState() {
         return currentState;
     }
@@ -78,6 +116,10 @@ public class GameState {
         return totalCucumbers;
     }
 
+    public void setTotalCucumbers(int totalCucumbers) {
+        this.totalCucumbers = totalCucumbers;
+    }
+
     public String getGameOverMessage() {
         return gameOverMessage;
     }
@@ -108,7 +150,7 @@ public class GameState {
     public void startGame() {
         currentState = State.PLAYING;
         cucumbersCollected = 0;
-        startTime = System.currentTimeMillis();
+        elapsedTicks = 0;
         completionTime = 0;
         gameOverMessage = "";
     }
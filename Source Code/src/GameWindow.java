@@ -7,6 +7,10 @@ public class GameWindow extends JFrame {
     private ProgressBar progressBar;
 
     public GameWindow() {
+        this(new RoomManager());
+    }
+
+    public GameWindow(RoomManager roomManager) {
         setTitle(TITLE);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setResizable(false);
@@ -19,7 +23,7 @@ public class GameWindow extends JFrame {
         }
 
         progressBar = new ProgressBar();
-        gamePanel = new GamePanel(progressBar);
+        gamePanel = new GamePanel(progressBar, roomManager);
 
         add(progressBar, BorderLayout.NORTH);
         add(gamePanel, BorderLayout.CENTER);
@@ -30,6 +34,7 @@ public class GameWindow extends JFrame {
         setIconImage(createIcon());
 
         setVisible(true);
+        StartupTimer.mark("window shown");
 
         gamePanel.requestFocusInWindow();
     }
@@ -59,11 +64,26 @@ public class GameWindow extends JFrame {
     }
 
     public static class ProgressBar extends JPanel {
+        private static final int BAR_X = 150;
+        private static final int BAR_Y = 10;
+        private static final int BAR_WIDTH = 500;
+        private static final int BAR_HEIGHT = 25;
+        private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 16);
+        private static final Font COUNT_FONT = new Font("Arial", Font.BOLD, 14);
+        private static final Font HINT_FONT = new Font("Arial", Font.PLAIN, 11);
+        private static final Color CUCUMBER_DARK = new Color(34, 139, 34);
+        private static final Color CUCUMBER_LIGHT = new Color(50, 180, 50);
+        private static final Color CUCUMBER_OUTLINE = new Color(20, 80, 20);
+
         private int progress;
         private int totalCucumbers;
         private int collectedCucumbers;
         private Color barColor;
         private Color backgroundColor;
+        private final GradientPaint gradient;
+        private final TextLabel countLabel;
+        private java.awt.image.BufferedImage content;
+        private volatile boolean contentDirty = true;
 
         public ProgressBar() {
             this.progress = 0;
@@ -71,24 +91,53 @@ public class GameWindow extends JFrame {
             this.collectedCucumbers = 0;
             this.barColor = new Color(50, 205, 50);
             this.backgroundColor = new Color(50, 50, 50);
+            this.gradient = new GradientPaint(
+                    BAR_X, BAR_Y, CUCUMBER_DARK,
+                    BAR_X, BAR_Y + BAR_HEIGHT, barColor);
+            this.countLabel = new TextLabel(COUNT_FONT);
+            updateCountLabel();
             setPreferredSize(new Dimension(800, 45));
             setBackground(new Color(30, 30, 30));
         }
 
         @Override
         protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Graphics2D g2d = (Graphics2D) g;
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            int width = Math.max(1, getWidth());
+            int height = Math.max(1, getHeight());
+            if (content == null || content.getWidth() != width || content.getHeight() != height) {
+                content = new java.awt.image.BufferedImage(
+                        width, height, java.awt.image.BufferedImage.TYPE_INT_ARGB);
+                contentDirty = true;
+            }
+
+            if (contentDirty) {
+                contentDirty = false;
+                Graphics2D contentGraphics = content.createGraphics();
+                try {
+                    contentGraphics.setComposite(AlphaComposite.Clear);
+                    contentGraphics.fillRect(0, 0, width, height);
+                    contentGraphics.setComposite(AlphaComposite.SrcOver);
+                    drawContent(contentGraphics);
+                } finally {
+                    contentGraphics.dispose();
+                }
+            }
+            g.drawImage(content, 0, 0, null);
+        }
+
+        private void drawContent(Graphics2D g2d) {
             g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-            int barX = 150;
-            int barY = 10;
-            int barWidth = 500;
-            int barHeight = 25;
+            int barX = BAR_X;
+            int barY = BAR_Y;
+            int barWidth = BAR_WIDTH;
+            int barHeight = BAR_HEIGHT;
 
             drawSmallCucumber(g2d, 20, 15);
             g2d.setColor(Color.WHITE);
-            g2d.setFont(new Font("Arial", Font.BOLD, 16));
+            g2d.setFont(TITLE_FONT);
             g2d.drawString("Progress:", 55, 28);
 
             g2d.setColor(backgroundColor);
@@ -96,9 +145,6 @@ public class GameWindow extends JFrame {
 
             int fillWidth = (int) ((progress / 100.0) * barWidth);
             if (fillWidth > 0) {
-                GradientPaint gradient = new GradientPaint(
-                        barX, barY, new Color(34, 139, 34),
-                        barX, barY + barHeight, barColor);
                 g2d.setPaint(gradient);
                 g2d.fillRoundRect(barX, barY, fillWidth, barHeight, 10, 10);
             }
@@ -107,44 +153,48 @@ public class GameWindow extends JFrame {
             g2d.drawRoundRect(barX, barY, barWidth, barHeight, 10, 10);
 
             g2d.setColor(Color.WHITE);
-            g2d.setFont(new Font("Arial", Font.BOLD, 14));
-            String text = collectedCucumbers + " / " + totalCucumbers + " (" + progress + "%)";
-            FontMetrics fm = g2d.getFontMetrics();
-            int textX = barX + (barWidth - fm.stringWidth(text)) / 2;
-            g2d.drawString(text, textX, barY + 18);
+            int textX = barX + (barWidth - countLabel.getWidth(g2d)) / 2;
+            countLabel.draw(g2d, textX, barY + 18);
 
-            g2d.setFont(new Font("Arial", Font.PLAIN, 11));
+            g2d.setFont(HINT_FONT);
             g2d.drawString("WASD: Move | R: Restart", 670, 28);
         }
 
         private void drawSmallCucumber(Graphics2D g2d, int x, int y) {
 
-            g2d.setColor(new Color(34, 139, 34));
+            g2d.setColor(CUCUMBER_DARK);
             g2d.fillOval(x, y, 28, 12);
 
-            g2d.setColor(new Color(50, 180, 50));
+            g2d.setColor(CUCUMBER_LIGHT);
             g2d.fillOval(x + 4, y + 3, 20, 6);
 
-            g2d.setColor(new Color(34, 139, 34));
+            g2d.setColor(CUCUMBER_DARK);
             for (int i = 0; i < 3; i++) {
                 g2d.fillOval(x + 5 + i * 7, y + 1, 3, 3);
             }
 
-            g2d.setColor(new Color(20, 80, 20));
+            g2d.setColor(CUCUMBER_OUTLINE);
             g2d.drawOval(x, y, 28, 12);
         }
 
         public void setProgress(int collectedCucumbers, int totalCucumbers) {
             this.collectedCucumbers = collectedCucumbers;
             this.totalCucumbers = totalCucumbers;
-            this.progress = (collectedCucumbers * 100) / totalCucumbers;
+            this.progress = totalCucumbers == 0 ? 100 : (collectedCucumbers * 100) / totalCucumbers;
+            updateCountLabel();
             repaint();
         }
 
         public void reset() {
             this.progress = 0;
             this.collectedCucumbers = 0;
+            updateCountLabel();
             repaint();
         }
+
+        private void updateCountLabel() {
+            countLabel.setText(collectedCucumbers + " / " + totalCucumbers + " (" + progress + "%)");
+            contentDirty = true;
+        }
     }
 }
@@ -0,0 +1,39 @@
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+
+public class GlyphCache {
+    private final Font font;
+    private final String glyphs;
+    private final TextLabel[] labels;
+    private final int[] advances;
+
+    public GlyphCache(Font font, String glyphs) {
+        this.font = font;
+        this.glyphs = glyphs;
+        this.labels = new TextLabel[glyphs.length()];
+        this.advances = new int[glyphs.length()];
+        for (int i = 0; i < labels.length; i++) {
+            labels[i] = new TextLabel(font, glyphs.substring(i, i + 1));
+        }
+    }
+
+    public int drawChars(Graphics2D g2d, char[] chars, int offset, int length, int x, int y) {
+        if (advances[0] == 0) {
+            FontMetrics fm = g2d.getFontMetrics(font);
+            for (int i = 0; i < advances.length; i++) {
+                advances[i] = fm.charWidth(glyphs.charAt(i));
+            }
+        }
+
+        for (int i = offset; i < offset + length; i++) {
+            int index = glyphs.indexOf(chars[i]);
+            if (index < 0) {
+                continue;
+            }
+            labels[index].draw(g2d, x, y);
+            x += advances[index];
+        }
+        return x;
+    }
+}
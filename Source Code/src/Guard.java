@@ -1,42 +1,107 @@
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
-import java.awt.Shape;
 
 public class Guard extends Entity {
+    public static final int SIZE = 35;
+    private static final int DETECTION_SPRITE = 1;
+    private static final SpriteCache.Painter PAINTER =
+            (g2d, key, px, py) -> drawBody(g2d, (GuardType) key, px, py);
+    private static final SpriteCache.Painter DETECTION_PAINTER =
+            (g2d, key, px, py) -> drawDetectionRadius(g2d, (GuardType) key, px, py);
+
     private GuardType type;
-    private double patrolStartX, patrolStartY;
-    private double patrolEndX, patrolEndY;
-    private boolean movingToEnd;
+    private final GuardStore ownStore;
+    private GuardStore store;
+    private int storeId;
     private int detectionRadius;
 
     public Guard(GuardType type, double startX, double startY, double endX, double endY) {
-        super(startX, startY, 35, 35);
+        super(startX, startY, SIZE, SIZE);
         this.type = type;
-        this.patrolStartX = startX;
-        this.patrolStartY = startY;
-        this.patrolEndX = endX;
-        this.patrolEndY = endY;
-        this.movingToEnd = true;
-        this.speed = type.getRiskLevel().getGuardSpeed();
+        this.ownStore = new GuardStore(1);
+        this.store = ownStore;
+        this.storeId = store.add(startX, startY, endX, endY, type.getRiskLevel().getGuardSpeed());
         this.detectionRadius = type.getRiskLevel().getDetectionRadius();
+        store.bind(storeId, this);
+    }
+
+    public void moveTo(GuardStore target) {
+        if (target == store) {
+            return;
+        }
+        int id = target.copyFrom(store, storeId);
+        store.remove(storeId);
+        store = target;
+        storeId = id;
+        target.bind(id, this);
+    }
+
+    // Moves the guard's state back into the single-slot store it was created with, e.g. when its room is
+    // evicted from a shared store, so detaching does not allocate.
+    public void detach() {
+        moveTo(ownStore);
+    }
+
+    void rebind(GuardStore store, int storeId) {
+        this.store = store;
+        this.storeId = storeId;
+    }
+
+    public GuardStore getStore() {
+        return store;
+    }
+
+    public int getStoreId() {
+        return storeId;
     }
 
     @Override
     public void update() {
-        double targetX = movingToEnd ? patrolEndX : patrolStartX;
-        double targetY = movingToEnd ? patrolEndY : patrolStartY;
+        advance(1);
+    }
 
-        double dx = targetX - x;
-        double dy = targetY - y;
-        double distance = Math.sqrt(dx * dx + dy * dy);
+    public void advance(long ticks) {
+        store.advance(storeId, ticks);
+    }
 
-        if (distance < speed) {
-            movingToEnd = !movingToEnd;
-        } else {
-            x += (dx / distance) * speed;
-            y += (dy / distance) * speed;
-        }
+    public void advanceTo(long tick) {
+        store.advanceTo(storeId, tick);
+    }
+
+    @Override
+    public double getX() {
+        return store.getX(storeId);
+    }
+
+    @Override
+    public double getY() {
+        return store.getY(storeId);
+    }
+
+    @Override
+    public void setX(double x) {
+        store.setPosition(storeId, x, getY());
+    }
+
+    @Override
+    public void setY(double y) {
+        store.setPosition(storeId, getX(), y);
+    }
+
+    @Override
+    public double getSpeed() {
+        return store.getSpeed(storeId);
+    }
+
+    @Override
+    public void setSpeed(double speed) {
+        store.setSpeed(storeId, speed);
+    }
+
+    public void restorePatrol(double anchorOffset, boolean anchorOutbound, double speed, long ticks, long clock) {
+        store.restore(storeId, anchorOffset, anchorOutbound, speed, ticks, clock);
+        syncRenderPosition();
     }
 
     @Override
@@ -45,63 +110,55 @@ public class Guard extends Entity {
     }
 
     public void draw(Graphics2D g2d, Rectangle roomBounds) {
-        Color radiusColor = new Color(
-                type.getColor().getRed(),
-                type.getColor().getGreen(),
-                type.getColor().getBlue(),
-                50);
-        g2d.setColor(radiusColor);
-
+        int radiusX = (int) (renderX + width / 2 - detectionRadius);
+        int radiusY = (int) (renderY + height / 2 - detectionRadius);
         if (roomBounds != null) {
-            Shape oldClip = g2d.getClip();
-            g2d.setClip(roomBounds);
-            g2d.fillOval(
-                    (int) (x + width / 2 - detectionRadius),
-                    (int) (y + height / 2 - detectionRadius),
-                    detectionRadius * 2,
-                    detectionRadius * 2);
-            g2d.setClip(oldClip);
+            SpriteCache.getInstance().drawClipped(g2d, type, DETECTION_SPRITE, radiusX, radiusY,
+                    detectionRadius * 2, detectionRadius * 2, DETECTION_PAINTER, roomBounds);
         } else {
-            g2d.fillOval(
-                    (int) (x + width / 2 - detectionRadius),
-                    (int) (y + height / 2 - detectionRadius),
-                    detectionRadius * 2,
-                    detectionRadius * 2);
+            drawDetectionRadius(g2d, type, radiusX, radiusY);
         }
 
+        SpriteCache.getInstance().draw(g2d, type, (int) renderX, (int) renderY, width, height, PAINTER);
+    }
+
+    private static void drawDetectionRadius(Graphics2D g2d, GuardType type, int px, int py) {
+        int diameter = type.getRiskLevel().getDetectionRadius() * 2;
+        g2d.setColor(type.getRadiusColor());
+        g2d.fillOval(px, py, diameter, diameter);
+    }
+
+    static void drawBody(Graphics2D g2d, GuardType type, int px, int py) {
         switch (type) {
             case CAT:
-                drawCat(g2d);
+                drawCat(g2d, type, px, py);
                 break;
             case BROTHER:
-                drawBrother(g2d);
+                drawBrother(g2d, type, px, py);
                 break;
             case MOM:
-                drawMom(g2d);
+                drawMom(g2d, type, px, py);
                 break;
             case DAD:
-                drawDad(g2d);
+                drawDad(g2d, type, px, py);
                 break;
             case SISTER:
-                drawSister(g2d);
+                drawSister(g2d, type, px, py);
                 break;
         }
     }
 
-    private void drawCat(Graphics2D g2d) {
-        int px = (int) x;
-        int py = (int) y;
-
+    private static void drawCat(Graphics2D g2d, GuardType type, int px, int py) {
         g2d.setColor(type.getColor());
-        g2d.fillOval(px, py + 10, width, height - 10);
+        g2d.fillOval(px, py + 10, SIZE, SIZE - 10);
 
         g2d.fillPolygon(new int[] { px + 5, px + 12, px + 2 }, new int[] { py + 12, py + 5, py }, 3);
-        g2d.fillPolygon(new int[] { px + width - 5, px + width - 12, px + width - 2 },
+        g2d.fillPolygon(new int[] { px + SIZE - 5, px + SIZE - 12, px + SIZE - 2 },
                 new int[] { py + 12, py + 5, py }, 3);
 
         g2d.setColor(new Color(255, 182, 193));
         g2d.fillPolygon(new int[] { px + 6, px + 10, px + 4 }, new int[] { py + 10, py + 6, py + 3 }, 3);
-        g2d.fillPolygon(new int[] { px + width - 6, px + width - 10, px + width - 4 },
+        g2d.fillPolygon(new int[] { px + SIZE - 6, px + SIZE - 10, px + SIZE - 4 },
                 new int[] { py + 10, py + 6, py + 3 }, 3);
 
         g2d.setColor(Color.WHITE);
@@ -117,21 +174,18 @@ public class Guard extends Entity {
         g2d.setColor(Color.BLACK);
         g2d.drawLine(px + 5, py + 24, px - 2, py + 22);
         g2d.drawLine(px + 5, py + 26, px - 2, py + 26);
-        g2d.drawLine(px + width - 5, py + 24, px + width + 2, py + 22);
-        g2d.drawLine(px + width - 5, py + 26, px + width + 2, py + 26);
+        g2d.drawLine(px + SIZE - 5, py + 24, px + SIZE + 2, py + 22);
+        g2d.drawLine(px + SIZE - 5, py + 26, px + SIZE + 2, py + 26);
     }
 
-    private void drawBrother(Graphics2D g2d) {
-        int px = (int) x;
-        int py = (int) y;
-
+    private static void drawBrother(Graphics2D g2d, GuardType type, int px, int py) {
         g2d.setColor(new Color(255, 220, 180));
-        g2d.fillOval(px + 5, py + 10, width - 10, height - 12);
+        g2d.fillOval(px + 5, py + 10, SIZE - 10, SIZE - 12);
 
         g2d.setColor(type.getColor());
-        g2d.fillArc(px + 3, py + 5, width - 6, 20, 0, 180);
-        g2d.fillRect(px + 3, py + 14, width - 6, 5);
-        g2d.fillRect(px + width - 8, py + 14, 12, 4);
+        g2d.fillArc(px + 3, py + 5, SIZE - 6, 20, 0, 180);
+        g2d.fillRect(px + 3, py + 14, SIZE - 6, 5);
+        g2d.fillRect(px + SIZE - 8, py + 14, 12, 4);
 
         g2d.setColor(Color.WHITE);
         g2d.fillOval(px + 10, py + 18, 6, 6);
@@ -143,19 +197,16 @@ public class Guard extends Entity {
         g2d.drawArc(px + 12, py + 24, 10, 6, 180, 180);
     }
 
-    private void drawMom(Graphics2D g2d) {
-        int px = (int) x;
-        int py = (int) y;
-
+    private static void drawMom(Graphics2D g2d, GuardType type, int px, int py) {
         g2d.setColor(new Color(139, 69, 19));
-        g2d.fillOval(px + 3, py + 2, width - 6, 20);
+        g2d.fillOval(px + 3, py + 2, SIZE - 6, 20);
 
         g2d.setColor(new Color(255, 220, 180));
-        g2d.fillOval(px + 5, py + 8, width - 10, height - 18);
+        g2d.fillOval(px + 5, py + 8, SIZE - 10, SIZE - 18);
 
         g2d.setColor(new Color(139, 69, 19));
         g2d.fillOval(px + 2, py + 8, 8, 15);
-        g2d.fillOval(px + width - 10, py + 8, 8, 15);
+        g2d.fillOval(px + SIZE - 10, py + 8, 8, 15);
 
         g2d.setColor(Color.WHITE);
         g2d.fillOval(px + 10, py + 14, 6, 6);
@@ -168,18 +219,15 @@ public class Guard extends Entity {
         g2d.fillOval(px + 13, py + 22, 8, 4);
 
         g2d.setColor(type.getColor());
-        g2d.fillRect(px + 8, py + 28, width - 16, 8);
+        g2d.fillRect(px + 8, py + 28, SIZE - 16, 8);
     }
 
-    private void drawDad(Graphics2D g2d) {
-        int px = (int) x;
-        int py = (int) y;
-
+    private static void drawDad(Graphics2D g2d, GuardType type, int px, int py) {
         g2d.setColor(new Color(255, 220, 180));
-        g2d.fillOval(px + 5, py + 5, width - 10, height - 15);
+        g2d.fillOval(px + 5, py + 5, SIZE - 10, SIZE - 15);
 
         g2d.setColor(new Color(60, 60, 60));
-        g2d.fillArc(px + 5, py + 2, width - 10, 15, 0, 180);
+        g2d.fillArc(px + 5, py + 2, SIZE - 10, 15, 0, 180);
 
         g2d.setColor(Color.WHITE);
         g2d.fillOval(px + 10, py + 12, 6, 6);
@@ -196,18 +244,15 @@ public class Guard extends Entity {
         g2d.fillRect(px + 15, py + 24, 5, 4);
     }
 
-    private void drawSister(Graphics2D g2d) {
-        int px = (int) x;
-        int py = (int) y;
-
+    private static void drawSister(Graphics2D g2d, GuardType type, int px, int py) {
         g2d.setColor(new Color(100, 50, 20));
-        g2d.fillOval(px + width - 5, py, 12, 15);
+        g2d.fillOval(px + SIZE - 5, py, 12, 15);
 
         g2d.setColor(new Color(255, 220, 180));
-        g2d.fillOval(px + 5, py + 5, width - 10, height - 15);
+        g2d.fillOval(px + 5, py + 5, SIZE - 10, SIZE - 15);
 
         g2d.setColor(new Color(100, 50, 20));
-        g2d.fillArc(px + 5, py + 2, width - 10, 18, 0, 180);
+        g2d.fillArc(px + 5, py + 2, SIZE - 10, 18, 0, 180);
 
         g2d.setColor(Color.WHITE);
         g2d.fillOval(px + 10, py + 14, 6, 6);
@@ -220,12 +265,12 @@ public class Guard extends Entity {
         g2d.drawArc(px + 12, py + 22, 10, 6, 180, 180);
 
         g2d.setColor(type.getColor());
-        g2d.fillOval(px + width - 3, py + 5, 6, 6);
+        g2d.fillOval(px + SIZE - 3, py + 5, 6, 6);
     }
 
     public boolean canDetectPlayer(Player player) {
-        double centerX = x + width / 2.0;
-        double centerY = y + height / 2.0;
+        double centerX = getX() + width / 2.0;
+        double centerY = getY() + height / 2.0;
         double playerCenterX = player.getX() + player.getWidth() / 2.0;
         double playerCenterY = player.getY() + player.getHeight() / 2.0;
 
@@ -244,10 +289,41 @@ public class Guard extends Entity {
         return detectionRadius;
     }
 
+    public double getPatrolStartX() {
+        return store.getPatrolStartX(storeId);
+    }
+
+    public double getPatrolStartY() {
+        return store.getPatrolStartY(storeId);
+    }
+
+    public double getPatrolEndX() {
+        return store.getPatrolEndX(storeId);
+    }
+
+    public double getPatrolEndY() {
+        return store.getPatrolEndY(storeId);
+    }
+
+    public double getPatrolAnchorOffset() {
+        return store.getAnchorOffset(storeId);
+    }
+
+    public boolean isPatrolAnchorOutbound() {
+        return store.isAnchorOutbound(storeId);
+    }
+
+    public long getPatrolTicks() {
+        return store.getTicks(storeId);
+    }
+
+    public long getClock() {
+        return store.getClock(storeId);
+    }
+
     public void reset() {
-        this.x = patrolStartX;
-        this.y = patrolStartY;
-        this.movingToEnd = true;
+        store.reset(storeId);
+        syncRenderPosition();
     }
 
     public enum RiskLevel {
@@ -281,11 +357,13 @@ public class Guard extends Entity {
 
         private final String displayName;
         private final Color color;
+        private final Color radiusColor;
         private final RiskLevel riskLevel;
 
         GuardType(String displayName, Color color, RiskLevel riskLevel) {
             this.displayName = displayName;
             this.color = color;
+            this.radiusColor = new Color(color.getRed(), color.getGreen(), color.getBlue(), 50);
             this.riskLevel = riskLevel;
         }
 
@@ -297,6 +375,10 @@ public class Guard extends Entity {
             return color;
         }
 
+        public Color getRadiusColor() {
+            return radiusColor;
+        }
+
         public RiskLevel getRiskLevel() {
             return riskLevel;
         }
@@ -0,0 +1,232 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class GuardScheduler {
+    public static final int DEFAULT_NEAR_DISTANCE = 1024;
+    public static final int DEFAULT_FAR_INTERVAL = 8;
+    public static final int DEFAULT_FAR_BUDGET = 4096;
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+    private static final int REFOCUS_DISTANCE = 128;
+    private static final int PARALLEL_GRAIN = 1024;
+    private static final int NO_DETECTION = Integer.MAX_VALUE;
+
+    private final int nearDistance;
+    private final int farInterval;
+    private final int farBudget;
+    private final int parallelThreshold;
+    private final List<Room> nearRooms = new ArrayList<>();
+    private int[] farIds = new int[16];
+    private int farCount;
+    private boolean dirty = true;
+    private double partitionX;
+    private double partitionY;
+    private int farCursor;
+    private int sliceStart;
+    private int sliceSize;
+    private GuardStore store;
+    private long tick;
+    private Player player;
+    private Room playerRoom;
+    private int lastUpdatedGuards;
+    private long lastTickNanos;
+    private long maxTickNanos;
+    private long totalUpdatedGuards;
+    private long totalTickNanos;
+    private long scheduledTicks;
+
+    public GuardScheduler() {
+        this(DEFAULT_NEAR_DISTANCE, DEFAULT_FAR_INTERVAL, DEFAULT_FAR_BUDGET);
+    }
+
+    public GuardScheduler(int nearDistance, int farInterval, int farBudget) {
+        this(nearDistance, farInterval, farBudget, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    public GuardScheduler(int nearDistance, int farInterval, int farBudget, int parallelThreshold) {
+        if (nearDistance < 2 * REFOCUS_DISTANCE || farInterval < 1 || farBudget < 1 || parallelThreshold < 1) {
+            throw new IllegalArgumentException("Invalid guard schedule: near distance " + nearDistance
+                    + ", far interval " + farInterval + ", far budget " + farBudget
+                    + ", parallel threshold " + parallelThreshold);
+        }
+        this.nearDistance = nearDistance;
+        this.farInterval = farInterval;
+        this.farBudget = farBudget;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    void invalidate() {
+        dirty = true;
+    }
+
+    void focus(List<Room> rooms, long tick, double focusX, double focusY) {
+        if (dirty || Math.abs(focusX - partitionX) > REFOCUS_DISTANCE
+                || Math.abs(focusY - partitionY) > REFOCUS_DISTANCE) {
+            partition(rooms, tick, focusX, focusY);
+        }
+    }
+
+    Guard update(List<Room> rooms, GuardStore store, long tick, double focusX, double focusY, Player player,
+            Room playerRoom) {
+        long start = System.nanoTime();
+        focus(rooms, tick - 1, focusX, focusY);
+
+        this.store = store;
+        this.tick = tick;
+        this.player = player;
+        this.playerRoom = playerRoom;
+        sliceStart = farCursor;
+        sliceSize = Math.min(farBudget, (farCount + farInterval - 1) / farInterval);
+        int count = nearRooms.size() + sliceSize;
+        int detected = count >= parallelThreshold
+                ? ForkJoinPool.commonPool().invoke(new UpdateTask(0, count))
+                : updateRange(0, count);
+        if (farCount > 0) {
+            farCursor = (sliceStart + sliceSize) % farCount;
+        }
+        this.store = null;
+        this.player = null;
+        this.playerRoom = null;
+
+        long elapsed = System.nanoTime() - start;
+        lastUpdatedGuards = count;
+        lastTickNanos = elapsed;
+        maxTickNanos = Math.max(maxTickNanos, elapsed);
+        totalUpdatedGuards += lastUpdatedGuards;
+        totalTickNanos += elapsed;
+        scheduledTicks++;
+        return detected == NO_DETECTION ? null : nearRooms.get(detected).getGuard();
+    }
+
+    private int updateRange(int from, int to) {
+        int detected = NO_DETECTION;
+        for (int i = from; i < to; i++) {
+            if (i < nearRooms.size()) {
+                Room room = nearRooms.get(i);
+                Guard guard = room.getGuard();
+                guard.advanceTo(tick);
+                if (detected == NO_DETECTION && room == playerRoom && guard.canDetectPlayer(player)) {
+                    detected = i;
+                }
+            } else {
+                int slot = sliceStart + i - nearRooms.size();
+                store.advanceTo(farIds[slot < farCount ? slot : slot - farCount], tick);
+            }
+        }
+        return detected;
+    }
+
+    private void partition(List<Room> rooms, long tick, double focusX, double focusY) {
+        nearRooms.clear();
+        farCount = 0;
+        int left = (int) Math.floor(focusX) - nearDistance;
+        int top = (int) Math.floor(focusY) - nearDistance;
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            Guard guard = room.getGuard();
+            if (guard == null) {
+                continue;
+            }
+            if (Aabb.intersects(left, top, 2 * nearDistance, 2 * nearDistance,
+                    room.getX(), room.getY(), room.getWidth(), room.getHeight())) {
+                guard.advanceTo(tick);
+                guard.beginTick();
+                nearRooms.add(room);
+            } else {
+                if (farCount == farIds.length) {
+                    farIds = Arrays.copyOf(farIds, farCount * 2);
+                }
+                farIds[farCount++] = guard.getStoreId();
+            }
+        }
+        Arrays.sort(farIds, 0, farCount);
+        farCursor = 0;
+        partitionX = focusX;
+        partitionY = focusY;
+        dirty = false;
+    }
+
+    void sync(List<Room> rooms, long tick) {
+        for (int i = 0; i < rooms.size(); i++) {
+            Guard guard = rooms.get(i).getGuard();
+            if (guard != null) {
+                guard.advanceTo(tick);
+            }
+        }
+    }
+
+    void beginTick() {
+        for (int i = 0; i < nearRooms.size(); i++) {
+            nearRooms.get(i).getGuard().beginTick();
+        }
+    }
+
+    void interpolate(double alpha) {
+        for (int i = 0; i < nearRooms.size(); i++) {
+            nearRooms.get(i).getGuard().interpolate(alpha);
+        }
+    }
+
+    public void resetMetrics() {
+        lastUpdatedGuards = 0;
+        lastTickNanos = 0;
+        maxTickNanos = 0;
+        totalUpdatedGuards = 0;
+        totalTickNanos = 0;
+        scheduledTicks = 0;
+    }
+
+    public int getNearGuardCount() {
+        return nearRooms.size();
+    }
+
+    public int getFarGuardCount() {
+        return farCount;
+    }
+
+    public int getLastUpdatedGuards() {
+        return lastUpdatedGuards;
+    }
+
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+
+    public long getMaxTickNanos() {
+        return maxTickNanos;
+    }
+
+    public double getAverageUpdatedGuards() {
+        return scheduledTicks == 0 ? 0 : (double) totalUpdatedGuards / scheduledTicks;
+    }
+
+    public double getAverageTickNanos() {
+        return scheduledTicks == 0 ? 0 : (double) totalTickNanos / scheduledTicks;
+    }
+
+    private class UpdateTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        UpdateTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= PARALLEL_GRAIN) {
+                return updateRange(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            UpdateTask right = new UpdateTask(middle, to);
+            right.fork();
+            int detected = new UpdateTask(from, middle).compute();
+            return Math.min(detected, right.join());
+        }
+    }
+}
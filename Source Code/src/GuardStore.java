@@ -0,0 +1,286 @@
+import java.util.Arrays;
+
+public class GuardStore {
+    private static final double STEP_EPSILON = 1e-9;
+    private static final byte OUTBOUND = 1;
+    private static final byte ANCHOR_OUTBOUND = 2;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int size;
+    private Guard[] views;
+    private double[] x;
+    private double[] y;
+    private double[] startX;
+    private double[] startY;
+    private double[] endX;
+    private double[] endY;
+    private double[] directionX;
+    private double[] directionY;
+    private double[] length;
+    private double[] speed;
+    private double[] offset;
+    private double[] anchorOffset;
+    private long[] ticks;
+    private long[] clock;
+    private byte[] flags;
+
+    public GuardStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public GuardStore(int capacity) {
+        allocate(Math.max(1, capacity));
+    }
+
+    private void allocate(int capacity) {
+        views = new Guard[capacity];
+        x = new double[capacity];
+        y = new double[capacity];
+        startX = new double[capacity];
+        startY = new double[capacity];
+        endX = new double[capacity];
+        endY = new double[capacity];
+        directionX = new double[capacity];
+        directionY = new double[capacity];
+        length = new double[capacity];
+        speed = new double[capacity];
+        offset = new double[capacity];
+        anchorOffset = new double[capacity];
+        ticks = new long[capacity];
+        clock = new long[capacity];
+        flags = new byte[capacity];
+    }
+
+    private void grow() {
+        int capacity = views.length * 2;
+        views = Arrays.copyOf(views, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        startX = Arrays.copyOf(startX, capacity);
+        startY = Arrays.copyOf(startY, capacity);
+        endX = Arrays.copyOf(endX, capacity);
+        endY = Arrays.copyOf(endY, capacity);
+        directionX = Arrays.copyOf(directionX, capacity);
+        directionY = Arrays.copyOf(directionY, capacity);
+        length = Arrays.copyOf(length, capacity);
+        speed = Arrays.copyOf(speed, capacity);
+        offset = Arrays.copyOf(offset, capacity);
+        anchorOffset = Arrays.copyOf(anchorOffset, capacity);
+        ticks = Arrays.copyOf(ticks, capacity);
+        clock = Arrays.copyOf(clock, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+    }
+
+    public int add(double patrolStartX, double patrolStartY, double patrolEndX, double patrolEndY,
+            double patrolSpeed) {
+        if (size == views.length) {
+            grow();
+        }
+        int id = size++;
+        double dx = patrolEndX - patrolStartX;
+        double dy = patrolEndY - patrolStartY;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        x[id] = patrolStartX;
+        y[id] = patrolStartY;
+        startX[id] = patrolStartX;
+        startY[id] = patrolStartY;
+        endX[id] = patrolEndX;
+        endY[id] = patrolEndY;
+        directionX[id] = distance > 0 ? dx / distance : 0;
+        directionY[id] = distance > 0 ? dy / distance : 0;
+        length[id] = distance;
+        speed[id] = patrolSpeed;
+        offset[id] = 0;
+        anchorOffset[id] = 0;
+        ticks[id] = 0;
+        clock[id] = 0;
+        flags[id] = OUTBOUND | ANCHOR_OUTBOUND;
+        views[id] = null;
+        return id;
+    }
+
+    int copyFrom(GuardStore source, int sourceId) {
+        if (size == views.length) {
+            grow();
+        }
+        int id = size++;
+        copy(source, sourceId, this, id);
+        views[id] = null;
+        return id;
+    }
+
+    private static void copy(GuardStore from, int fromId, GuardStore to, int toId) {
+        to.x[toId] = from.x[fromId];
+        to.y[toId] = from.y[fromId];
+        to.startX[toId] = from.startX[fromId];
+        to.startY[toId] = from.startY[fromId];
+        to.endX[toId] = from.endX[fromId];
+        to.endY[toId] = from.endY[fromId];
+        to.directionX[toId] = from.directionX[fromId];
+        to.directionY[toId] = from.directionY[fromId];
+        to.length[toId] = from.length[fromId];
+        to.speed[toId] = from.speed[fromId];
+        to.offset[toId] = from.offset[fromId];
+        to.anchorOffset[toId] = from.anchorOffset[fromId];
+        to.ticks[toId] = from.ticks[fromId];
+        to.clock[toId] = from.clock[fromId];
+        to.flags[toId] = from.flags[fromId];
+    }
+
+    void bind(int id, Guard view) {
+        views[id] = view;
+    }
+
+    void remove(int id) {
+        int last = --size;
+        if (id != last) {
+            copy(this, last, this, id);
+            views[id] = views[last];
+            if (views[id] != null) {
+                views[id].rebind(this, id);
+            }
+        }
+        views[last] = null;
+    }
+
+    public void advance(int id, long n) {
+        ticks[id] += n;
+        clock[id] += n;
+        applyPatrol(id);
+    }
+
+    public void advanceTo(int id, long tick) {
+        if (tick > clock[id]) {
+            advance(id, tick - clock[id]);
+        }
+    }
+
+    public void advanceAllTo(long tick) {
+        for (int id = 0; id < size; id++) {
+            if (tick > clock[id]) {
+                ticks[id] += tick - clock[id];
+                clock[id] = tick;
+                applyPatrol(id);
+            }
+        }
+    }
+
+    private void applyPatrol(int id) {
+        double step = speed[id];
+        double patrolLength = length[id];
+        double position = anchorOffset[id];
+        boolean outbound = (flags[id] & ANCHOR_OUTBOUND) != 0;
+        long remaining = ticks[id];
+
+        if (step > 0 && outbound && remaining > 0) {
+            long steps = legSteps(patrolLength - position, step);
+            if (remaining <= steps) {
+                position += remaining * step;
+                remaining = 0;
+            } else {
+                position += steps * step;
+                outbound = false;
+                remaining -= steps + 1;
+            }
+        }
+        if (step > 0 && !outbound && remaining > 0) {
+            long steps = legSteps(position, step);
+            if (remaining <= steps) {
+                position -= remaining * step;
+            } else {
+                position -= steps * step;
+                remaining -= steps + 1;
+
+                long outboundSteps = legSteps(patrolLength - position, step);
+                long phase = remaining % (2 * (outboundSteps + 1));
+                outbound = phase <= outboundSteps;
+                position += (outbound ? phase : 2 * outboundSteps + 1 - phase) * step;
+            }
+        }
+
+        offset[id] = position;
+        flags[id] = (byte) ((flags[id] & ANCHOR_OUTBOUND) | (outbound ? OUTBOUND : 0));
+        x[id] = startX[id] + position * directionX[id];
+        y[id] = startY[id] + position * directionY[id];
+    }
+
+    private static long legSteps(double distance, double step) {
+        return Math.max(0, (long) Math.floor(distance / step + STEP_EPSILON));
+    }
+
+    public void setSpeed(int id, double patrolSpeed) {
+        if (patrolSpeed != speed[id]) {
+            anchorOffset[id] = offset[id];
+            flags[id] = (byte) ((flags[id] & OUTBOUND) != 0 ? OUTBOUND | ANCHOR_OUTBOUND : 0);
+            ticks[id] = 0;
+            speed[id] = patrolSpeed;
+        }
+    }
+
+    public void restore(int id, double patrolAnchorOffset, boolean anchorOutbound, double patrolSpeed,
+            long patrolTicks, long patrolClock) {
+        anchorOffset[id] = patrolAnchorOffset;
+        flags[id] = anchorOutbound ? ANCHOR_OUTBOUND : 0;
+        speed[id] = patrolSpeed;
+        ticks[id] = patrolTicks;
+        clock[id] = patrolClock;
+        applyPatrol(id);
+    }
+
+    public void reset(int id) {
+        restore(id, 0, true, speed[id], 0, 0);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double getX(int id) {
+        return x[id];
+    }
+
+    public double getY(int id) {
+        return y[id];
+    }
+
+    public void setPosition(int id, double newX, double newY) {
+        x[id] = newX;
+        y[id] = newY;
+    }
+
+    public double getSpeed(int id) {
+        return speed[id];
+    }
+
+    public double getPatrolStartX(int id) {
+        return startX[id];
+    }
+
+    public double getPatrolStartY(int id) {
+        return startY[id];
+    }
+
+    public double getPatrolEndX(int id) {
+        return endX[id];
+    }
+
+    public double getPatrolEndY(int id) {
+        return endY[id];
+    }
+
+    public double getAnchorOffset(int id) {
+        return anchorOffset[id];
+    }
+
+    public boolean isAnchorOutbound(int id) {
+        return (flags[id] & ANCHOR_OUTBOUND) != 0;
+    }
+
+    public long getTicks(int id) {
+        return ticks[id];
+    }
+
+    public long getClock(int id) {
+        return clock[id];
+    }
+}
@@ -0,0 +1,231 @@
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class HouseGenerator {
+    private static final int ORIGIN_X = 10;
+    private static final int ORIGIN_Y = 60;
+    private static final int WALL_GAP = 10;
+    private static final int MIN_ROOM_WIDTH = 220;
+    private static final int MAX_ROOM_WIDTH = 360;
+    private static final int MIN_ROOM_HEIGHT = 200;
+    private static final int MAX_ROOM_HEIGHT = 300;
+    private static final int DOOR_SPAN = 40;
+    private static final int WIDE_DOOR_SPAN = 60;
+    private static final int DOOR_DEPTH = WALL_GAP + 10;
+    private static final int CLEARANCE = Player.SIZE + 2;
+    private static final int GUARD_MARGIN = 10;
+    private static final int MAX_FURNITURE = 3;
+    private static final int PLACEMENT_ATTEMPTS = 12;
+    private static final double EXTRA_DOOR_CHANCE = 0.15;
+
+    private static final String[] ROOM_NAMES = {
+            "Kitchen", "Bathroom", "Bedroom", "Study", "Hallway", "Pantry", "Laundry",
+            "Dining Room", "Living Room", "Guest Room", "Attic", "Cellar", "Garage", "Nursery"
+    };
+    private static final Color[] FLOOR_COLORS = {
+            new Color(173, 216, 230), new Color(144, 238, 144), new Color(255, 182, 193),
+            new Color(255, 218, 185), new Color(192, 192, 192), new Color(221, 160, 221),
+            new Color(240, 230, 140), new Color(176, 224, 230), new Color(250, 235, 215)
+    };
+
+    private final Random random;
+
+    public HouseGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public Level generate(int roomCount) {
+        if (roomCount <= 0) {
+            throw new IllegalArgumentException("Room count must be positive: " + roomCount);
+        }
+
+        int columns = (int) Math.ceil(Math.sqrt(roomCount));
+        int rows = (roomCount + columns - 1) / columns;
+        int[] columnX = new int[columns];
+        int[] columnWidth = new int[columns];
+        int[] rowY = new int[rows];
+        int[] rowHeight = new int[rows];
+        int x = ORIGIN_X;
+        for (int column = 0; column < columns; column++) {
+            columnX[column] = x;
+            columnWidth[column] = MIN_ROOM_WIDTH + random.nextInt(MAX_ROOM_WIDTH - MIN_ROOM_WIDTH + 1);
+            x += columnWidth[column] + WALL_GAP;
+        }
+        int y = ORIGIN_Y;
+        for (int row = 0; row < rows; row++) {
+            rowY[row] = y;
+            rowHeight[row] = MIN_ROOM_HEIGHT + random.nextInt(MAX_ROOM_HEIGHT - MIN_ROOM_HEIGHT + 1);
+            y += rowHeight[row] + WALL_GAP;
+        }
+
+        List<Room> rooms = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            int column = i % columns;
+            int row = i / columns;
+            rooms.add(createRoom(columnX[column], rowY[row], columnWidth[column], rowHeight[row], i == 0));
+        }
+        Level level = new Level(ORIGIN_X + GUARD_MARGIN, ORIGIN_Y + GUARD_MARGIN, rooms, new ArrayList<>());
+
+        boolean[] doorRight = new boolean[roomCount];
+        boolean[] doorDown = new boolean[roomCount];
+        connectSpanningTree(roomCount, columns, doorRight, doorDown);
+        for (int i = 0; i < roomCount; i++) {
+            int column = i % columns;
+            int row = i / columns;
+            if (column + 1 < columns && i + 1 < roomCount
+                    && (doorRight[i] || random.nextDouble() < EXTRA_DOOR_CHANCE)) {
+                int doorY = rowY[row] + CLEARANCE + random.nextInt(rowHeight[row] - 2 * CLEARANCE - DOOR_SPAN + 1);
+                level.addDoor(new Rectangle(columnX[column] + columnWidth[column] - (DOOR_DEPTH - WALL_GAP) / 2,
+                        doorY, DOOR_DEPTH, DOOR_SPAN));
+            }
+            if (i + columns < roomCount && (doorDown[i] || random.nextDouble() < EXTRA_DOOR_CHANCE)) {
+                int doorX = columnX[column] + CLEARANCE
+                        + random.nextInt(columnWidth[column] - 2 * CLEARANCE - WIDE_DOOR_SPAN + 1);
+                level.addDoor(new Rectangle(doorX, rowY[row] + rowHeight[row] - (DOOR_DEPTH - WALL_GAP) / 2,
+                        WIDE_DOOR_SPAN, DOOR_DEPTH));
+            }
+        }
+        return level;
+    }
+
+    private void connectSpanningTree(int roomCount, int columns, boolean[] doorRight, boolean[] doorDown) {
+        boolean[] visited = new boolean[roomCount];
+        int[] stack = new int[roomCount];
+        int[] candidates = new int[4];
+        int depth = 0;
+        stack[depth++] = 0;
+        visited[0] = true;
+        while (depth > 0) {
+            int cell = stack[depth - 1];
+            int column = cell % columns;
+            int count = 0;
+            if (column > 0 && !visited[cell - 1]) {
+                candidates[count++] = cell - 1;
+            }
+            if (column + 1 < columns && cell + 1 < roomCount && !visited[cell + 1]) {
+                candidates[count++] = cell + 1;
+            }
+            if (cell >= columns && !visited[cell - columns]) {
+                candidates[count++] = cell - columns;
+            }
+            if (cell + columns < roomCount && !visited[cell + columns]) {
+                candidates[count++] = cell + columns;
+            }
+            if (count == 0) {
+                depth--;
+                continue;
+            }
+
+            int next = candidates[random.nextInt(count)];
+            if (next == cell - 1) {
+                doorRight[next] = true;
+            } else if (next == cell + 1) {
+                doorRight[cell] = true;
+            } else if (next == cell - columns) {
+                doorDown[next] = true;
+            } else {
+                doorDown[cell] = true;
+            }
+            visited[next] = true;
+            stack[depth++] = next;
+        }
+    }
+
+    private Room createRoom(int x, int y, int width, int height, boolean startRoom) {
+        Guard.GuardType[] guardTypes = Guard.GuardType.values();
+        Guard.GuardType guardType = guardTypes[random.nextInt(guardTypes.length)];
+        if (startRoom) {
+            guardType = Guard.GuardType.CAT;
+        }
+
+        Room room = new Room(ROOM_NAMES[random.nextInt(ROOM_NAMES.length)], x, y, width, height,
+                FLOOR_COLORS[random.nextInt(FLOOR_COLORS.length)], guardType.getRiskLevel());
+
+        int patrolLeft = x + GUARD_MARGIN;
+        int patrolRight = x + width - GUARD_MARGIN - Guard.SIZE;
+        int patrolTop = y + GUARD_MARGIN;
+        int patrolBottom = y + height - GUARD_MARGIN - Guard.SIZE;
+        Rectangle patrol;
+        if (startRoom) {
+            patrol = new Rectangle(patrolLeft, patrolBottom, patrolRight - patrolLeft, 0);
+        } else if (random.nextBoolean()) {
+            int patrolY = patrolTop + random.nextInt(patrolBottom - patrolTop + 1);
+            patrol = new Rectangle(patrolLeft, patrolY, patrolRight - patrolLeft, 0);
+        } else {
+            int patrolX = patrolLeft + random.nextInt(patrolRight - patrolLeft + 1);
+            patrol = new Rectangle(patrolX, patrolTop, 0, patrolBottom - patrolTop);
+        }
+        if (random.nextBoolean()) {
+            room.setGuard(new Guard(guardType, patrol.x, patrol.y, patrol.x + patrol.width, patrol.y + patrol.height));
+        } else {
+            room.setGuard(new Guard(guardType, patrol.x + patrol.width, patrol.y + patrol.height, patrol.x, patrol.y));
+        }
+
+        List<Rectangle> reserved = new ArrayList<>();
+        reserved.add(new Rectangle(patrol.x, patrol.y, patrol.width + Guard.SIZE, patrol.height + Guard.SIZE));
+        if (startRoom) {
+            reserved.add(new Rectangle(x, y, GUARD_MARGIN + Player.SIZE + CLEARANCE,
+                    GUARD_MARGIN + Player.SIZE + CLEARANCE));
+        }
+
+        int cucumberX = x + CLEARANCE + random.nextInt(width - 2 * CLEARANCE - Room.Cucumber.WIDTH + 1);
+        int cucumberY = y + CLEARANCE + random.nextInt(height - 2 * CLEARANCE - Room.Cucumber.HEIGHT + 1);
+        room.setCucumber(new Room.Cucumber(cucumberX, cucumberY));
+        reserved.add(new Rectangle(cucumberX - CLEARANCE, cucumberY - CLEARANCE,
+                Room.Cucumber.WIDTH + 2 * CLEARANCE, Room.Cucumber.HEIGHT + 2 * CLEARANCE));
+
+        Obstacle.ObstacleType[] obstacleTypes = Obstacle.ObstacleType.values();
+        int furniture = random.nextInt(MAX_FURNITURE + 1);
+        for (int i = 0; i < furniture; i++) {
+            Obstacle.ObstacleType type = obstacleTypes[random.nextInt(obstacleTypes.length)];
+            int freeWidth = width - 2 * CLEARANCE - type.getDefaultWidth();
+            int freeHeight = height - 2 * CLEARANCE - type.getDefaultHeight();
+            if (freeWidth < 0 || freeHeight < 0) {
+                continue;
+            }
+            for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS; attempt++) {
+                int obstacleX = x + CLEARANCE + random.nextInt(freeWidth + 1);
+                int obstacleY = y + CLEARANCE + random.nextInt(freeHeight + 1);
+                if (isFree(reserved, obstacleX, obstacleY, type.getDefaultWidth(), type.getDefaultHeight())) {
+                    room.addObstacle(new Obstacle(type, obstacleX, obstacleY));
+                    reserved.add(new Rectangle(obstacleX - CLEARANCE, obstacleY - CLEARANCE,
+                            type.getDefaultWidth() + 2 * CLEARANCE, type.getDefaultHeight() + 2 * CLEARANCE));
+                    break;
+                }
+            }
+        }
+
+        PowerUp.PowerUpType[] powerUpTypes = PowerUp.PowerUpType.values();
+        for (int attempt = 0; attempt < PLACEMENT_ATTEMPTS; attempt++) {
+            int powerUpX = x + CLEARANCE + random.nextInt(width - 2 * CLEARANCE - PowerUp.SIZE + 1);
+            int powerUpY = y + CLEARANCE + random.nextInt(height - 2 * CLEARANCE - PowerUp.SIZE + 1);
+            if (isClearOfObstacles(room, powerUpX, powerUpY)) {
+                room.setPowerUp(new PowerUp(powerUpTypes[random.nextInt(powerUpTypes.length)], powerUpX, powerUpY));
+                break;
+            }
+        }
+        return room;
+    }
+
+    private static boolean isFree(List<Rectangle> reserved, int x, int y, int width, int height) {
+        for (int i = 0; i < reserved.size(); i++) {
+            Rectangle area = reserved.get(i);
+            if (Aabb.intersects(area.x, area.y, area.width, area.height, x, y, width, height)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isClearOfObstacles(Room room, int x, int y) {
+        for (Obstacle obstacle : room.getObstacles()) {
+            if (obstacle.intersects(x, y, PowerUp.SIZE, PowerUp.SIZE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
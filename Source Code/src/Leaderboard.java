@@ -0,0 +1,88 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class Leaderboard {
+    private final int capacity;
+    private final String difficulty;
+    private final List<DatabaseManager.HighScoreEntry> entries;
+    private volatile String[] lines;
+
+    public Leaderboard(int capacity, String difficulty) {
+        this.capacity = capacity;
+        this.difficulty = difficulty;
+        this.entries = new ArrayList<>();
+        this.lines = new String[] { "Loading scores..." };
+    }
+
+    public synchronized void load(DatabaseManager databaseManager) {
+        entries.clear();
+
+        List<DatabaseManager.HighScoreEntry> loaded = databaseManager.getHighScoreEntries(difficulty, capacity);
+        if (loaded == null) {
+            lines = new String[] { databaseManager.isConnected() ? "Error loading scores" : "Database not connected" };
+            return;
+        }
+
+        entries.addAll(loaded);
+        rebuildLines();
+    }
+
+    public synchronized void addScore(DatabaseManager.HighScoreEntry entry) {
+        if (difficulty != null && !difficulty.equals(entry.getDifficulty())) {
+            return;
+        }
+
+        int index = 0;
+        while (index < entries.size() && entries.get(index).getCompletionTimeMs() <= entry.getCompletionTimeMs()) {
+            index++;
+        }
+
+        if (index >= capacity) {
+            return;
+        }
+
+        entries.add(index, entry);
+        while (entries.size() > capacity) {
+            entries.remove(entries.size() - 1);
+        }
+        rebuildLines();
+    }
+
+    public String[] getLines() {
+        return lines;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized List<DatabaseManager.HighScoreEntry> getEntries() {
+        return new ArrayList<>(entries);
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public String getDifficulty() {
+        return difficulty;
+    }
+
+    private void rebuildLines() {
+        lines = formatLines(entries, 1);
+    }
+
+    static String[] formatLines(List<DatabaseManager.HighScoreEntry> entries, int firstRank) {
+        if (entries.isEmpty()) {
+            return new String[] { "No high scores yet!" };
+        }
+
+        String[] formatted = new String[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            DatabaseManager.HighScoreEntry entry = entries.get(i);
+            formatted[i] = String.format("%d. %s - %s [%s]", firstRank + i, entry.getPlayerName(),
+                    DatabaseManager.formatTime(entry.getCompletionTimeMs()), entry.getDifficulty());
+        }
+        return formatted;
+    }
+}
@@ -0,0 +1,570 @@
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+public class Level {
+    public static final String TEXT_EXTENSION = ".level";
+    public static final String BINARY_EXTENSION = ".lvl";
+    private static final int MAGIC = 0x484D434C;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 52;
+    private static final int ROOM_BYTES = 64;
+    private static final int OBSTACLE_BYTES = 20;
+    private static final int DOOR_BYTES = 16;
+    private static final int NONE = -1;
+    private static final int HAS_CUCUMBER = 1;
+
+    private final int startX;
+    private final int startY;
+    private Rectangle bounds;
+    private int walkabilityResolution = WalkabilityMap.DEFAULT_RESOLUTION;
+    private final List<Room> rooms;
+    private final List<Rectangle> doors;
+
+    public Level(int startX, int startY) {
+        this(startX, startY, new ArrayList<>(), new ArrayList<>());
+    }
+
+    public Level(int startX, int startY, List<Room> rooms, List<Rectangle> doors) {
+        this.startX = startX;
+        this.startY = startY;
+        this.rooms = rooms;
+        this.doors = doors;
+    }
+
+    public void addRoom(Room room) {
+        rooms.add(room);
+    }
+
+    public void addDoor(Rectangle door) {
+        doors.add(door);
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+
+    public Rectangle getBounds() {
+        if (bounds != null) {
+            return bounds;
+        }
+        Rectangle union = new Rectangle();
+        for (Room room : rooms) {
+            if (union.isEmpty()) {
+                union.setBounds(room.getX(), room.getY(), room.getWidth(), room.getHeight());
+            } else {
+                union.add(new Rectangle(room.getX(), room.getY(), room.getWidth(), room.getHeight()));
+            }
+        }
+        return union;
+    }
+
+    public void setBounds(Rectangle bounds) {
+        this.bounds = bounds;
+    }
+
+    public int getWalkabilityResolution() {
+        return walkabilityResolution;
+    }
+
+    public void setWalkabilityResolution(int resolution) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        this.walkabilityResolution = resolution;
+    }
+
+    public List<Room> getRooms() {
+        return rooms;
+    }
+
+    public List<Rectangle> getDoors() {
+        return doors;
+    }
+
+    public int getObstacleCount() {
+        int count = 0;
+        for (Room room : rooms) {
+            count += room.getObstacles().size();
+        }
+        return count;
+    }
+
+    public static Level read(Path path, Random random) throws IOException {
+        if (path.toString().endsWith(TEXT_EXTENSION)) {
+            return readText(path, random);
+        }
+        return readBinary(path);
+    }
+
+    public static Level readText(Path path, Random random) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return readText(in, random);
+        }
+    }
+
+    public static Level readText(Reader reader, Random random) throws IOException {
+        BufferedReader in = new BufferedReader(reader);
+        Level level = null;
+        Room room = null;
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            String[] fields = line.split("\\s+", 8);
+            try {
+                String keyword = fields[0];
+                if (keyword.equals("start")) {
+                    expect(fields, 3, lineNumber);
+                    if (level != null) {
+                        throw new IOException("Line " + lineNumber + ": start must come first");
+                    }
+                    level = new Level(integer(fields[1]), integer(fields[2]));
+                    continue;
+                }
+                if (keyword.equals("bounds")) {
+                    expect(fields, 5, lineNumber);
+                    if (level == null || !level.getRooms().isEmpty()) {
+                        throw new IOException("Line " + lineNumber + ": bounds must follow start");
+                    }
+                    level.setBounds(new Rectangle(integer(fields[1]), integer(fields[2]),
+                            integer(fields[3]), integer(fields[4])));
+                    continue;
+                }
+                if (level == null) {
+                    level = new Level((int) GameSimulation.START_X, (int) GameSimulation.START_Y);
+                }
+
+                switch (keyword) {
+                    case "room":
+                        expect(fields, 8, lineNumber);
+                        room = new Room(fields[7], integer(fields[1]), integer(fields[2]),
+                                integer(fields[3]), integer(fields[4]), color(fields[5]),
+                                Guard.RiskLevel.valueOf(fields[6]));
+                        level.addRoom(room);
+                        break;
+                    case "door":
+                        expect(fields, 5, lineNumber);
+                        level.addDoor(new Rectangle(integer(fields[1]), integer(fields[2]),
+                                integer(fields[3]), integer(fields[4])));
+                        break;
+                    case "guard":
+                        expect(fields, 6, lineNumber);
+                        requireRoom(room, keyword, lineNumber).setGuard(new Guard(Guard.GuardType.valueOf(fields[1]),
+                                integer(fields[2]), integer(fields[3]), integer(fields[4]), integer(fields[5])));
+                        break;
+                    case "cucumber":
+                        expect(fields, 3, lineNumber);
+                        requireRoom(room, keyword, lineNumber)
+                                .setCucumber(new Room.Cucumber(integer(fields[1]), integer(fields[2])));
+                        break;
+                    case "obstacle":
+                        if (fields.length != 4 && fields.length != 6) {
+                            throw new IOException("Line " + lineNumber + ": expected obstacle TYPE x y [width height]");
+                        }
+                        Obstacle.ObstacleType type = Obstacle.ObstacleType.valueOf(fields[1]);
+                        requireRoom(room, keyword, lineNumber).addObstacle(fields.length == 4
+                                ? new Obstacle(type, integer(fields[2]), integer(fields[3]))
+                                : new Obstacle(type, integer(fields[2]), integer(fields[3]),
+                                        integer(fields[4]), integer(fields[5])));
+                        break;
+                    case "powerup":
+                        expect(fields, 4, lineNumber);
+                        PowerUp.PowerUpType[] types = PowerUp.PowerUpType.values();
+                        PowerUp.PowerUpType powerUpType = fields[1].equals("RANDOM")
+                                ? types[random.nextInt(types.length)]
+                                : PowerUp.PowerUpType.valueOf(fields[1]);
+                        requireRoom(room, keyword, lineNumber)
+                                .setPowerUp(new PowerUp(powerUpType, integer(fields[2]), integer(fields[3])));
+                        break;
+                    default:
+                        throw new IOException("Line " + lineNumber + ": unknown entry '" + keyword + "'");
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+        if (level == null) {
+            throw new IOException("Level file is empty");
+        }
+        return level;
+    }
+
+    private static void expect(String[] fields, int count, int lineNumber) throws IOException {
+        if (fields.length != count) {
+            throw new IOException("Line " + lineNumber + ": expected " + (count - 1) + " values after "
+                    + fields[0] + " but found " + (fields.length - 1));
+        }
+    }
+
+    private static Room requireRoom(Room room, String keyword, int lineNumber) throws IOException {
+        if (room == null) {
+            throw new IOException("Line " + lineNumber + ": " + keyword + " must follow a room");
+        }
+        return room;
+    }
+
+    private static int integer(String value) {
+        return Integer.parseInt(value);
+    }
+
+    private static Color color(String value) {
+        if (!value.startsWith("#") || value.length() != 7) {
+            throw new IllegalArgumentException("Expected a #rrggbb colour but found " + value);
+        }
+        return new Color(Integer.parseInt(value.substring(1), 16));
+    }
+
+    public void writeText(Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeText(out);
+        }
+    }
+
+    public void writeText(Writer writer) throws IOException {
+        PrintWriter out = new PrintWriter(new BufferedWriter(writer));
+        out.println("# Hide My Cucumber level");
+        out.println("start " + startX + " " + startY);
+        if (bounds != null) {
+            out.println("bounds " + bounds.x + " " + bounds.y + " " + bounds.width + " " + bounds.height);
+        }
+        for (Room room : rooms) {
+            out.println();
+            out.println(String.format(Locale.ROOT, "room %d %d %d %d #%06X %s %s",
+                    room.getX(), room.getY(), room.getWidth(), room.getHeight(),
+                    room.getFloorColor().getRGB() & 0xFFFFFF, room.getRiskLevel(), room.getName()));
+            Guard guard = room.getGuard();
+            if (guard != null) {
+                out.println("guard " + guard.getType() + " " + (int) guard.getPatrolStartX() + " "
+                        + (int) guard.getPatrolStartY() + " " + (int) guard.getPatrolEndX() + " "
+                        + (int) guard.getPatrolEndY());
+            }
+            if (room.getCucumber() != null) {
+                out.println("cucumber " + (int) room.getCucumber().getX() + " " + (int) room.getCucumber().getY());
+            }
+            for (Obstacle obstacle : room.getObstacles()) {
+                Obstacle.ObstacleType type = obstacle.getType();
+                out.print("obstacle " + type + " " + obstacle.getX() + " " + obstacle.getY());
+                if (obstacle.getWidth() != type.getDefaultWidth() || obstacle.getHeight() != type.getDefaultHeight()) {
+                    out.print(" " + obstacle.getWidth() + " " + obstacle.getHeight());
+                }
+                out.println();
+            }
+            PowerUp powerUp = room.getPowerUp();
+            if (powerUp != null) {
+                out.println("powerup " + powerUp.getType() + " " + (int) powerUp.getX() + " " + (int) powerUp.getY());
+            }
+        }
+        out.println();
+        for (Rectangle door : doors) {
+            out.println("door " + door.x + " " + door.y + " " + door.width + " " + door.height);
+        }
+        out.flush();
+        if (out.checkError()) {
+            throw new IOException("Failed to write level");
+        }
+    }
+
+    public void writeBinary(Path path) throws IOException {
+        Map<String, Integer> names = new LinkedHashMap<>();
+        int stringBytes = 0;
+        for (Room room : rooms) {
+            if (!names.containsKey(room.getName())) {
+                names.put(room.getName(), stringBytes);
+                stringBytes += room.getName().getBytes(StandardCharsets.UTF_8).length;
+            }
+        }
+
+        int obstacleCount = getObstacleCount();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + rooms.size() * ROOM_BYTES
+                + obstacleCount * OBSTACLE_BYTES + doors.size() * DOOR_BYTES + stringBytes);
+        Rectangle movementBounds = getBounds();
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(startX).putInt(startY)
+                .putInt(rooms.size()).putInt(obstacleCount).putInt(doors.size()).putInt(stringBytes).putInt(0)
+                .putInt(movementBounds.x).putInt(movementBounds.y)
+                .putInt(movementBounds.width).putInt(movementBounds.height);
+
+        for (Room room : rooms) {
+            Guard guard = room.getGuard();
+            Room.Cucumber cucumber = room.getCucumber();
+            PowerUp powerUp = room.getPowerUp();
+            buffer.putInt(room.getX()).putInt(room.getY()).putInt(room.getWidth()).putInt(room.getHeight());
+            buffer.putInt(room.getFloorColor().getRGB() & 0xFFFFFF);
+            buffer.put((byte) room.getRiskLevel().ordinal());
+            buffer.put((byte) (guard == null ? NONE : guard.getType().ordinal()));
+            buffer.put((byte) (powerUp == null ? NONE : powerUp.getType().ordinal()));
+            buffer.put((byte) (cucumber == null ? 0 : HAS_CUCUMBER));
+            buffer.putInt(guard == null ? 0 : (int) guard.getPatrolStartX());
+            buffer.putInt(guard == null ? 0 : (int) guard.getPatrolStartY());
+            buffer.putInt(guard == null ? 0 : (int) guard.getPatrolEndX());
+            buffer.putInt(guard == null ? 0 : (int) guard.getPatrolEndY());
+            buffer.putInt(cucumber == null ? 0 : (int) cucumber.getX());
+            buffer.putInt(cucumber == null ? 0 : (int) cucumber.getY());
+            buffer.putInt(powerUp == null ? 0 : (int) powerUp.getX());
+            buffer.putInt(powerUp == null ? 0 : (int) powerUp.getY());
+            buffer.putInt(names.get(room.getName()));
+            buffer.putShort((short) room.getName().getBytes(StandardCharsets.UTF_8).length);
+            buffer.putShort((short) room.getObstacles().size());
+        }
+        for (Room room : rooms) {
+            for (Obstacle obstacle : room.getObstacles()) {
+                buffer.putInt(obstacle.getType().ordinal());
+                buffer.putInt(obstacle.getX()).putInt(obstacle.getY())
+                        .putInt(obstacle.getWidth()).putInt(obstacle.getHeight());
+            }
+        }
+        for (Rectangle door : doors) {
+            buffer.putInt(door.x).putInt(door.y).putInt(door.width).putInt(door.height);
+        }
+        for (String name : names.keySet()) {
+            buffer.put(name.getBytes(StandardCharsets.UTF_8));
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    public static Level readBinary(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a level file: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return readBinary(buffer);
+        }
+    }
+
+    private static Level readBinary(ByteBuffer buffer) throws IOException {
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a level file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported level version: " + version);
+        }
+        int startX = buffer.getInt();
+        int startY = buffer.getInt();
+        int roomCount = buffer.getInt();
+        int obstacleCount = buffer.getInt();
+        int doorCount = buffer.getInt();
+        int stringBytes = buffer.getInt();
+        buffer.getInt();
+        Rectangle bounds = new Rectangle(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt());
+        long expected = HEADER_BYTES + (long) roomCount * ROOM_BYTES + (long) obstacleCount * OBSTACLE_BYTES
+                + (long) doorCount * DOOR_BYTES + stringBytes;
+        if (roomCount < 0 || obstacleCount < 0 || doorCount < 0 || stringBytes < 0 || expected != buffer.limit()) {
+            throw new IOException("Corrupt level header");
+        }
+
+        int obstacleBase = HEADER_BYTES + roomCount * ROOM_BYTES;
+        int doorBase = obstacleBase + obstacleCount * OBSTACLE_BYTES;
+        int stringBase = doorBase + doorCount * DOOR_BYTES;
+        Guard.RiskLevel[] riskLevels = Guard.RiskLevel.values();
+        Guard.GuardType[] guardTypes = Guard.GuardType.values();
+        PowerUp.PowerUpType[] powerUpTypes = PowerUp.PowerUpType.values();
+        Obstacle.ObstacleType[] obstacleTypes = Obstacle.ObstacleType.values();
+        Map<Integer, Color> colors = new HashMap<>();
+        Map<Integer, String> names = new HashMap<>();
+        byte[] nameBytes = new byte[0];
+
+        List<Room> rooms = new ArrayList<>(roomCount);
+        int obstacleOffset = obstacleBase;
+        for (int i = 0; i < roomCount; i++) {
+            int x = buffer.getInt();
+            int y = buffer.getInt();
+            int width = buffer.getInt();
+            int height = buffer.getInt();
+            int rgb = buffer.getInt();
+            int risk = buffer.get();
+            int guardType = buffer.get();
+            int powerUpType = buffer.get();
+            int flags = buffer.get();
+            int guardStartX = buffer.getInt();
+            int guardStartY = buffer.getInt();
+            int guardEndX = buffer.getInt();
+            int guardEndY = buffer.getInt();
+            int cucumberX = buffer.getInt();
+            int cucumberY = buffer.getInt();
+            int powerUpX = buffer.getInt();
+            int powerUpY = buffer.getInt();
+            int nameOffset = buffer.getInt();
+            int nameLength = buffer.getShort() & 0xFFFF;
+            int roomObstacles = buffer.getShort() & 0xFFFF;
+
+            if (risk < 0 || risk >= riskLevels.length || guardType < NONE || guardType >= guardTypes.length
+                    || powerUpType < NONE || powerUpType >= powerUpTypes.length
+                    || nameOffset < 0 || nameOffset + nameLength > stringBytes
+                    || obstacleOffset + roomObstacles * OBSTACLE_BYTES > doorBase) {
+                throw new IOException("Corrupt level room " + i);
+            }
+
+            String name = names.get(nameOffset);
+            if (name == null) {
+                if (nameBytes.length < nameLength) {
+                    nameBytes = new byte[nameLength];
+                }
+                buffer.get(stringBase + nameOffset, nameBytes, 0, nameLength);
+                name = new String(nameBytes, 0, nameLength, StandardCharsets.UTF_8);
+                names.put(nameOffset, name);
+            }
+            Color floorColor = colors.computeIfAbsent(rgb, Color::new);
+
+            Room room = new Room(name, x, y, width, height, floorColor, riskLevels[risk]);
+            if (guardType != NONE) {
+                room.setGuard(new Guard(guardTypes[guardType], guardStartX, guardStartY, guardEndX, guardEndY));
+            }
+            if ((flags & HAS_CUCUMBER) != 0) {
+                room.setCucumber(new Room.Cucumber(cucumberX, cucumberY));
+            }
+            if (powerUpType != NONE) {
+                room.setPowerUp(new PowerUp(powerUpTypes[powerUpType], powerUpX, powerUpY));
+            }
+            for (int j = 0; j < roomObstacles; j++) {
+                int type = buffer.getInt(obstacleOffset);
+                if (type < 0 || type >= obstacleTypes.length) {
+                    throw new IOException("Corrupt level obstacle in room " + i);
+                }
+                room.addObstacle(new Obstacle(obstacleTypes[type], buffer.getInt(obstacleOffset + 4),
+                        buffer.getInt(obstacleOffset + 8), buffer.getInt(obstacleOffset + 12),
+                        buffer.getInt(obstacleOffset + 16)));
+                obstacleOffset += OBSTACLE_BYTES;
+            }
+            rooms.add(room);
+        }
+        if (obstacleOffset != doorBase) {
+            throw new IOException("Corrupt level obstacle count");
+        }
+
+        List<Rectangle> doors = new ArrayList<>(doorCount);
+        buffer.position(doorBase);
+        for (int i = 0; i < doorCount; i++) {
+            doors.add(new Rectangle(buffer.getInt(), buffer.getInt(), buffer.getInt(), buffer.getInt()));
+        }
+        Level level = new Level(startX, startY, rooms, doors);
+        level.setBounds(bounds);
+        return level;
+    }
+
+    // Guards ignore furniture and walls while they patrol, so a blocked route is only reported, not rejected.
+    private static void reportBlockedPatrols(Level level) {
+        RoomManager roomManager = new RoomManager(level);
+        int blocked = 0;
+        for (Room room : level.getRooms()) {
+            Guard guard = room.getGuard();
+            if (guard != null && !roomManager.isPathWalkable(guard.getPatrolStartX(), guard.getPatrolStartY(),
+                    guard.getPatrolEndX(), guard.getPatrolEndY(), guard.getWidth(), guard.getHeight())) {
+                System.out.printf("Warning: the %s in %s patrols through furniture or walls%n",
+                        guard.getType().getDisplayName(), room.getName());
+                blocked++;
+            }
+        }
+        System.out.printf("%d of %d guard patrols clear at walkability resolution %d%n",
+                countGuards(level) - blocked, countGuards(level), roomManager.getWalkabilityResolution());
+    }
+
+    private static int countGuards(Level level) {
+        int count = 0;
+        for (Room room : level.getRooms()) {
+            if (room.getGuard() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: Level compile <in.level> <out.lvl>");
+            System.out.println("       Level export <out.level|out.lvl>");
+            System.out.println("       Level generate <rooms> <seed> <out.level|out.lvl>");
+            System.out.println("       Level info <file> [walkability resolution]");
+            System.exit(2);
+        }
+
+        switch (args[0]) {
+            case "compile": {
+                Level level = readText(Paths.get(args[1]), new Random());
+                level.writeBinary(Paths.get(args[2]));
+                System.out.printf("Compiled %d rooms, %d obstacles, %d doors into %s (%d bytes)%n",
+                        level.getRooms().size(), level.getObstacleCount(), level.getDoors().size(),
+                        args[2], Files.size(Paths.get(args[2])));
+                break;
+            }
+            case "export": {
+                Level level = new RoomManager(new Random(0)).toLevel();
+                Path path = Paths.get(args[1]);
+                if (path.toString().endsWith(TEXT_EXTENSION)) {
+                    level.writeText(path);
+                } else {
+                    level.writeBinary(path);
+                }
+                System.out.println("Exported the built-in house to " + path);
+                break;
+            }
+            case "generate": {
+                Level level = new HouseGenerator(Long.parseLong(args[2])).generate(Integer.parseInt(args[1]));
+                Path path = Paths.get(args[3]);
+                if (path.toString().endsWith(TEXT_EXTENSION)) {
+                    level.writeText(path);
+                } else {
+                    level.writeBinary(path);
+                }
+                System.out.printf("Generated %d rooms, %d obstacles, %d doors into %s%n",
+                        level.getRooms().size(), level.getObstacleCount(), level.getDoors().size(), path);
+                break;
+            }
+            case "info": {
+                Path path = Paths.get(args[1]);
+                long start = System.nanoTime();
+                Level level = read(path, new Random());
+                long elapsedNanos = System.nanoTime() - start;
+                System.out.printf("%s: %d rooms, %d obstacles, %d doors, loaded in %.2f ms%n",
+                        path, level.getRooms().size(), level.getObstacleCount(), level.getDoors().size(),
+                        elapsedNanos / 1e6);
+                if (args.length > 2) {
+                    level.setWalkabilityResolution(Integer.parseInt(args[2]));
+                }
+                reportBlockedPatrols(level);
+                break;
+            }
+            default:
+                System.err.println("Unknown command: " + args[0]);
+                System.exit(2);
+        }
+    }
+}
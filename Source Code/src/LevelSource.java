@@ -0,0 +1,117 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+public final class LevelSource {
+    private static final int BUILT_IN = 0;
+    private static final int GENERATED = 1;
+    private static final int FILE = 2;
+
+    private final int kind;
+    private final int roomCount;
+    private final long seed;
+    private final String path;
+    private final long checksum;
+
+    private LevelSource(int kind, int roomCount, long seed, String path, long checksum) {
+        this.kind = kind;
+        this.roomCount = roomCount;
+        this.seed = seed;
+        this.path = path;
+        this.checksum = checksum;
+    }
+
+    public static LevelSource builtIn() {
+        return new LevelSource(BUILT_IN, 0, 0, "", 0);
+    }
+
+    public static LevelSource generated(int roomCount, long seed) {
+        return new LevelSource(GENERATED, roomCount, seed, "", 0);
+    }
+
+    public static LevelSource file(Path path) throws IOException {
+        return new LevelSource(FILE, 0, 0, path.toAbsolutePath().normalize().toString(), checksum(path));
+    }
+
+    private static long checksum(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+
+    public RoomManager createRoomManager() throws IOException {
+        RoomManager roomManager;
+        switch (kind) {
+            case GENERATED:
+                roomManager = new RoomManager(new HouseGenerator(seed).generate(roomCount));
+                break;
+            case FILE:
+                Path file = Paths.get(path);
+                if (checksum(file) != checksum) {
+                    throw new IOException("Level " + path + " has changed since it was recorded");
+                }
+                roomManager = new RoomManager(Level.read(file, new Random()));
+                break;
+            default:
+                roomManager = new RoomManager();
+                break;
+        }
+        roomManager.setLevelSource(this);
+        return roomManager;
+    }
+
+    public void write(DataOutputStream out) throws IOException {
+        out.writeByte(kind);
+        out.writeInt(roomCount);
+        out.writeLong(seed);
+        out.writeUTF(path);
+        out.writeLong(checksum);
+    }
+
+    public static LevelSource read(DataInputStream in) throws IOException {
+        int kind = in.readUnsignedByte();
+        if (kind != BUILT_IN && kind != GENERATED && kind != FILE) {
+            throw new IOException("Unknown level source: " + kind);
+        }
+        return new LevelSource(kind, in.readInt(), in.readLong(), in.readUTF(), in.readLong());
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof LevelSource)) {
+            return false;
+        }
+        LevelSource source = (LevelSource) other;
+        return kind == source.kind && roomCount == source.roomCount && seed == source.seed
+                && path.equals(source.path) && checksum == source.checksum;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (31 * (31 * kind + roomCount) + seed + path.hashCode() + checksum);
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case GENERATED:
+                return String.format("generated house (%d rooms, seed %d)", roomCount, seed);
+            case FILE:
+                return String.format("%s (crc %08x)", path, checksum);
+            default:
+                return "built-in house";
+        }
+    }
+}
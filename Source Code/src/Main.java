@@ -1,12 +1,61 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
 import javax.swing.SwingUtilities;
 
 public class Main {
+    private static final int STREAMING_ROOM_THRESHOLD = 1000;
+
     public static void main(String[] args) {
+        StartupTimer.mark("main");
+        DatabaseManager.start();
+        final RoomManager roomManager = loadRoomManager(args);
+        if (roomManager.getRooms().size() >= STREAMING_ROOM_THRESHOLD) {
+            enableStreaming(roomManager);
+        }
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                new GameWindow();
+                new GameWindow(roomManager);
             }
         });
     }
+
+    private static void enableStreaming(final RoomManager roomManager) {
+        try {
+            roomManager.enableStreaming(Files.createTempDirectory("cucumber-world"));
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    roomManager.getStreamer().close();
+                }
+            }));
+        } catch (IOException e) {
+            System.err.println("Failed to set up world streaming, keeping the whole house resident: "
+                    + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static RoomManager loadRoomManager(String[] args) {
+        if (args.length > 0) {
+            try {
+                return levelSource(args).createRoomManager();
+            } catch (IOException e) {
+                System.err.println("Failed to load level " + args[0] + ", using the built-in house: "
+                        + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return new RoomManager();
+    }
+
+    private static LevelSource levelSource(String[] args) throws IOException {
+        if (args.length > 1 && args[0].equals("--generate")) {
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : new Random().nextLong();
+            return LevelSource.generated(Integer.parseInt(args[1]), seed);
+        }
+        return LevelSource.file(Paths.get(args[0]));
+    }
 }
@@ -178,7 +178,11 @@ public class Obstacle {
     }
 
     public boolean intersects(Rectangle rect) {
-        return getBounds().intersects(rect);
+        return intersects(rect.x, rect.y, rect.width, rect.height);
+    }
+
+    public boolean intersects(int otherX, int otherY, int otherWidth, int otherHeight) {
+        return Aabb.intersects(x, y, width, height, otherX, otherY, otherWidth, otherHeight);
     }
 
     public int getX() {
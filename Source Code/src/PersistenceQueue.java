@@ -0,0 +1,215 @@
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class PersistenceQueue {
+    public static final int DEFAULT_CAPACITY = 256;
+    private static final int MAX_BATCH = 64;
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+    private static final Pending CLOSE = new Pending(null);
+
+    public interface Write {
+        void execute(Connection connection) throws SQLException;
+
+        default String getCoalesceKey() {
+            return null;
+        }
+    }
+
+    private final Connection connection;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile long batchCount;
+    private volatile long writeCount;
+    private volatile long coalescedCount;
+
+    public PersistenceQueue(Connection connection) {
+        this(connection, DEFAULT_CAPACITY);
+    }
+
+    public PersistenceQueue(Connection connection, int capacity) {
+        this.connection = connection;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::run, "persistence-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public CompletableFuture<Boolean> submit(Write write) {
+        Pending pending = new Pending(write);
+        if (closed) {
+            System.err.println("Persistence queue is closed, dropping write");
+            pending.result.complete(false);
+        } else if (!queue.offer(pending)) {
+            System.err.println("Persistence queue is full, dropping write");
+            pending.result.complete(false);
+        }
+        return pending.result;
+    }
+
+    public void flush() {
+        if (closed || Thread.currentThread() == writer) {
+            return;
+        }
+        Pending barrier = new Pending(null);
+        try {
+            queue.put(barrier);
+            barrier.result.get(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Error waiting for pending writes: " + e.getMessage());
+        }
+    }
+
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(CLOSE);
+            writer.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<Pending> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        for (Pending pending : abandoned) {
+            pending.result.complete(false);
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch, MAX_BATCH - 1);
+            running = !batch.remove(CLOSE);
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<Pending> batch) {
+        List<Pending> writes = new ArrayList<>(batch.size());
+        Pending[] supersededBy = new Pending[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            if (pending.write != null) {
+                supersededBy[i] = supersedingWrite(batch, i);
+                if (supersededBy[i] == null) {
+                    writes.add(pending);
+                }
+            }
+        }
+
+        if (!writes.isEmpty()) {
+            execute(writes);
+            batchCount++;
+            writeCount += writes.size();
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            if (supersededBy[i] != null) {
+                coalescedCount++;
+                pending.result.complete(supersededBy[i].saved);
+            } else {
+                pending.result.complete(pending.write == null || pending.saved);
+            }
+        }
+    }
+
+    private static Pending supersedingWrite(List<Pending> batch, int index) {
+        String key = batch.get(index).write.getCoalesceKey();
+        if (key == null) {
+            return null;
+        }
+        Pending latest = null;
+        for (int i = index + 1; i < batch.size(); i++) {
+            Write later = batch.get(i).write;
+            if (later != null && key.equals(later.getCoalesceKey())) {
+                latest = batch.get(i);
+            }
+        }
+        return latest;
+    }
+
+    // Writes the whole batch in one transaction; if any write fails, the batch is rolled back and every write
+    // is retried in a transaction of its own, so only the writes that fail again report false.
+    private void execute(List<Pending> writes) {
+        if (writes.size() > 1 && executeTransaction(writes, false)) {
+            for (Pending pending : writes) {
+                pending.saved = true;
+            }
+            return;
+        }
+        for (Pending pending : writes) {
+            pending.saved = executeTransaction(List.of(pending), true);
+        }
+    }
+
+    private boolean executeTransaction(List<Pending> writes, boolean report) {
+        try {
+            connection.setAutoCommit(false);
+            try {
+                for (Pending pending : writes) {
+                    pending.write.execute(connection);
+                }
+                connection.commit();
+                return true;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            if (report) {
+                System.err.println("Error writing pending save: " + e.getMessage());
+                e.printStackTrace();
+            } else {
+                System.err.println("Error writing " + writes.size() + " pending saves, retrying one at a time: "
+                        + e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    private static class Pending {
+        private final Write write;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+        private boolean saved;
+
+        Pending(Write write) {
+            this.write = write;
+        }
+    }
+}
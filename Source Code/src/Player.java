@@ -2,13 +2,17 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 
 public class Player extends Entity {
+    public static final int SIZE = 30;
+    private static final SpriteCache.Painter PAINTER = (g2d, key, px, py) -> drawBody(g2d, px, py);
+
     private boolean movingUp, movingDown, movingLeft, movingRight;
 
     private int cucumbersCollected;
     private double prevX, prevY;
+    private int minX = 10, minY = 60, maxX = 750, maxY = 500;
 
     public Player(double x, double y) {
-        super(x, y, 30, 30);
+        super(x, y, SIZE, SIZE);
         this.speed = 4.0;
         this.cucumbersCollected = 0;
         this.prevX = x;
@@ -29,14 +33,21 @@ public class Player extends Entity {
         if (movingRight)
             x += speed;
 
-        if (x < 10)
-            x = 10;
-        if (y < 60)
-            y = 60;
-        if (x > 750 - width)
-            x = 750 - width;
-        if (y > 500 - height)
-            y = 500 - height;
+        if (x < minX)
+            x = minX;
+        if (y < minY)
+            y = minY;
+        if (x > maxX - width)
+            x = maxX - width;
+        if (y > maxY - height)
+            y = maxY - height;
+    }
+
+    public void setMovementBounds(int x, int y, int width, int height) {
+        this.minX = x;
+        this.minY = y;
+        this.maxX = x + width;
+        this.maxY = y + height;
     }
 
     public void restorePosition() {
@@ -46,9 +57,11 @@ public class Player extends Entity {
 
     @Override
     public void draw(Graphics2D g2d) {
-        int px = (int) x;
-        int py = (int) y;
+        SpriteCache.getInstance().draw(g2d, SpriteCache.Kind.PLAYER, (int) renderX, (int) renderY,
+                width, height, PAINTER);
+    }
 
+    static void drawBody(Graphics2D g2d, int px, int py) {
         g2d.setColor(new Color(70, 130, 180));
         g2d.fillRoundRect(px + 6, py + 22, 6, 8, 2, 2);
         g2d.fillRoundRect(px + 18, py + 22, 6, 8, 2, 2);
@@ -88,6 +101,13 @@ public class Player extends Entity {
         g2d.drawArc(px + 11, py + 8, 8, 5, 200, 140);
     }
 
+    public void applyInput(int input) {
+        this.movingUp = (input & GameSimulation.INPUT_UP) != 0;
+        this.movingDown = (input & GameSimulation.INPUT_DOWN) != 0;
+        this.movingLeft = (input & GameSimulation.INPUT_LEFT) != 0;
+        this.movingRight = (input & GameSimulation.INPUT_RIGHT) != 0;
+    }
+
     public void setMovingUp(boolean moving) {
         this.movingUp = moving;
     }
@@ -120,6 +140,7 @@ public class Player extends Entity {
         this.movingDown = false;
         this.movingLeft = false;
         this.movingRight = false;
+        syncRenderPosition();
     }
 
     public boolean isMoving() {
@@ -131,6 +152,7 @@ public class Player extends Entity {
         this.y = y;
         this.prevX = x;
         this.prevY = y;
+        syncRenderPosition();
     }
 
     public double getX() {
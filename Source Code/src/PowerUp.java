@@ -3,6 +3,10 @@ import java.awt.Graphics2D;
 import java.awt.Rectangle;
 
 public class PowerUp {
+    public static final int SIZE = 20;
+    private static final SpriteCache.Painter PAINTER =
+            (g2d, key, px, py) -> drawBody(g2d, (PowerUpType) key, px, py);
+
     private double x, y;
     private int width, height;
     private PowerUpType type;
@@ -40,8 +44,8 @@ public class PowerUp {
         this.type = type;
         this.x = x;
         this.y = y;
-        this.width = 20;
-        this.height = 20;
+        this.width = SIZE;
+        this.height = SIZE;
         this.collected = false;
     }
 
@@ -49,23 +53,24 @@ public class PowerUp {
         if (collected)
             return;
 
-        int px = (int) x;
-        int py = (int) y;
+        SpriteCache.getInstance().draw(g2d, type, (int) x, (int) y, width, height, PAINTER);
+    }
 
+    static void drawBody(Graphics2D g2d, PowerUpType type, int px, int py) {
         switch (type) {
             case SPEED_BOOST:
-                drawShoes(g2d, px, py);
+                drawShoes(g2d, type, px, py);
                 break;
             case IMMUNITY:
-                drawShield(g2d, px, py);
+                drawShield(g2d, type, px, py);
                 break;
             case FREEZE_GUARDS:
-                drawIce(g2d, px, py);
+                drawIce(g2d, type, px, py);
                 break;
         }
     }
 
-    private void drawShoes(Graphics2D g2d, int px, int py) {
+    private static void drawShoes(Graphics2D g2d, PowerUpType type, int px, int py) {
         g2d.setColor(type.getColor());
         g2d.fillRoundRect(px + 2, py + 12, 16, 8, 3, 3);
 
@@ -90,23 +95,23 @@ public class PowerUp {
         g2d.drawLine(px + 22, py + 4, px + 18, py + 8);
     }
 
-    private void drawShield(Graphics2D g2d, int px, int py) {
+    private static void drawShield(Graphics2D g2d, PowerUpType type, int px, int py) {
         g2d.setColor(type.getColor());
-        int[] xPoints = { px + width / 2, px, px, px + width / 4, px + width / 2, px + 3 * width / 4, px + width,
-                px + width };
-        int[] yPoints = { py, py + height / 4, py + height / 2, py + 3 * height / 4, py + height, py + 3 * height / 4,
-                py + height / 2, py + height / 4 };
+        int[] xPoints = { px + SIZE / 2, px, px, px + SIZE / 4, px + SIZE / 2, px + 3 * SIZE / 4, px + SIZE,
+                px + SIZE };
+        int[] yPoints = { py, py + SIZE / 4, py + SIZE / 2, py + 3 * SIZE / 4, py + SIZE, py + 3 * SIZE / 4,
+                py + SIZE / 2, py + SIZE / 4 };
         g2d.fillPolygon(xPoints, yPoints, 8);
 
         g2d.setColor(new Color(150, 200, 255));
-        g2d.fillOval(px + width / 2 - 4, py + height / 2 - 4, 8, 8);
+        g2d.fillOval(px + SIZE / 2 - 4, py + SIZE / 2 - 4, 8, 8);
 
         g2d.setColor(Color.WHITE);
-        g2d.drawLine(px + width / 2, py + height / 4, px + width / 2, py + 3 * height / 4);
-        g2d.drawLine(px + width / 4, py + height / 2, px + 3 * width / 4, py + height / 2);
+        g2d.drawLine(px + SIZE / 2, py + SIZE / 4, px + SIZE / 2, py + 3 * SIZE / 4);
+        g2d.drawLine(px + SIZE / 4, py + SIZE / 2, px + 3 * SIZE / 4, py + SIZE / 2);
     }
 
-    private void drawIce(Graphics2D g2d, int px, int py) {
+    private static void drawIce(Graphics2D g2d, PowerUpType type, int px, int py) {
         g2d.setColor(new Color(180, 220, 255));
         g2d.fillRect(px + 2, py + 5, 16, 14);
 
@@ -132,6 +137,10 @@ public class PowerUp {
         return new Rectangle((int) x, (int) y, width, height);
     }
 
+    public boolean intersects(int otherX, int otherY, int otherWidth, int otherHeight) {
+        return Aabb.intersects((int) x, (int) y, width, height, otherX, otherY, otherWidth, otherHeight);
+    }
+
     public boolean isCollected() {
         return collected;
     }
@@ -0,0 +1,253 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RankService {
+    public static final int BUCKET_MS = 10;
+    public static final int BUCKET_COUNT = 360_000;
+    private static final int SNAPSHOT_MAGIC = 0x52414E4B;
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private final Map<String, FenwickTree> trees = new LinkedHashMap<>();
+    private final List<UncoveredScore> uncoveredScores = new ArrayList<>();
+    private long coveredId;
+    private long coveredRows;
+
+    public static int bucketOf(long completionTimeMs) {
+        return (int) Math.max(0, Math.min(BUCKET_COUNT - 1, completionTimeMs / BUCKET_MS));
+    }
+
+    public synchronized void addBucket(String difficulty, long bucket, int count) {
+        tree(difficulty).add((int) Math.max(0, Math.min(BUCKET_COUNT - 1, bucket)), count);
+    }
+
+    // Other clients may insert rows with lower ids at the same time, so scores added here leave coveredId
+    // alone and are kept out of the snapshot; the next start reads them back along with everyone else's.
+    public synchronized void addScore(String difficulty, long completionTimeMs) {
+        int bucket = bucketOf(completionTimeMs);
+        tree(difficulty).add(bucket, 1);
+        uncoveredScores.add(new UncoveredScore(difficulty, bucket));
+    }
+
+    // The covered row count fingerprints the table alongside the id, so a snapshot taken before rows were
+    // deleted or the table was recreated is rebuilt rather than trusted.
+    public synchronized void setCovered(long id, long rows) {
+        coveredId = id;
+        coveredRows = rows;
+    }
+
+    public synchronized long getCoveredId() {
+        return coveredId;
+    }
+
+    public synchronized long getCoveredRows() {
+        return coveredRows;
+    }
+
+    public synchronized void clear() {
+        trees.clear();
+        uncoveredScores.clear();
+        coveredId = 0;
+        coveredRows = 0;
+    }
+
+    public synchronized Placement place(String difficulty, long completionTimeMs) {
+        FenwickTree tree = trees.get(difficulty);
+        if (tree == null) {
+            return new Placement(difficulty, 1, 1);
+        }
+        int bucket = bucketOf(completionTimeMs);
+        long faster = bucket == 0 ? 0 : tree.prefixSum(bucket - 1);
+        return new Placement(difficulty, faster + 1, tree.total() + 1);
+    }
+
+    public synchronized long getTotal(String difficulty) {
+        FenwickTree tree = trees.get(difficulty);
+        return tree != null ? tree.total() : 0;
+    }
+
+    private FenwickTree tree(String difficulty) {
+        return trees.computeIfAbsent(difficulty, name -> new FenwickTree(BUCKET_COUNT));
+    }
+
+    public synchronized boolean readSnapshot(Path path) {
+        clear();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION
+                    || in.readInt() != BUCKET_MS || in.readInt() != BUCKET_COUNT) {
+                System.err.println("Ignoring incompatible rank snapshot " + path);
+                return false;
+            }
+            long id = in.readLong();
+            long rows = in.readLong();
+            int difficulties = in.readInt();
+            for (int i = 0; i < difficulties; i++) {
+                String difficulty = in.readUTF();
+                int[] counts = new int[BUCKET_COUNT];
+                int buckets = in.readInt();
+                for (int j = 0; j < buckets; j++) {
+                    int bucket = in.readInt();
+                    counts[bucket] = in.readInt();
+                }
+                trees.put(difficulty, FenwickTree.fromCounts(counts));
+            }
+            coveredId = id;
+            coveredRows = rows;
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reading rank snapshot: " + e.getMessage());
+            clear();
+            return false;
+        }
+    }
+
+    public synchronized void writeSnapshot(Path path) {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(BUCKET_MS);
+                out.writeInt(BUCKET_COUNT);
+                out.writeLong(coveredId);
+                out.writeLong(coveredRows);
+                out.writeInt(trees.size());
+                for (Map.Entry<String, FenwickTree> entry : trees.entrySet()) {
+                    int[] counts = entry.getValue().toCounts();
+                    for (UncoveredScore score : uncoveredScores) {
+                        if (score.difficulty.equals(entry.getKey())) {
+                            counts[score.bucket]--;
+                        }
+                    }
+                    int buckets = 0;
+                    for (int count : counts) {
+                        if (count != 0) {
+                            buckets++;
+                        }
+                    }
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(buckets);
+                    for (int bucket = 0; bucket < counts.length; bucket++) {
+                        if (counts[bucket] != 0) {
+                            out.writeInt(bucket);
+                            out.writeInt(counts[bucket]);
+                        }
+                    }
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Error writing rank snapshot: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static class UncoveredScore {
+        private final String difficulty;
+        private final int bucket;
+
+        UncoveredScore(String difficulty, int bucket) {
+            this.difficulty = difficulty;
+            this.bucket = bucket;
+        }
+    }
+
+    public static class Placement {
+        private final String difficulty;
+        private final long rank;
+        private final long total;
+
+        Placement(String difficulty, long rank, long total) {
+            this.difficulty = difficulty;
+            this.rank = rank;
+            this.total = total;
+        }
+
+        public String getDifficulty() {
+            return difficulty;
+        }
+
+        public long getRank() {
+            return rank;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public double getTopPercent() {
+            return 100.0 * rank / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("#%,d of %,d on %s (top %.1f%%)", rank, total, difficulty,
+                    Math.max(0.1, getTopPercent()));
+        }
+    }
+
+    static class FenwickTree {
+        private final int[] tree;
+        private long total;
+
+        FenwickTree(int size) {
+            tree = new int[size + 1];
+        }
+
+        static FenwickTree fromCounts(int[] counts) {
+            FenwickTree fenwick = new FenwickTree(counts.length);
+            int[] tree = fenwick.tree;
+            for (int i = 1; i < tree.length; i++) {
+                tree[i] += counts[i - 1];
+                fenwick.total += counts[i - 1];
+                int parent = i + (i & -i);
+                if (parent < tree.length) {
+                    tree[parent] += tree[i];
+                }
+            }
+            return fenwick;
+        }
+
+        void add(int index, int delta) {
+            total += delta;
+            for (int i = index + 1; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        long prefixSum(int index) {
+            long sum = 0;
+            for (int i = index + 1; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        long total() {
+            return total;
+        }
+
+        int[] toCounts() {
+            int[] counts = new int[tree.length - 1];
+            long previous = 0;
+            for (int i = 0; i < counts.length; i++) {
+                long sum = prefixSum(i);
+                counts[i] = (int) (sum - previous);
+                previous = sum;
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+public class Replay {
+    public static final String DEFAULT_FILE = "last_run.replay";
+    private static final int MAGIC = 0x484D4352;
+    private static final int VERSION = 3;
+    private static final int MOVEMENT_MASK = 0x0F;
+    private static final int DIFFICULTY_SHIFT = 4;
+
+    private final long seed;
+    private final LevelSource level;
+    private byte[] inputs;
+    private int length;
+
+    public Replay(long seed, LevelSource level) {
+        this.seed = seed;
+        this.level = level;
+        this.inputs = new byte[1024];
+        this.length = 0;
+    }
+
+    public void record(int input, int difficulty) {
+        if (length == inputs.length) {
+            inputs = Arrays.copyOf(inputs, length * 2);
+        }
+        inputs[length++] = (byte) ((input & MOVEMENT_MASK) | (difficulty << DIFFICULTY_SHIFT));
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public LevelSource getLevel() {
+        return level;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getInput(int tick) {
+        return inputs[tick] & MOVEMENT_MASK;
+    }
+
+    public int getDifficulty(int tick) {
+        return (inputs[tick] & 0xFF) >>> DIFFICULTY_SHIFT;
+    }
+
+    public void start(GameSimulation simulation) {
+        if (length > 0) {
+            simulation.setDifficulty(getDifficulty(0));
+        }
+        simulation.newGame(seed);
+    }
+
+    public void apply(GameSimulation simulation, int tick) {
+        simulation.setDifficulty(getDifficulty(tick));
+        simulation.step(getInput(tick));
+    }
+
+    public GameSimulation seek(int tick) throws IOException {
+        GameSimulation simulation = new GameSimulation(level.createRoomManager());
+        start(simulation);
+        playRange(simulation, 0, Math.min(tick, length));
+        return simulation;
+    }
+
+    public GameSimulation playToEnd() throws IOException {
+        return seek(length);
+    }
+
+    public void playRange(GameSimulation simulation, int fromTick, int toTick) {
+        for (int tick = fromTick; tick < toTick; tick++) {
+            apply(simulation, tick);
+        }
+    }
+
+    public void write(Path path) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(path))) {
+            write(out);
+        }
+    }
+
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(seed);
+        level.write(out);
+        out.writeInt(length);
+
+        int tick = 0;
+        while (tick < length) {
+            byte value = inputs[tick];
+            int run = 1;
+            while (tick + run < length && inputs[tick + run] == value) {
+                run++;
+            }
+            out.writeByte(value);
+            writeVarInt(out, run);
+            tick += run;
+        }
+        out.flush();
+    }
+
+    public static Replay read(Path path) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+            return read(in);
+        }
+    }
+
+    public static Replay read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version: " + version);
+        }
+
+        long seed = in.readLong();
+        Replay replay = new Replay(seed, LevelSource.read(in));
+        int length = in.readInt();
+        if (length < 0) {
+            throw new IOException("Corrupt replay length: " + length);
+        }
+        replay.inputs = new byte[Math.max(1, length)];
+
+        while (replay.length < length) {
+            byte value = in.readByte();
+            int run = readVarInt(in);
+            if (run <= 0 || replay.length + run > length) {
+                throw new IOException("Corrupt replay run at tick " + replay.length);
+            }
+            Arrays.fill(replay.inputs, replay.length, replay.length + run, value);
+            replay.length += run;
+        }
+        return replay;
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            if (shift > 28) {
+                throw new IOException("Corrupt replay run length");
+            }
+            b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path path = Paths.get(args.length > 0 ? args[0] : DEFAULT_FILE);
+        Replay replay = read(path);
+        int target = args.length > 1 ? Integer.parseInt(args[1]) : replay.getLength();
+
+        long start = System.nanoTime();
+        GameSimulation first = replay.seek(target);
+        long elapsedNanos = System.nanoTime() - start;
+        GameSimulation second = replay.seek(target);
+
+        GameState state = first.getGameState();
+        System.out.printf("Replay %s: %d ticks (%s of play), seed %d, %s, %d bytes on disk%n",
+                path, replay.getLength(),
+                DatabaseManager.formatTime((long) replay.getLength() * 1000 / GameLoop.TICKS_PER_SECOND),
+                replay.getSeed(), replay.getLevel(), Files.size(path));
+        System.out.printf("At tick %d: %s, cucumbers %d/%d, player (%.1f, %.1f) %s%n",
+                target, state.getCurrentState(), state.getCucumbersCollected(), state.getTotalCucumbers(),
+                first.getPlayer().getX(), first.getPlayer().getY(), state.getGameOverMessage());
+        System.out.printf("Simulated in %.2f ms, state hash %016x (%s)%n",
+                elapsedNanos / 1e6, first.stateHash(),
+                first.stateHash() == second.stateHash() ? "deterministic" : "MISMATCH");
+    }
+}
@@ -6,6 +6,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 public class Room {
+    private static final Font NAME_FONT = new Font("Arial", Font.BOLD, 12);
+    private static final Color WALL_COLOR = new Color(100, 100, 100);
+    private static final Color HIGH_RISK_COLOR = new Color(255, 100, 100);
+    private static final Color MEDIUM_RISK_COLOR = new Color(255, 200, 100);
+    private static final Color LOW_RISK_COLOR = new Color(100, 255, 100);
+
     private String name;
     private int x, y, width, height;
     private Color floorColor;
@@ -14,7 +20,9 @@ public class Room {
     private Guard guard;
     private Cucumber cucumber;
     private List<Obstacle> obstacles;
+    private List<Room> neighbours;
     private PowerUp powerUp;
+    private final Rectangle clipBounds;
 
     public Room(String name, int x, int y, int width, int height,
             Color floorColor, Guard.RiskLevel riskLevel) {
@@ -24,12 +32,19 @@ public class Room {
         this.width = width;
         this.height = height;
         this.floorColor = floorColor;
-        this.wallColor = new Color(100, 100, 100);
+        this.wallColor = WALL_COLOR;
         this.riskLevel = riskLevel;
         this.obstacles = new ArrayList<>();
+        this.neighbours = new ArrayList<>();
+        this.clipBounds = new Rectangle(x, y, width, height);
     }
 
     public void draw(Graphics2D g2d) {
+        drawStatic(g2d);
+        drawDynamic(g2d);
+    }
+
+    public void drawStatic(Graphics2D g2d) {
         g2d.setColor(floorColor);
         g2d.fillRect(x, y, width, height);
 
@@ -38,19 +53,19 @@ public class Room {
         g2d.drawRect(x + 1, y + 1, width - 2, height - 2);
 
         g2d.setColor(Color.WHITE);
-        g2d.setFont(new Font("Arial", Font.BOLD, 12));
+        g2d.setFont(NAME_FONT);
         g2d.drawString(name, x + 5, y + 18);
 
         Color riskColor;
         switch (riskLevel) {
             case HIGH:
-                riskColor = new Color(255, 100, 100);
+                riskColor = HIGH_RISK_COLOR;
                 break;
             case MEDIUM:
-                riskColor = new Color(255, 200, 100);
+                riskColor = MEDIUM_RISK_COLOR;
                 break;
             default:
-                riskColor = new Color(100, 255, 100);
+                riskColor = LOW_RISK_COLOR;
                 break;
         }
         g2d.setColor(riskColor);
@@ -58,6 +73,12 @@ public class Room {
         g2d.setColor(Color.BLACK);
         g2d.drawOval(x + width - 20, y + 5, 12, 12);
 
+        for (Obstacle obstacle : obstacles) {
+            obstacle.draw(g2d);
+        }
+    }
+
+    public void drawDynamic(Graphics2D g2d) {
         if (cucumber != null) {
             cucumber.draw(g2d);
         }
@@ -66,12 +87,8 @@ public class Room {
             powerUp.draw(g2d);
         }
 
-        for (Obstacle obstacle : obstacles) {
-            obstacle.draw(g2d);
-        }
-
         if (guard != null) {
-            guard.draw(g2d, new Rectangle(x, y, width, height));
+            guard.draw(g2d, clipBounds);
         }
     }
 
@@ -85,6 +102,10 @@ public class Room {
         return new Rectangle(x, y, width, height);
     }
 
+    public boolean contains(int otherX, int otherY, int otherWidth, int otherHeight) {
+        return Aabb.contains(x, y, width, height, otherX, otherY, otherWidth, otherHeight);
+    }
+
     public boolean containsPoint(double px, double py) {
         return px >= x && px <= x + width && py >= y && py <= y + height;
     }
@@ -109,6 +130,10 @@ public class Room {
         return height;
     }
 
+    public Color getFloorColor() {
+        return floorColor;
+    }
+
     public Guard.RiskLevel getRiskLevel() {
         return riskLevel;
     }
@@ -137,6 +162,20 @@ public class Room {
         return obstacles;
     }
 
+    public void addNeighbour(Room room) {
+        if (room != this && !neighbours.contains(room)) {
+            neighbours.add(room);
+        }
+    }
+
+    public boolean removeNeighbour(Room room) {
+        return neighbours.remove(room);
+    }
+
+    public List<Room> getNeighbours() {
+        return neighbours;
+    }
+
     public PowerUp getPowerUp() {
         return powerUp;
     }
@@ -150,45 +189,59 @@ public class Room {
     }
 
     public static class Cucumber {
+        public static final int WIDTH = 25;
+        public static final int HEIGHT = 12;
+        private static final Color COLOR = new Color(50, 205, 50);
+        private static final Color STRIPE_COLOR = new Color(34, 139, 34);
+        private static final Color OUTLINE_COLOR = new Color(0, 100, 0);
+        private static final SpriteCache.Painter PAINTER = (g2d, key, px, py) -> drawBody(g2d, px, py);
+
         private double x;
         private double y;
         private int width;
         private int height;
         private boolean collected;
-        private Color color;
 
         public Cucumber(double x, double y) {
             this.x = x;
             this.y = y;
-            this.width = 25;
-            this.height = 12;
+            this.width = WIDTH;
+            this.height = HEIGHT;
             this.collected = false;
-            this.color = new Color(50, 205, 50);
         }
 
         public void draw(Graphics2D g2d) {
             if (collected)
                 return;
 
-            g2d.setColor(color);
-            g2d.fillOval((int) x, (int) y, width, height);
+            SpriteCache.getInstance().draw(g2d, SpriteCache.Kind.CUCUMBER, (int) x, (int) y,
+                    width, height, PAINTER);
+        }
 
-            g2d.setColor(new Color(34, 139, 34));
-            g2d.drawLine((int) x + 5, (int) y + 2, (int) x + 5, (int) y + 10);
-            g2d.drawLine((int) x + 12, (int) y + 2, (int) x + 12, (int) y + 10);
-            g2d.drawLine((int) x + 19, (int) y + 2, (int) x + 19, (int) y + 10);
+        static void drawBody(Graphics2D g2d, int px, int py) {
+            g2d.setColor(COLOR);
+            g2d.fillOval(px, py, WIDTH, HEIGHT);
 
-            g2d.setColor(new Color(0, 100, 0));
-            g2d.drawOval((int) x, (int) y, width, height);
+            g2d.setColor(STRIPE_COLOR);
+            g2d.drawLine(px + 5, py + 2, px + 5, py + 10);
+            g2d.drawLine(px + 12, py + 2, px + 12, py + 10);
+            g2d.drawLine(px + 19, py + 2, px + 19, py + 10);
+
+            g2d.setColor(OUTLINE_COLOR);
+            g2d.drawOval(px, py, WIDTH, HEIGHT);
 
             g2d.setColor(Color.YELLOW);
-            g2d.fillOval((int) x - 3, (int) y - 3, 5, 5);
+            g2d.fillOval(px - 3, py - 3, 5, 5);
         }
 
         public Rectangle getBounds() {
             return new Rectangle((int) x, (int) y, width, height);
         }
 
+        public boolean intersects(int otherX, int otherY, int otherWidth, int otherHeight) {
+            return Aabb.intersects((int) x, (int) y, width, height, otherX, otherY, otherWidth, otherHeight);
+        }
+
         public boolean isCollected() {
             return collected;
         }
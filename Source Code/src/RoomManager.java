@@ -1,6 +1,8 @@
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Rectangle;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
@@ -8,18 +10,76 @@ import java.util.Random;
 public class RoomManager {
     private List<Room> rooms;
     private List<Rectangle> doors;
+    private int startX;
+    private int startY;
+    private Rectangle bounds;
+    private SpatialGrid<Room> roomIndex;
+    private SpatialGrid<Obstacle> obstacleIndex;
+    private SpatialGrid<Rectangle> doorIndex;
+    private SpatialGrid<Room.Cucumber> cucumberIndex;
+    private SpatialGrid<PowerUp> powerUpIndex;
+    private WalkabilityMap walkability;
+    private final int walkabilityResolution;
+    private final List<Room> regionRooms = new ArrayList<>();
+    private final List<Rectangle> regionDoors = new ArrayList<>();
+    private final List<Obstacle> regionObstacles = new ArrayList<>();
+    private final List<Room> visibleRooms = new ArrayList<>();
+    private final List<Rectangle> visibleDoors = new ArrayList<>();
+    private Rectangle extent;
+    private Room currentRoom;
+    private Room lastRoom;
+    private int layoutVersion;
+    private long guardTicks;
+    private double guardSpeedMultiplier = 1.0;
+    private WorldStreamer streamer;
+    private LevelSource levelSource;
+    private GuardStore guardStore = new GuardStore();
+    private GuardScheduler guardScheduler = new GuardScheduler();
+    private double focusX;
+    private double focusY;
     private static final int GAME_START_Y = 50;
+    private static final int ROOM_CELL_SIZE = SpatialGrid.DEFAULT_CELL_SIZE * 4;
+    private static final int MAX_INDEX_CELLS = 1 << 20;
+    private static final int MAX_WALKABILITY_CELLS = 1 << 26;
+    private static final Color DOOR_COLOR = new Color(139, 90, 43);
 
     public RoomManager() {
-        rooms = new ArrayList<>();
-        doors = new ArrayList<>();
-        initializeRooms();
-        initializeDoors();
+        this(new Random());
+    }
+
+    public RoomManager(Random random) {
+        this(createDefaultLevel(random));
+        levelSource = LevelSource.builtIn();
     }
 
-    private void initializeRooms() {
+    public RoomManager(Level level) {
+        rooms = level.getRooms();
+        doors = level.getDoors();
+        startX = level.getStartX();
+        startY = level.getStartY();
+        bounds = level.getBounds();
+        walkabilityResolution = level.getWalkabilityResolution();
+        focusX = startX;
+        focusY = startY;
+        for (Room room : rooms) {
+            if (room.getGuard() != null) {
+                room.getGuard().moveTo(guardStore);
+            }
+        }
+        buildIndex();
+        layoutVersion++;
+    }
+
+    private static Level createDefaultLevel(Random random) {
+        Level level = new Level((int) GameSimulation.START_X, (int) GameSimulation.START_Y);
+        initializeRooms(level, random);
+        initializeDoors(level);
+        level.setBounds(new Rectangle(10, GAME_START_Y + 10, 740, 440));
+        return level;
+    }
+
+    private static void initializeRooms(Level level, Random random) {
         PowerUp.PowerUpType[] powerUpTypes = PowerUp.PowerUpType.values();
-        Random random = new Random();
 
         Room toilet = new Room("Toilet", 10, GAME_START_Y + 10, 200, 200,
                 new Color(173, 216, 230), Guard.RiskLevel.LOW);
@@ -27,7 +87,7 @@ public class RoomManager {
         toilet.setCucumber(new Room.Cucumber(100, GAME_START_Y + 180));
         toilet.addObstacle(new Obstacle(Obstacle.ObstacleType.TABLE, 120, GAME_START_Y + 80));
         toilet.setPowerUp(new PowerUp(powerUpTypes[random.nextInt(powerUpTypes.length)], 50, GAME_START_Y + 120));
-        rooms.add(toilet);
+        level.addRoom(toilet);
 
         Room playerBedroom = new Room("My Bedroom", 220, GAME_START_Y + 10, 260, 200,
                 new Color(144, 238, 144), Guard.RiskLevel.LOW);
@@ -37,7 +97,7 @@ public class RoomManager {
         playerBedroom.addObstacle(new Obstacle(Obstacle.ObstacleType.CHAIR, 420, GAME_START_Y + 50));
         playerBedroom
                 .setPowerUp(new PowerUp(powerUpTypes[random.nextInt(powerUpTypes.length)], 320, GAME_START_Y + 80));
-        rooms.add(playerBedroom);
+        level.addRoom(playerBedroom);
 
         Room parentsBedroom = new Room("Parents Room", 490, GAME_START_Y + 10, 280, 200,
                 new Color(255, 182, 193), Guard.RiskLevel.HIGH);
@@ -47,7 +107,7 @@ public class RoomManager {
         parentsBedroom.addObstacle(new Obstacle(Obstacle.ObstacleType.DRESSER, 510, GAME_START_Y + 40));
         parentsBedroom
                 .setPowerUp(new PowerUp(powerUpTypes[random.nextInt(powerUpTypes.length)], 700, GAME_START_Y + 80));
-        rooms.add(parentsBedroom);
+        level.addRoom(parentsBedroom);
 
         Room livingRoom = new Room("Living Room", 10, GAME_START_Y + 220, 370, 280,
                 new Color(255, 218, 185), Guard.RiskLevel.HIGH);
@@ -57,7 +117,7 @@ public class RoomManager {
         livingRoom.addObstacle(new Obstacle(Obstacle.ObstacleType.TABLE, 180, GAME_START_Y + 350));
         livingRoom.addObstacle(new Obstacle(Obstacle.ObstacleType.CHAIR, 280, GAME_START_Y + 420));
         livingRoom.setPowerUp(new PowerUp(powerUpTypes[random.nextInt(powerUpTypes.length)], 100, GAME_START_Y + 320));
-        rooms.add(livingRoom);
+        level.addRoom(livingRoom);
 
         Room garage = new Room("Garage", 390, GAME_START_Y + 220, 380, 280,
                 new Color(192, 192, 192), Guard.RiskLevel.MEDIUM);
@@ -66,127 +126,551 @@ public class RoomManager {
         garage.addObstacle(new Obstacle(Obstacle.ObstacleType.WORKBENCH, 420, GAME_START_Y + 280));
         garage.addObstacle(new Obstacle(Obstacle.ObstacleType.BOOKSHELF, 600, GAME_START_Y + 350));
         garage.setPowerUp(new PowerUp(powerUpTypes[random.nextInt(powerUpTypes.length)], 500, GAME_START_Y + 320));
-        rooms.add(garage);
+        level.addRoom(garage);
     }
 
-    private void initializeDoors() {
-        doors.add(new Rectangle(205, GAME_START_Y + 100, 20, 40));
+    private static void initializeDoors(Level level) {
+        level.addDoor(new Rectangle(205, GAME_START_Y + 100, 20, 40));
 
-        doors.add(new Rectangle(475, GAME_START_Y + 100, 20, 40));
+        level.addDoor(new Rectangle(475, GAME_START_Y + 100, 20, 40));
 
-        doors.add(new Rectangle(220, GAME_START_Y + 205, 60, 20));
+        level.addDoor(new Rectangle(220, GAME_START_Y + 205, 60, 20));
 
-        doors.add(new Rectangle(550, GAME_START_Y + 205, 60, 20));
+        level.addDoor(new Rectangle(550, GAME_START_Y + 205, 60, 20));
 
-        doors.add(new Rectangle(375, GAME_START_Y + 350, 20, 60));
+        level.addDoor(new Rectangle(375, GAME_START_Y + 350, 20, 60));
     }
 
-    public List<Rectangle> getDoors() {
-        return doors;
-    }
+    private void buildIndex() {
+        if (extent == null) {
+            extent = computeExtent();
+        }
+        createIndex();
 
-    public void update() {
+        regionObstacles.clear();
         for (Room room : rooms) {
-            room.update();
+            roomIndex.insert(room, room.getX(), room.getY(), room.getWidth(), room.getHeight());
+            for (Obstacle obstacle : room.getObstacles()) {
+                obstacleIndex.insert(obstacle, obstacle.getX(), obstacle.getY(),
+                        obstacle.getWidth(), obstacle.getHeight());
+                regionObstacles.add(obstacle);
+            }
+            if (room.getCucumber() != null && !room.getCucumber().isCollected()) {
+                indexCucumber(room.getCucumber());
+            }
+            if (room.getPowerUp() != null && !room.getPowerUp().isCollected()) {
+                indexPowerUp(room.getPowerUp());
+            }
+        }
+        for (Rectangle door : doors) {
+            doorIndex.insert(door, door.x, door.y, door.width, door.height);
         }
+        buildDoorGraph();
+
+        walkability.rasterize(extent.x, extent.y, extent.width, extent.height, rooms, doors, regionObstacles);
+        regionObstacles.clear();
     }
 
-    public void draw(Graphics2D g2d) {
+    private Rectangle computeExtent() {
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
         for (Room room : rooms) {
-            room.draw(g2d);
+            minX = Math.min(minX, room.getX());
+            minY = Math.min(minY, room.getY());
+            maxX = Math.max(maxX, room.getX() + room.getWidth());
+            maxY = Math.max(maxY, room.getY() + room.getHeight());
+        }
+        for (Rectangle door : doors) {
+            minX = Math.min(minX, door.x);
+            minY = Math.min(minY, door.y);
+            maxX = Math.max(maxX, door.x + door.width);
+            maxY = Math.max(maxY, door.y + door.height);
+        }
+        if (minX > maxX) {
+            minX = minY = maxX = maxY = 0;
         }
-        g2d.setColor(new Color(139, 90, 43));
+        return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+    }
 
-        g2d.fillRect(205, GAME_START_Y + 100, 20, 40);
+    private void createIndex() {
+        int minX = extent.x;
+        int minY = extent.y;
+        int width = extent.width;
+        int height = extent.height;
+        int cellSize = Math.max(SpatialGrid.DEFAULT_CELL_SIZE, minimumCellSize(width, height, MAX_INDEX_CELLS));
+        roomIndex = new SpatialGrid<>(minX, minY, width, height, Math.max(ROOM_CELL_SIZE, cellSize));
+        obstacleIndex = new SpatialGrid<>(minX, minY, width, height, cellSize);
+        doorIndex = new SpatialGrid<>(minX, minY, width, height, cellSize);
+        cucumberIndex = new SpatialGrid<>(minX, minY, width, height, cellSize);
+        powerUpIndex = new SpatialGrid<>(minX, minY, width, height, cellSize);
+
+        int resolution = Math.max(walkabilityResolution, minimumCellSize(width, height, MAX_WALKABILITY_CELLS));
+        walkability = new WalkabilityMap(minX, minY, width, height, resolution);
+    }
 
-        g2d.fillRect(475, GAME_START_Y + 100, 20, 40);
+    private static int minimumCellSize(int width, int height, int maxCells) {
+        return (int) Math.ceil(Math.sqrt((double) width * height / maxCells));
+    }
 
-        g2d.fillRect(220, GAME_START_Y + 205, 60, 20);
+    private void rasterizeWalkability(int x, int y, int width, int height) {
+        regionRooms.clear();
+        regionDoors.clear();
+        regionObstacles.clear();
+        roomIndex.query(x, y, width, height, regionRooms);
+        doorIndex.query(x, y, width, height, regionDoors);
+        obstacleIndex.query(x, y, width, height, regionObstacles);
+        walkability.rasterize(x, y, width, height, regionRooms, regionDoors, regionObstacles);
+    }
 
-        g2d.fillRect(550, GAME_START_Y + 205, 60, 20);
+    public boolean isWalkable(int x, int y, int width, int height) {
+        return walkability.isWalkable(x, y, width, height);
+    }
 
-        g2d.fillRect(375, GAME_START_Y + 350, 20, 60);
+    public boolean isPathWalkable(double fromX, double fromY, double toX, double toY, int width, int height) {
+        return walkability.isPathWalkable(fromX, fromY, toX, toY, width, height);
     }
 
-    public List<Room> getRooms() {
-        return rooms;
+    public int getWalkabilityResolution() {
+        return walkability.getResolution();
     }
 
-    public List<Guard> getAllGuards() {
-        List<Guard> guards = new ArrayList<>();
-        for (Room room : rooms) {
+    private void buildDoorGraph() {
+        List<Room> connected = new ArrayList<>();
+        for (Rectangle door : doors) {
+            linkDoor(door, connected);
+        }
+    }
+
+    private void linkDoor(Rectangle door, List<Room> connected) {
+        connected.clear();
+        roomIndex.query(door.x, door.y, door.width, door.height, connected);
+        for (Room room : connected) {
+            for (Room other : connected) {
+                room.addNeighbour(other);
+            }
+        }
+    }
+
+    void addRooms(List<Room> added, List<Rectangle> addedDoors) {
+        if (added.isEmpty() && addedDoors.isEmpty()) {
+            return;
+        }
+        Rectangle region = null;
+        for (Room room : added) {
+            rooms.add(room);
             if (room.getGuard() != null) {
-                guards.add(room.getGuard());
+                room.getGuard().moveTo(guardStore);
+            }
+            roomIndex.insert(room, room.getX(), room.getY(), room.getWidth(), room.getHeight());
+            for (Obstacle obstacle : room.getObstacles()) {
+                obstacleIndex.insert(obstacle, obstacle.getX(), obstacle.getY(),
+                        obstacle.getWidth(), obstacle.getHeight());
+            }
+            if (room.getCucumber() != null && !room.getCucumber().isCollected()) {
+                indexCucumber(room.getCucumber());
+            }
+            if (room.getPowerUp() != null && !room.getPowerUp().isCollected()) {
+                indexPowerUp(room.getPowerUp());
+            }
+            region = union(region, room.getX(), room.getY(), room.getWidth(), room.getHeight());
+        }
+        for (Rectangle door : addedDoors) {
+            doors.add(door);
+            doorIndex.insert(door, door.x, door.y, door.width, door.height);
+            region = union(region, door.x, door.y, door.width, door.height);
+        }
+
+        List<Room> connected = new ArrayList<>();
+        for (Rectangle door : addedDoors) {
+            linkDoor(door, connected);
+        }
+        for (Room room : added) {
+            regionDoors.clear();
+            doorIndex.query(room.getX(), room.getY(), room.getWidth(), room.getHeight(), regionDoors);
+            for (int i = 0; i < regionDoors.size(); i++) {
+                linkDoor(regionDoors.get(i), connected);
             }
         }
-        return guards;
+
+        rasterizeWalkability(region.x, region.y, region.width, region.height);
+        layoutVersion++;
+        guardScheduler.invalidate();
     }
 
-    public List<Room.Cucumber> getAllCucumbers() {
-        List<Room.Cucumber> cucumbers = new ArrayList<>();
-        for (Room room : rooms) {
+    void removeRooms(List<Room> removed, List<Rectangle> removedDoors) {
+        if (removed.isEmpty() && removedDoors.isEmpty()) {
+            return;
+        }
+        Rectangle region = null;
+        for (Room room : removed) {
+            roomIndex.remove(room);
+            if (room.getGuard() != null) {
+                room.getGuard().detach();
+            }
+            for (Obstacle obstacle : room.getObstacles()) {
+                obstacleIndex.remove(obstacle);
+            }
             if (room.getCucumber() != null) {
-                cucumbers.add(room.getCucumber());
+                cucumberIndex.remove(room.getCucumber());
             }
+            if (room.getPowerUp() != null) {
+                powerUpIndex.remove(room.getPowerUp());
+            }
+            for (Room neighbour : room.getNeighbours()) {
+                neighbour.removeNeighbour(room);
+            }
+            if (room == currentRoom) {
+                currentRoom = null;
+            }
+            if (room == lastRoom) {
+                lastRoom = null;
+            }
+            region = union(region, room.getX(), room.getY(), room.getWidth(), room.getHeight());
+        }
+        rooms.removeAll(removed);
+        for (Rectangle door : removedDoors) {
+            doorIndex.remove(door);
+            region = union(region, door.x, door.y, door.width, door.height);
         }
-        return cucumbers;
+        doors.removeAll(removedDoors);
+
+        rasterizeWalkability(region.x, region.y, region.width, region.height);
+        layoutVersion++;
+        guardScheduler.invalidate();
     }
 
-    public List<Obstacle> getAllObstacles() {
-        List<Obstacle> allObstacles = new ArrayList<>();
-        for (Room room : rooms) {
-            allObstacles.addAll(room.getObstacles());
+    private static Rectangle union(Rectangle region, int x, int y, int width, int height) {
+        if (region == null) {
+            return new Rectangle(x, y, width, height);
+        }
+        region.add(new Rectangle(x, y, width, height));
+        return region;
+    }
+
+    public void enableStreaming(Path directory) throws IOException {
+        enableStreaming(directory, WorldStreamer.DEFAULT_CHUNK_SIZE);
+    }
+
+    public void enableStreaming(Path directory, int chunkSize) throws IOException {
+        if (streamer != null) {
+            throw new IllegalStateException("Streaming is already enabled");
+        }
+        syncGuards();
+        streamer = new WorldStreamer(this, rooms, doors, directory, chunkSize);
+        rooms = new ArrayList<>();
+        doors = new ArrayList<>();
+        guardStore = new GuardStore();
+        currentRoom = null;
+        lastRoom = null;
+        createIndex();
+        layoutVersion++;
+        guardScheduler.invalidate();
+    }
+
+    public WorldStreamer getStreamer() {
+        return streamer;
+    }
+
+    public void setFocus(double x, double y) {
+        focusX = x;
+        focusY = y;
+        if (streamer != null) {
+            streamer.focus(x, y);
+        }
+        guardScheduler.focus(getSimulatedRooms(), guardTicks, x, y);
+    }
+
+    private void indexCucumber(Room.Cucumber cucumber) {
+        cucumberIndex.insert(cucumber, (int) cucumber.getX(), (int) cucumber.getY(),
+                Room.Cucumber.WIDTH, Room.Cucumber.HEIGHT);
+    }
+
+    private void indexPowerUp(PowerUp powerUp) {
+        powerUpIndex.insert(powerUp, (int) powerUp.getX(), (int) powerUp.getY(), PowerUp.SIZE, PowerUp.SIZE);
+    }
+
+    public Room findRoomAt(double x, double y) {
+        return roomIndex.findFirstContaining(x, y);
+    }
+
+    public Room updateCurrentRoom(double x, double y, int width, int height) {
+        double centerX = x + width / 2.0;
+        double centerY = y + height / 2.0;
+        if (lastRoom != null && lastRoom.containsPoint(centerX, centerY)) {
+            currentRoom = lastRoom;
+            return currentRoom;
+        }
+
+        Room room = null;
+        if (lastRoom != null && findDoor((int) x, (int) y, width, height) != null) {
+            List<Room> neighbours = lastRoom.getNeighbours();
+            for (int i = 0; i < neighbours.size() && room == null; i++) {
+                if (neighbours.get(i).containsPoint(centerX, centerY)) {
+                    room = neighbours.get(i);
+                }
+            }
+        }
+        if (room == null) {
+            room = findRoomAt(centerX, centerY);
+        }
+
+        currentRoom = room;
+        if (room != null) {
+            lastRoom = room;
         }
-        return allObstacles;
+        return room;
+    }
+
+    public Room getCurrentRoom() {
+        return currentRoom;
+    }
+
+    public Obstacle findObstacle(int x, int y, int width, int height) {
+        return obstacleIndex.findFirst(x, y, width, height);
+    }
+
+    public Rectangle findDoor(int x, int y, int width, int height) {
+        return doorIndex.findFirst(x, y, width, height);
     }
 
-    public List<PowerUp> getAllPowerUps() {
-        List<PowerUp> powerUps = new ArrayList<>();
+    public Room.Cucumber findCucumber(int x, int y, int width, int height) {
+        return cucumberIndex.findFirst(x, y, width, height);
+    }
+
+    public PowerUp findPowerUp(int x, int y, int width, int height) {
+        return powerUpIndex.findFirst(x, y, width, height);
+    }
+
+    public void collectCucumber(Room.Cucumber cucumber) {
+        cucumber.collect();
+        cucumberIndex.remove(cucumber);
+    }
+
+    public void collectPowerUp(PowerUp powerUp) {
+        powerUp.collect();
+        powerUpIndex.remove(powerUp);
+    }
+
+    public List<Rectangle> getDoors() {
+        return doors;
+    }
+
+    public int getStartX() {
+        return startX;
+    }
+
+    public int getStartY() {
+        return startY;
+    }
+
+    public Rectangle getBounds() {
+        return bounds;
+    }
+
+    public LevelSource getLevelSource() {
+        return levelSource;
+    }
+
+    public void setLevelSource(LevelSource levelSource) {
+        this.levelSource = levelSource;
+    }
+
+    public int getCucumberCount() {
+        if (streamer != null) {
+            return streamer.getCucumberCount();
+        }
+        int count = 0;
+        for (int i = 0; i < rooms.size(); i++) {
+            if (rooms.get(i).getCucumber() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public Level toLevel() {
+        if (streamer != null) {
+            throw new IllegalStateException("A streamed world only keeps the chunks near the player in memory");
+        }
+        Level level = new Level(startX, startY, rooms, doors);
+        level.setBounds(bounds);
+        level.setWalkabilityResolution(walkabilityResolution);
+        return level;
+    }
+
+    public void update() {
+        update(null, null);
+    }
+
+    public Guard update(Player player, Room playerRoom) {
+        guardTicks++;
+        return guardScheduler.update(getSimulatedRooms(), guardStore, guardTicks, focusX, focusY, player,
+                playerRoom);
+    }
+
+    private List<Room> getSimulatedRooms() {
+        return streamer != null ? streamer.getActiveRooms() : rooms;
+    }
+
+    public void syncGuards() {
+        guardScheduler.sync(getSimulatedRooms(), guardTicks);
+        guardScheduler.invalidate();
+    }
+
+    public GuardStore getGuardStore() {
+        return guardStore;
+    }
+
+    public GuardScheduler getGuardScheduler() {
+        return guardScheduler;
+    }
+
+    public void setGuardScheduler(GuardScheduler guardScheduler) {
+        syncGuards();
+        this.guardScheduler = guardScheduler;
+    }
+
+    public long getGuardTicks() {
+        return guardTicks;
+    }
+
+    public double getGuardSpeedMultiplier() {
+        return guardSpeedMultiplier;
+    }
+
+    public void setGuardSpeedMultiplier(double speedMultiplier) {
+        syncGuards();
+        if (streamer != null) {
+            streamer.onSpeedChange(speedMultiplier);
+        }
+        guardSpeedMultiplier = speedMultiplier;
         for (Room room : rooms) {
-            if (room.getPowerUp() != null) {
-                powerUps.add(room.getPowerUp());
+            Guard guard = room.getGuard();
+            if (guard != null) {
+                guard.setSpeed(guard.getType().getRiskLevel().getGuardSpeed() * speedMultiplier);
             }
         }
-        return powerUps;
+    }
+
+    public void beginTick() {
+        guardScheduler.beginTick();
+    }
+
+    public void interpolate(double alpha) {
+        guardScheduler.interpolate(alpha);
+    }
+
+    public void draw(Graphics2D g2d) {
+        drawStatic(g2d);
+        drawDynamic(g2d);
+    }
+
+    public void drawStatic(Graphics2D g2d) {
+        for (Room room : rooms) {
+            room.drawStatic(g2d);
+        }
+
+        g2d.setColor(DOOR_COLOR);
+        for (Rectangle door : doors) {
+            g2d.fillRect(door.x, door.y, door.width, door.height);
+        }
+    }
+
+    public void drawStatic(Graphics2D g2d, Rectangle view) {
+        visibleRooms.clear();
+        roomIndex.query(view.x, view.y, view.width, view.height, visibleRooms);
+        for (int i = 0; i < visibleRooms.size(); i++) {
+            visibleRooms.get(i).drawStatic(g2d);
+        }
+
+        visibleDoors.clear();
+        doorIndex.query(view.x, view.y, view.width, view.height, visibleDoors);
+        g2d.setColor(DOOR_COLOR);
+        for (int i = 0; i < visibleDoors.size(); i++) {
+            Rectangle door = visibleDoors.get(i);
+            g2d.fillRect(door.x, door.y, door.width, door.height);
+        }
+    }
+
+    public void drawDynamic(Graphics2D g2d) {
+        for (int i = 0; i < rooms.size(); i++) {
+            rooms.get(i).drawDynamic(g2d);
+        }
+    }
+
+    public void drawDynamic(Graphics2D g2d, Rectangle view) {
+        visibleRooms.clear();
+        roomIndex.query(view.x, view.y, view.width, view.height, visibleRooms);
+        for (int i = 0; i < visibleRooms.size(); i++) {
+            visibleRooms.get(i).drawDynamic(g2d);
+        }
+    }
+
+    public int getLayoutVersion() {
+        return layoutVersion;
+    }
+
+    public List<Room> getRooms() {
+        return rooms;
     }
 
     public void resetAll() {
-        PowerUp.PowerUpType[] powerUpTypes = PowerUp.PowerUpType.values();
-        Random random = new Random();
+        resetAll(new Random());
+    }
 
+    public void resetAll(Random random) {
+        guardTicks = 0;
+        guardScheduler.invalidate();
         for (Room room : rooms) {
             if (room.getCucumber() != null) {
                 room.getCucumber().reset();
+                indexCucumber(room.getCucumber());
             }
             if (room.getGuard() != null) {
                 room.getGuard().reset();
             }
 
-            PowerUp.PowerUpType randomType = powerUpTypes[random.nextInt(powerUpTypes.length)];
-            int randomX, randomY;
-            boolean validPosition;
-            int attempts = 0;
-
-            do {
-                randomX = room.getX() + 30 + random.nextInt(Math.max(1, room.getWidth() - 80));
-                randomY = room.getY() + 30 + random.nextInt(Math.max(1, room.getHeight() - 60));
-                validPosition = true;
+            if (room.getPowerUp() != null) {
+                powerUpIndex.remove(room.getPowerUp());
+            }
+            room.setPowerUp(randomPowerUp(room, random));
+            indexPowerUp(room.getPowerUp());
+        }
+        if (streamer != null) {
+            streamer.onReset(random);
+        }
+    }
 
-                Rectangle powerUpBounds = new Rectangle(randomX, randomY, 20, 20);
-                for (Obstacle obstacle : room.getObstacles()) {
-                    if (powerUpBounds.intersects(obstacle.getBounds())) {
-                        validPosition = false;
-                        break;
-                    }
+    static PowerUp randomPowerUp(Room room, Random random) {
+        PowerUp.PowerUpType[] powerUpTypes = PowerUp.PowerUpType.values();
+        PowerUp.PowerUpType randomType = powerUpTypes[random.nextInt(powerUpTypes.length)];
+        int randomX, randomY;
+        boolean validPosition;
+        int attempts = 0;
+
+        do {
+            randomX = room.getX() + 30 + random.nextInt(Math.max(1, room.getWidth() - 80));
+            randomY = room.getY() + 30 + random.nextInt(Math.max(1, room.getHeight() - 60));
+            validPosition = true;
+
+            for (Obstacle obstacle : room.getObstacles()) {
+                if (obstacle.intersects(randomX, randomY, PowerUp.SIZE, PowerUp.SIZE)) {
+                    validPosition = false;
+                    break;
                 }
-                attempts++;
-            } while (!validPosition && attempts < 20);
+            }
+            attempts++;
+        } while (!validPosition && attempts < 20);
 
-            room.setPowerUp(new PowerUp(randomType, randomX, randomY));
-        }
+        return new PowerUp(randomType, randomX, randomY);
     }
 
     public boolean[] getRoomUnlockStates() {
+        if (streamer != null) {
+            return streamer.getRoomUnlockStates();
+        }
         boolean[] states = new boolean[rooms.size()];
         for (int i = 0; i < rooms.size(); i++) {
             states[i] = rooms.get(i).isUnlocked();
@@ -195,9 +679,13 @@ public class RoomManager {
     }
 
     public void setRoomUnlockStates(boolean[] states) {
+        if (streamer != null) {
+            streamer.setRoomUnlockStates(states);
+            return;
+        }
         for (int i = 0; i < Math.min(states.length, rooms.size()); i++) {
             if (states[i] && rooms.get(i).getCucumber() != null) {
-                rooms.get(i).getCucumber().collect();
+                collectCucumber(rooms.get(i).getCucumber());
             }
         }
     }
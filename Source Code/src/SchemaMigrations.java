@@ -0,0 +1,151 @@
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+public final class SchemaMigrations {
+    private static final String VERSION_TABLE = "SCHEMA_VERSION";
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create game_saves and high_scores",
+                    """
+                            CREATE TABLE IF NOT EXISTS game_saves (
+                                id INT PRIMARY KEY AUTO_INCREMENT,
+                                player_name VARCHAR(255) DEFAULT 'Player',
+                                player_x DOUBLE NOT NULL,
+                                player_y DOUBLE NOT NULL,
+                                cucumbers_collected INT DEFAULT 0,
+                                room_states VARCHAR(255),
+                                save_date VARCHAR(255) NOT NULL
+                            )
+                            """,
+                    """
+                            CREATE TABLE IF NOT EXISTS high_scores (
+                                id INT PRIMARY KEY AUTO_INCREMENT,
+                                player_name VARCHAR(255) DEFAULT 'Player',
+                                cucumbers_collected INT DEFAULT 0,
+                                completion_time_ms BIGINT,
+                                completed INT DEFAULT 0,
+                                difficulty VARCHAR(20) DEFAULT 'Normal',
+                                score_date VARCHAR(255) NOT NULL
+                            )
+                            """),
+            new Migration(2, "Add difficulty to high_scores",
+                    "ALTER TABLE high_scores ADD COLUMN IF NOT EXISTS difficulty VARCHAR(20) DEFAULT 'Normal'"),
+            new Migration(3, "Store room states of any house size",
+                    "ALTER TABLE game_saves ALTER COLUMN room_states SET DATA TYPE CHARACTER LARGE OBJECT"),
+            new Migration(4, "Index high_scores for leaderboard queries",
+                    "UPDATE high_scores SET difficulty = 'Normal' WHERE difficulty IS NULL",
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_high_scores_difficulty_time
+                            ON high_scores (difficulty, completed, completion_time_ms, id)
+                            """,
+                    """
+                            CREATE INDEX IF NOT EXISTS idx_high_scores_time
+                            ON high_scores (completed, completion_time_ms, id)
+                            """));
+
+    private SchemaMigrations() {
+    }
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    public static int migrate(Connection connection) throws SQLException {
+        return migrate(connection, getLatestVersion());
+    }
+
+    static int migrate(Connection connection, int targetVersion) throws SQLException {
+        long start = System.nanoTime();
+        int version = getVersion(connection);
+        if (version >= targetVersion && version <= getLatestVersion()) {
+            return version;
+        }
+        if (version > getLatestVersion()) {
+            System.err.println("Database schema version " + version + " is newer than this game ("
+                    + getLatestVersion() + "), continuing without migrating");
+            return version;
+        }
+
+        if (version == 0) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("""
+                            CREATE TABLE IF NOT EXISTS schema_version (
+                                version INT PRIMARY KEY,
+                                description VARCHAR(255) NOT NULL,
+                                applied_date VARCHAR(255) NOT NULL
+                            )
+                        """);
+            }
+        }
+
+        int applied = 0;
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version > version && migration.version <= targetVersion) {
+                apply(connection, migration);
+                version = migration.version;
+                applied++;
+            }
+        }
+        System.out.printf("Applied %d schema migrations (now version %d) in %.1f ms%n", applied, version,
+                (System.nanoTime() - start) / 1e6);
+        return version;
+    }
+
+    public static int getVersion(Connection connection) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        try (ResultSet tables = metaData.getTables(null, null, VERSION_TABLE, null)) {
+            if (!tables.next()) {
+                return 0;
+            }
+        }
+        try (Statement stmt = connection.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void apply(Connection connection, Migration migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : migration.statements) {
+                    stmt.execute(sql);
+                }
+            }
+            try (PreparedStatement pstmt = connection.prepareStatement(
+                    "INSERT INTO schema_version (version, description, applied_date) VALUES (?, ?, ?)")) {
+                pstmt.setInt(1, migration.version);
+                pstmt.setString(2, migration.description);
+                pstmt.setString(3, LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                pstmt.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Schema migration " + migration.version + " (" + migration.description
+                    + ") failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final String[] statements;
+
+        Migration(int version, String description, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = statements;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SpatialGrid<T> {
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    private final int originX;
+    private final int originY;
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+    private final List<List<Entry<T>>> cells;
+    private final Map<T, Entry<T>> entries;
+    private int nextOrder;
+    private int queryStamp;
+
+    public SpatialGrid(int originX, int originY, int width, int height, int cellSize) {
+        this.originX = originX;
+        this.originY = originY;
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (width + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (height + cellSize - 1) / cellSize);
+        this.cells = new ArrayList<>(Collections.nCopies(columns * rows, null));
+        this.entries = new IdentityHashMap<>();
+    }
+
+    public void insert(T item, int x, int y, int width, int height) {
+        remove(item);
+
+        Entry<T> entry = new Entry<>(item, x, y, width, height, nextOrder++);
+        entries.put(item, entry);
+        int maxColumn = column(x + width);
+        int maxRow = row(y + height);
+        for (int row = row(y); row <= maxRow; row++) {
+            for (int column = column(x); column <= maxColumn; column++) {
+                List<Entry<T>> cell = cells.get(row * columns + column);
+                if (cell == null) {
+                    cell = new ArrayList<>(4);
+                    cells.set(row * columns + column, cell);
+                }
+                cell.add(entry);
+            }
+        }
+    }
+
+    public boolean remove(T item) {
+        Entry<T> entry = entries.remove(item);
+        if (entry == null) {
+            return false;
+        }
+
+        int maxColumn = column(entry.x + entry.width);
+        int maxRow = row(entry.y + entry.height);
+        for (int row = row(entry.y); row <= maxRow; row++) {
+            for (int column = column(entry.x); column <= maxColumn; column++) {
+                cells.get(row * columns + column).remove(entry);
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(T item) {
+        return entries.containsKey(item);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public T findFirst(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        int stamp = ++queryStamp;
+        Entry<T> first = null;
+        int maxColumn = column(x + width);
+        int maxRow = row(y + height);
+        for (int row = row(y); row <= maxRow; row++) {
+            for (int column = column(x); column <= maxColumn; column++) {
+                List<Entry<T>> cell = cells.get(row * columns + column);
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry<T> entry = cell.get(i);
+                    if (entry.stamp == stamp) {
+                        continue;
+                    }
+                    entry.stamp = stamp;
+                    if (entry.intersects(x, y, width, height) && (first == null || entry.order < first.order)) {
+                        first = entry;
+                    }
+                }
+            }
+        }
+        return first == null ? null : first.item;
+    }
+
+    public T findFirstContaining(double px, double py) {
+        List<Entry<T>> cell = cells.get(row((int) Math.floor(py)) * columns + column((int) Math.floor(px)));
+        if (cell == null) {
+            return null;
+        }
+        Entry<T> first = null;
+        for (int i = 0; i < cell.size(); i++) {
+            Entry<T> entry = cell.get(i);
+            if (entry.contains(px, py) && (first == null || entry.order < first.order)) {
+                first = entry;
+            }
+        }
+        return first == null ? null : first.item;
+    }
+
+    public void query(int x, int y, int width, int height, List<T> result) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        int stamp = ++queryStamp;
+        int maxColumn = column(x + width);
+        int maxRow = row(y + height);
+        for (int row = row(y); row <= maxRow; row++) {
+            for (int column = column(x); column <= maxColumn; column++) {
+                List<Entry<T>> cell = cells.get(row * columns + column);
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    Entry<T> entry = cell.get(i);
+                    if (entry.stamp != stamp) {
+                        entry.stamp = stamp;
+                        if (entry.intersects(x, y, width, height)) {
+                            result.add(entry.item);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private int column(int x) {
+        return Math.max(0, Math.min(columns - 1, Math.floorDiv(x - originX, cellSize)));
+    }
+
+    private int row(int y) {
+        return Math.max(0, Math.min(rows - 1, Math.floorDiv(y - originY, cellSize)));
+    }
+
+    private static class Entry<T> {
+        private final T item;
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        private final int order;
+        private int stamp;
+
+        Entry(T item, int x, int y, int width, int height, int order) {
+            this.item = item;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.order = order;
+        }
+
+        boolean intersects(int otherX, int otherY, int otherWidth, int otherHeight) {
+            return Aabb.intersects(x, y, width, height, otherX, otherY, otherWidth, otherHeight);
+        }
+
+        boolean contains(double px, double py) {
+            return px >= x && px <= x + width && py >= y && py <= y + height;
+        }
+    }
+}
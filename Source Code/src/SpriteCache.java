@@ -0,0 +1,179 @@
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SpriteCache {
+    private static final int PADDING = 8;
+    private static SpriteCache instance;
+
+    public enum Kind {
+        PLAYER,
+        CUCUMBER,
+        MENU_CUCUMBER,
+        DIFFICULTY_BADGE,
+        POWER_UP_BAR,
+        STATUS_TOAST
+    }
+
+    public interface Painter {
+        void paint(Graphics2D g2d, Object key, int x, int y);
+    }
+
+    private final Map<Object, List<Sprite>> sprites;
+    private boolean enabled;
+
+    private SpriteCache() {
+        this.sprites = new HashMap<>();
+        this.enabled = true;
+    }
+
+    public static SpriteCache getInstance() {
+        if (instance == null) {
+            instance = new SpriteCache();
+        }
+        return instance;
+    }
+
+    public void draw(Graphics2D g2d, Object key, int x, int y, int width, int height, Painter painter) {
+        draw(g2d, key, 1.0, x, y, width, height, painter);
+    }
+
+    public void draw(Graphics2D g2d, Object key, double scale, int x, int y, int width, int height,
+            Painter painter) {
+        if (!enabled) {
+            painter.paint(g2d, key, x, y);
+            return;
+        }
+
+        Sprite sprite = get(key, 0, scale);
+        if (sprite == null) {
+            sprite = put(key, 0, scale, width, height, painter);
+        }
+        g2d.drawImage(sprite.image, x - sprite.offset, y - sprite.offset, null);
+    }
+
+    public void drawClipped(Graphics2D g2d, Object key, int variant, int x, int y, int width, int height,
+            Painter painter, Rectangle clip) {
+        if (!enabled) {
+            Shape oldClip = g2d.getClip();
+            g2d.setClip(clip);
+            painter.paint(g2d, key, x, y);
+            g2d.setClip(oldClip);
+            return;
+        }
+
+        Sprite sprite = get(key, variant, 1.0);
+        if (sprite == null) {
+            sprite = put(key, variant, 1.0, width, height, painter);
+        }
+
+        int left = x - sprite.offset;
+        int top = y - sprite.offset;
+        int dx1 = Math.max(left, clip.x);
+        int dy1 = Math.max(top, clip.y);
+        int dx2 = Math.min(left + sprite.image.getWidth(), clip.x + clip.width);
+        int dy2 = Math.min(top + sprite.image.getHeight(), clip.y + clip.height);
+        if (dx1 < dx2 && dy1 < dy2) {
+            g2d.drawImage(sprite.image, dx1, dy1, dx2, dy2,
+                    dx1 - left, dy1 - top, dx2 - left, dy2 - top, null);
+        }
+    }
+
+    public Sprite get(Object key, int variant, double scale) {
+        List<Sprite> variants = sprites.get(key);
+        if (variants == null) {
+            return null;
+        }
+        for (int i = 0; i < variants.size(); i++) {
+            Sprite sprite = variants.get(i);
+            if (sprite.variant == variant && sprite.scale == scale) {
+                return sprite;
+            }
+        }
+        return null;
+    }
+
+    public Sprite put(Object key, int variant, double scale, int width, int height, Painter painter) {
+        int imageWidth = (int) Math.ceil((width + PADDING * 2) * scale);
+        int imageHeight = (int) Math.ceil((height + PADDING * 2) * scale);
+        BufferedImage image = createImage(imageWidth, imageHeight);
+
+        Graphics2D g2d = image.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.scale(scale, scale);
+            painter.paint(g2d, key, PADDING, PADDING);
+        } finally {
+            g2d.dispose();
+        }
+
+        Sprite sprite = new Sprite(image, variant, scale, (int) Math.round(PADDING * scale));
+        sprites.computeIfAbsent(key, k -> new ArrayList<>()).add(sprite);
+        return sprite;
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            GraphicsConfiguration configuration = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                    .getDefaultScreenDevice().getDefaultConfiguration();
+            return configuration.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    public void clear() {
+        sprites.clear();
+    }
+
+    public int size() {
+        int count = 0;
+        for (List<Sprite> variants : sprites.values()) {
+            count += variants.size();
+        }
+        return count;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public static class Sprite {
+        private final BufferedImage image;
+        private final int variant;
+        private final double scale;
+        private final int offset;
+
+        Sprite(BufferedImage image, int variant, double scale, int offset) {
+            this.image = image;
+            this.variant = variant;
+            this.scale = scale;
+            this.offset = offset;
+        }
+
+        public Image getImage() {
+            return image;
+        }
+
+        public int getVariant() {
+            return variant;
+        }
+
+        public double getScale() {
+            return scale;
+        }
+    }
+}
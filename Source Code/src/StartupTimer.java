@@ -0,0 +1,20 @@
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class StartupTimer {
+    private static final Set<String> marked = ConcurrentHashMap.newKeySet();
+
+    private StartupTimer() {
+    }
+
+    public static void mark(String phase) {
+        if (marked.add(phase)) {
+            System.out.println("Startup: " + phase + " at " + getUptimeMs() + " ms");
+        }
+    }
+
+    public static long getUptimeMs() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+}
@@ -0,0 +1,112 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+public class StaticSceneLayer {
+    private static final int MARGIN = 128;
+
+    private final int width;
+    private final int height;
+    private final Color background;
+    private final Rectangle fullView;
+    private final Rectangle region;
+    private VolatileImage volatileImage;
+    private BufferedImage fallbackImage;
+    private RoomManager renderedRoomManager;
+    private int renderedVersion = -1;
+    private int renderCount;
+
+    public StaticSceneLayer(int width, int height, Color background) {
+        this.width = width + MARGIN * 2;
+        this.height = height + MARGIN * 2;
+        this.background = background;
+        this.fullView = new Rectangle(0, 0, width, height);
+        this.region = new Rectangle(0, 0, this.width, this.height);
+    }
+
+    public void draw(Graphics2D g2d, RoomManager roomManager, GraphicsConfiguration configuration) {
+        draw(g2d, roomManager, configuration, fullView);
+    }
+
+    public void draw(Graphics2D g2d, RoomManager roomManager, GraphicsConfiguration configuration, Rectangle view) {
+        if (configuration == null) {
+            drawFallback(g2d, roomManager, view);
+            return;
+        }
+
+        do {
+            boolean stale = isStale(roomManager, view);
+            int status = volatileImage == null
+                    ? VolatileImage.IMAGE_INCOMPATIBLE
+                    : volatileImage.validate(configuration);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if (volatileImage != null) {
+                    volatileImage.flush();
+                }
+                volatileImage = configuration.createCompatibleVolatileImage(width, height);
+                stale = true;
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                stale = true;
+            }
+
+            if (stale) {
+                render(volatileImage.createGraphics(), roomManager, view);
+            }
+            blit(g2d, volatileImage, view);
+        } while (volatileImage.contentsLost());
+    }
+
+    private void drawFallback(Graphics2D g2d, RoomManager roomManager, Rectangle view) {
+        if (fallbackImage == null) {
+            fallbackImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            renderedVersion = -1;
+        }
+        if (isStale(roomManager, view)) {
+            render(fallbackImage.createGraphics(), roomManager, view);
+        }
+        blit(g2d, fallbackImage, view);
+    }
+
+    private void blit(Graphics2D g2d, Image image, Rectangle view) {
+        int sx = view.x - region.x;
+        int sy = view.y - region.y;
+        g2d.drawImage(image, view.x, view.y, view.x + view.width, view.y + view.height,
+                sx, sy, sx + view.width, sy + view.height, null);
+    }
+
+    private boolean isStale(RoomManager roomManager, Rectangle view) {
+        return roomManager != renderedRoomManager || roomManager.getLayoutVersion() != renderedVersion
+                || !region.contains(view);
+    }
+
+    private void render(Graphics2D g2d, RoomManager roomManager, Rectangle view) {
+        if (!region.contains(view)) {
+            region.setLocation(view.x - MARGIN, view.y - MARGIN);
+        }
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setColor(background);
+            g2d.fillRect(0, 0, width, height);
+            g2d.translate(-region.x, -region.y);
+            roomManager.drawStatic(g2d, region);
+        } finally {
+            g2d.dispose();
+        }
+        renderedRoomManager = roomManager;
+        renderedVersion = roomManager.getLayoutVersion();
+        renderCount++;
+    }
+
+    public void invalidate() {
+        renderedVersion = -1;
+    }
+
+    public int getRenderCount() {
+        return renderCount;
+    }
+}
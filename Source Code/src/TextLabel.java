@@ -0,0 +1,79 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+public class TextLabel {
+    private final Font font;
+    private String text;
+    private int width;
+    private BufferedImage image;
+    private Color imageColor;
+    private int imageAscent;
+    private int imagePadding;
+
+    public TextLabel(Font font) {
+        this(font, "");
+    }
+
+    public TextLabel(Font font, String text) {
+        this.font = font;
+        this.text = text;
+        this.width = -1;
+    }
+
+    public void setText(String text) {
+        if (!this.text.equals(text)) {
+            this.text = text;
+            this.width = -1;
+            this.image = null;
+        }
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public int getWidth(Graphics2D g2d) {
+        if (width < 0) {
+            width = g2d.getFontMetrics(font).stringWidth(text);
+        }
+        return width;
+    }
+
+    public void draw(Graphics2D g2d, int x, int y) {
+        Color color = g2d.getColor();
+        if (image == null || !color.equals(imageColor)) {
+            render(g2d, color);
+        }
+        g2d.drawImage(image, x - imagePadding, y - imageAscent, null);
+    }
+
+    public int drawCentered(Graphics2D g2d, int areaWidth, int y) {
+        int x = (areaWidth - getWidth(g2d)) / 2;
+        draw(g2d, x, y);
+        return x;
+    }
+
+    private void render(Graphics2D g2d, Color color) {
+        FontMetrics fm = g2d.getFontMetrics(font);
+        imagePadding = font.getSize() / 4 + 1;
+        imageAscent = fm.getAscent();
+        int imageWidth = Math.max(1, getWidth(g2d) + imagePadding * 2);
+        int imageHeight = Math.max(1, fm.getAscent() + fm.getDescent());
+        image = g2d.getDeviceConfiguration().createCompatibleImage(imageWidth, imageHeight, Transparency.TRANSLUCENT);
+        imageColor = color;
+
+        Graphics2D imageGraphics = image.createGraphics();
+        try {
+            imageGraphics.setRenderingHints(g2d.getRenderingHints());
+            imageGraphics.setFont(font);
+            imageGraphics.setColor(color);
+            imageGraphics.drawString(text, imagePadding, imageAscent);
+        } finally {
+            imageGraphics.dispose();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+import java.awt.Rectangle;
+import java.util.List;
+
+public class WalkabilityMap {
+    public static final int DEFAULT_RESOLUTION = 4;
+
+    private final int originX;
+    private final int originY;
+    private final int resolution;
+    private final int columns;
+    private final int rows;
+    private final int wordsPerRow;
+    private final long[] bits;
+
+    public WalkabilityMap(int originX, int originY, int width, int height, int resolution) {
+        if (resolution <= 0) {
+            throw new IllegalArgumentException("Resolution must be positive: " + resolution);
+        }
+        this.originX = originX;
+        this.originY = originY;
+        this.resolution = resolution;
+        this.columns = Math.max(1, (width + resolution - 1) / resolution);
+        this.rows = Math.max(1, (height + resolution - 1) / resolution);
+        this.wordsPerRow = (columns + 63) >>> 6;
+        this.bits = new long[wordsPerRow * rows];
+    }
+
+    public void rasterize(int x, int y, int width, int height,
+            List<Room> rooms, List<Rectangle> doors, List<Obstacle> obstacles) {
+        int minColumn = Math.max(0, Math.floorDiv(x - originX, resolution));
+        int maxColumn = Math.min(columns - 1, Math.floorDiv(x + width - 1 - originX, resolution));
+        int minRow = Math.max(0, Math.floorDiv(y - originY, resolution));
+        int maxRow = Math.min(rows - 1, Math.floorDiv(y + height - 1 - originY, resolution));
+        if (width <= 0 || height <= 0 || minColumn > maxColumn || minRow > maxRow) {
+            return;
+        }
+
+        fill(minColumn, minRow, maxColumn, maxRow, false);
+        for (int i = 0; i < rooms.size(); i++) {
+            Room room = rooms.get(i);
+            fillInside(room.getX(), room.getY(), room.getWidth(), room.getHeight(),
+                    minColumn, minRow, maxColumn, maxRow);
+        }
+        for (int i = 0; i < doors.size(); i++) {
+            Rectangle door = doors.get(i);
+            fillInside(door.x, door.y, door.width, door.height, minColumn, minRow, maxColumn, maxRow);
+        }
+        for (int i = 0; i < obstacles.size(); i++) {
+            Obstacle obstacle = obstacles.get(i);
+            if (obstacle.getWidth() <= 0 || obstacle.getHeight() <= 0) {
+                continue;
+            }
+            fill(Math.max(minColumn, Math.floorDiv(obstacle.getX() - originX, resolution)),
+                    Math.max(minRow, Math.floorDiv(obstacle.getY() - originY, resolution)),
+                    Math.min(maxColumn, Math.floorDiv(obstacle.getX() + obstacle.getWidth() - 1 - originX, resolution)),
+                    Math.min(maxRow, Math.floorDiv(obstacle.getY() + obstacle.getHeight() - 1 - originY, resolution)),
+                    false);
+        }
+    }
+
+    private void fillInside(int x, int y, int width, int height,
+            int minColumn, int minRow, int maxColumn, int maxRow) {
+        fill(Math.max(minColumn, Math.floorDiv(x - originX + resolution - 1, resolution)),
+                Math.max(minRow, Math.floorDiv(y - originY + resolution - 1, resolution)),
+                Math.min(maxColumn, Math.floorDiv(x + width - originX, resolution) - 1),
+                Math.min(maxRow, Math.floorDiv(y + height - originY, resolution) - 1),
+                true);
+    }
+
+    private void fill(int minColumn, int minRow, int maxColumn, int maxRow, boolean walkable) {
+        if (minColumn > maxColumn) {
+            return;
+        }
+        for (int row = minRow; row <= maxRow; row++) {
+            int base = row * wordsPerRow;
+            for (int word = minColumn >>> 6; word <= maxColumn >>> 6; word++) {
+                long mask = spanMask(word, minColumn, maxColumn);
+                if (walkable) {
+                    bits[base + word] |= mask;
+                } else {
+                    bits[base + word] &= ~mask;
+                }
+            }
+        }
+    }
+
+    public boolean isWalkable(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return false;
+        }
+        int minColumn = Math.floorDiv(x - originX, resolution);
+        int maxColumn = Math.floorDiv(x + width - 1 - originX, resolution);
+        int minRow = Math.floorDiv(y - originY, resolution);
+        int maxRow = Math.floorDiv(y + height - 1 - originY, resolution);
+        if (minColumn < 0 || minRow < 0 || maxColumn >= columns || maxRow >= rows) {
+            return false;
+        }
+
+        for (int row = minRow; row <= maxRow; row++) {
+            int base = row * wordsPerRow;
+            for (int word = minColumn >>> 6; word <= maxColumn >>> 6; word++) {
+                long mask = spanMask(word, minColumn, maxColumn);
+                if ((bits[base + word] & mask) != mask) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean isPathWalkable(double fromX, double fromY, double toX, double toY, int width, int height) {
+        double distance = Math.max(Math.abs(toX - fromX), Math.abs(toY - fromY));
+        int steps = Math.max(1, (int) Math.ceil(distance / resolution));
+        for (int i = 0; i <= steps; i++) {
+            double t = (double) i / steps;
+            if (!isWalkable((int) (fromX + (toX - fromX) * t), (int) (fromY + (toY - fromY) * t), width, height)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long spanMask(int word, int minColumn, int maxColumn) {
+        int first = Math.max(minColumn, word << 6) & 63;
+        int last = Math.min(maxColumn, (word << 6) + 63) & 63;
+        return (-1L >>> (63 - last)) & (-1L << first);
+    }
+
+    public int getResolution() {
+        return resolution;
+    }
+}
@@ -0,0 +1,515 @@
+import java.awt.Rectangle;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class WorldStreamer {
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+    private static final int MIN_CHUNK_SIZE = 768;
+    private static final int ACTIVE_RADIUS = 1;
+    private static final int PREFETCH_RADIUS = 2;
+    private static final int EVICT_RADIUS = 3;
+    private static final int HAS_GUARD = 1;
+    private static final int HAS_POWER_UP = 2;
+    private static final int GUARD_OUTBOUND = 4;
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    private final RoomManager roomManager;
+    private final Path directory;
+    private final int chunkSize;
+    private final int originX;
+    private final int originY;
+    private final int columns;
+    private final int rows;
+    private final Chunk[] chunks;
+    private final int[] roomChunks;
+    private final int[] roomSlots;
+    private final BitSet hasCucumber = new BitSet();
+    private final BitSet cucumberCollected = new BitSet();
+    private final BitSet powerUpCollected = new BitSet();
+    private final int cucumberCount;
+    private final List<Chunk> installed = new ArrayList<>();
+    private final List<Chunk> prefetching = new ArrayList<>();
+    private final List<Room> activeRooms = new ArrayList<>();
+    private final List<Long> speedChangeTicks = new ArrayList<>();
+    private final List<Double> speedChangeMultipliers = new ArrayList<>();
+    private final ExecutorService io;
+    private int focusColumn = -1;
+    private int focusRow = -1;
+    private int loadCount;
+    private int blockingLoadCount;
+    private int evictionCount;
+
+    WorldStreamer(RoomManager roomManager, List<Room> rooms, List<Rectangle> doors, Path directory,
+            int chunkSize) throws IOException {
+        this.roomManager = roomManager;
+        this.directory = directory;
+
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        int largestSide = 0;
+        for (Room room : rooms) {
+            minX = Math.min(minX, room.getX());
+            minY = Math.min(minY, room.getY());
+            maxX = Math.max(maxX, room.getX() + room.getWidth());
+            maxY = Math.max(maxY, room.getY() + room.getHeight());
+            largestSide = Math.max(largestSide, Math.max(room.getWidth(), room.getHeight()));
+        }
+        if (minX > maxX) {
+            minX = minY = maxX = maxY = 0;
+        }
+        this.chunkSize = Math.max(Math.max(chunkSize, MIN_CHUNK_SIZE), largestSide * 2);
+        this.originX = minX;
+        this.originY = minY;
+        this.columns = Math.max(1, (maxX - minX + this.chunkSize - 1) / this.chunkSize);
+        this.rows = Math.max(1, (maxY - minY + this.chunkSize - 1) / this.chunkSize);
+        this.chunks = new Chunk[columns * rows];
+        this.roomChunks = new int[rooms.size()];
+        this.roomSlots = new int[rooms.size()];
+
+        int cucumbers = 0;
+        for (int id = 0; id < rooms.size(); id++) {
+            Room room = rooms.get(id);
+            Chunk chunk = chunkAt(room.getX() + room.getWidth() / 2, room.getY() + room.getHeight() / 2);
+            roomChunks[id] = chunk.id;
+            roomSlots[id] = chunk.rooms.size();
+            chunk.addRoom(room, id);
+            if (room.getCucumber() != null) {
+                hasCucumber.set(id);
+                cucumbers++;
+            }
+        }
+        this.cucumberCount = cucumbers;
+        for (Rectangle door : doors) {
+            chunkAt(door.x + door.width / 2, door.y + door.height / 2).doors.add(door);
+        }
+
+        Files.createDirectories(directory);
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                new Level(0, 0, chunk.rooms, chunk.doors).writeBinary(levelPath(chunk));
+                saveState(chunk, roomManager.getGuardTicks());
+                writeState(statePath(chunk), chunk.rooms);
+                chunk.rooms = null;
+                chunk.doors = null;
+            }
+        }
+
+        this.io = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "world-streamer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private Chunk chunkAt(int x, int y) {
+        int column = Math.max(0, Math.min(columns - 1, Math.floorDiv(x - originX, chunkSize)));
+        int row = Math.max(0, Math.min(rows - 1, Math.floorDiv(y - originY, chunkSize)));
+        int id = row * columns + column;
+        if (chunks[id] == null) {
+            chunks[id] = new Chunk(id, column, row);
+        }
+        return chunks[id];
+    }
+
+    public void focus(double x, double y) {
+        int column = Math.max(0, Math.min(columns - 1, Math.floorDiv((int) Math.floor(x) - originX, chunkSize)));
+        int row = Math.max(0, Math.min(rows - 1, Math.floorDiv((int) Math.floor(y) - originY, chunkSize)));
+        if (column == focusColumn && row == focusRow) {
+            return;
+        }
+        focusColumn = column;
+        focusRow = row;
+        roomManager.syncGuards();
+        long ticks = roomManager.getGuardTicks();
+
+        for (int i = installed.size() - 1; i >= 0; i--) {
+            Chunk chunk = installed.get(i);
+            int distance = distance(chunk);
+            if (distance > EVICT_RADIUS) {
+                installed.remove(i);
+                evict(chunk, ticks);
+            } else if (distance > ACTIVE_RADIUS && chunk.active) {
+                chunk.active = false;
+                chunk.suspendedAt = ticks;
+            }
+        }
+        for (int i = prefetching.size() - 1; i >= 0; i--) {
+            Chunk chunk = prefetching.get(i);
+            if (distance(chunk) > EVICT_RADIUS) {
+                prefetching.remove(i);
+                chunk.pending.cancel(false);
+                chunk.pending = null;
+            }
+        }
+
+        for (int r = Math.max(0, row - PREFETCH_RADIUS); r <= Math.min(rows - 1, row + PREFETCH_RADIUS); r++) {
+            for (int c = Math.max(0, column - PREFETCH_RADIUS); c <= Math.min(columns - 1, column + PREFETCH_RADIUS); c++) {
+                Chunk chunk = chunks[r * columns + c];
+                if (chunk != null && chunk.rooms == null && chunk.pending == null) {
+                    prefetch(chunk);
+                }
+            }
+        }
+        for (int r = Math.max(0, row - ACTIVE_RADIUS); r <= Math.min(rows - 1, row + ACTIVE_RADIUS); r++) {
+            for (int c = Math.max(0, column - ACTIVE_RADIUS); c <= Math.min(columns - 1, column + ACTIVE_RADIUS); c++) {
+                Chunk chunk = chunks[r * columns + c];
+                if (chunk == null) {
+                    continue;
+                }
+                if (chunk.rooms == null) {
+                    install(chunk, ticks);
+                } else if (!chunk.active) {
+                    activate(chunk, ticks);
+                }
+            }
+        }
+
+        activeRooms.clear();
+        for (Chunk chunk : installed) {
+            if (chunk.active) {
+                activeRooms.addAll(chunk.rooms);
+            }
+        }
+    }
+
+    private int distance(Chunk chunk) {
+        return Math.max(Math.abs(chunk.column - focusColumn), Math.abs(chunk.row - focusRow));
+    }
+
+    private void prefetch(Chunk chunk) {
+        Path levelPath = levelPath(chunk);
+        Path statePath = statePath(chunk);
+        chunk.pending = io.submit(() -> {
+            Level level = Level.readBinary(levelPath);
+            readState(statePath, level.getRooms());
+            return level;
+        });
+        prefetching.add(chunk);
+    }
+
+    private void install(Chunk chunk, long ticks) {
+        if (chunk.pending == null) {
+            prefetch(chunk);
+        }
+        if (!chunk.pending.isDone()) {
+            blockingLoadCount++;
+        }
+        Level level;
+        try {
+            level = chunk.pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while streaming chunk " + chunk.id, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to stream chunk " + chunk.id, e.getCause());
+        }
+        chunk.pending = null;
+        prefetching.remove(chunk);
+
+        List<Room> rooms = level.getRooms();
+        Random resetRandom = chunk.resetPending ? new Random(chunk.resetSeed) : null;
+        for (int slot = 0; slot < rooms.size(); slot++) {
+            Room room = rooms.get(slot);
+            int id = chunk.roomIds[slot];
+            Guard guard = room.getGuard();
+            if (resetRandom != null) {
+                room.setPowerUp(RoomManager.randomPowerUp(room, resetRandom));
+                if (guard != null) {
+                    guard.reset();
+                    guard.setSpeed(guard.getType().getRiskLevel().getGuardSpeed());
+                    catchUp(guard, 0, 0, ticks);
+                }
+            } else if (guard != null) {
+                catchUp(guard, chunk.evictedAt, chunk.evictedSpeedChange, ticks);
+            }
+            if (room.getCucumber() != null && cucumberCollected.get(id)) {
+                room.getCucumber().collect();
+            }
+            if (room.getPowerUp() != null && powerUpCollected.get(id)) {
+                room.getPowerUp().collect();
+            }
+        }
+        chunk.resetPending = false;
+        chunk.rooms = rooms;
+        chunk.doors = level.getDoors();
+        chunk.active = true;
+        installed.add(chunk);
+        roomManager.addRooms(rooms, chunk.doors);
+        loadCount++;
+    }
+
+    private void catchUp(Guard guard, long fromTick, int fromSpeedChange, long ticks) {
+        long tick = fromTick;
+        for (int i = fromSpeedChange; i < speedChangeTicks.size(); i++) {
+            guard.advance(speedChangeTicks.get(i) - tick);
+            tick = speedChangeTicks.get(i);
+            guard.setSpeed(guard.getType().getRiskLevel().getGuardSpeed() * speedChangeMultipliers.get(i));
+        }
+        guard.advance(ticks - tick);
+        guard.syncRenderPosition();
+    }
+
+    private void activate(Chunk chunk, long ticks) {
+        for (Room room : chunk.rooms) {
+            Guard guard = room.getGuard();
+            if (guard != null) {
+                guard.advance(ticks - chunk.suspendedAt);
+                guard.syncRenderPosition();
+            }
+        }
+        chunk.active = true;
+    }
+
+    private void evict(Chunk chunk, long ticks) {
+        roomManager.removeRooms(chunk.rooms, chunk.doors);
+        saveState(chunk, chunk.active ? ticks : chunk.suspendedAt);
+
+        List<Room> rooms = chunk.rooms;
+        Path statePath = statePath(chunk);
+        chunk.rooms = null;
+        chunk.doors = null;
+        chunk.active = false;
+        io.execute(() -> {
+            try {
+                writeState(statePath, rooms);
+            } catch (IOException e) {
+                System.err.println("Failed to write chunk " + statePath + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+        evictionCount++;
+    }
+
+    private void saveState(Chunk chunk, long ticks) {
+        for (int slot = 0; slot < chunk.rooms.size(); slot++) {
+            Room room = chunk.rooms.get(slot);
+            int id = chunk.roomIds[slot];
+            cucumberCollected.set(id, room.getCucumber() != null && room.getCucumber().isCollected());
+            powerUpCollected.set(id, room.getPowerUp() != null && room.getPowerUp().isCollected());
+        }
+        chunk.evictedAt = ticks;
+        chunk.evictedSpeedChange = speedChangeTicks.size();
+    }
+
+    void onSpeedChange(double speedMultiplier) {
+        long ticks = roomManager.getGuardTicks();
+        for (Chunk chunk : installed) {
+            if (!chunk.active) {
+                activate(chunk, ticks);
+                chunk.active = false;
+                chunk.suspendedAt = ticks;
+            }
+        }
+        speedChangeTicks.add(ticks);
+        speedChangeMultipliers.add(speedMultiplier);
+    }
+
+    void onReset(Random random) {
+        cucumberCollected.clear();
+        powerUpCollected.clear();
+        speedChangeTicks.clear();
+        speedChangeMultipliers.clear();
+        speedChangeTicks.add(0L);
+        speedChangeMultipliers.add(roomManager.getGuardSpeedMultiplier());
+        for (Chunk chunk : installed) {
+            chunk.suspendedAt = 0;
+        }
+        for (Chunk chunk : chunks) {
+            if (chunk != null && chunk.rooms == null) {
+                chunk.resetPending = true;
+                chunk.resetSeed = random.nextLong();
+            }
+        }
+    }
+
+    boolean[] getRoomUnlockStates() {
+        boolean[] states = new boolean[roomChunks.length];
+        for (int id = 0; id < states.length; id++) {
+            Chunk chunk = chunks[roomChunks[id]];
+            if (chunk.rooms != null) {
+                states[id] = chunk.rooms.get(roomSlots[id]).isUnlocked();
+            } else {
+                states[id] = !hasCucumber.get(id) || cucumberCollected.get(id);
+            }
+        }
+        return states;
+    }
+
+    void setRoomUnlockStates(boolean[] states) {
+        for (int id = 0; id < Math.min(states.length, roomChunks.length); id++) {
+            if (!states[id] || !hasCucumber.get(id)) {
+                continue;
+            }
+            Chunk chunk = chunks[roomChunks[id]];
+            if (chunk.rooms != null) {
+                roomManager.collectCucumber(chunk.rooms.get(roomSlots[id]).getCucumber());
+            } else {
+                cucumberCollected.set(id);
+            }
+        }
+    }
+
+    private static void writeState(Path path, List<Room> rooms) throws IOException {
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(path))) {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(rooms.size());
+            for (Room room : rooms) {
+                Guard guard = room.getGuard();
+                PowerUp powerUp = room.getPowerUp();
+                int flags = (guard != null ? HAS_GUARD : 0) | (powerUp != null ? HAS_POWER_UP : 0)
+                        | (guard != null && guard.isPatrolAnchorOutbound() ? GUARD_OUTBOUND : 0);
+                out.writeByte(flags);
+                if (powerUp != null) {
+                    out.writeByte(powerUp.getType().ordinal());
+                    out.writeInt((int) powerUp.getX());
+                    out.writeInt((int) powerUp.getY());
+                }
+                if (guard != null) {
+                    out.writeDouble(guard.getPatrolAnchorOffset());
+                    out.writeDouble(guard.getSpeed());
+                    out.writeLong(guard.getPatrolTicks());
+                    out.writeLong(guard.getClock());
+                }
+            }
+            out.flush();
+        }
+    }
+
+    private static void readState(Path path, List<Room> rooms) throws IOException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(path))) {
+            DataInputStream in = new DataInputStream(stream);
+            int count = in.readInt();
+            if (count != rooms.size()) {
+                throw new IOException("Chunk state " + path + " has " + count + " rooms, expected " + rooms.size());
+            }
+            PowerUp.PowerUpType[] powerUpTypes = PowerUp.PowerUpType.values();
+            for (Room room : rooms) {
+                int flags = in.readUnsignedByte();
+                room.setPowerUp(null);
+                if ((flags & HAS_POWER_UP) != 0) {
+                    int type = in.readUnsignedByte();
+                    if (type >= powerUpTypes.length) {
+                        throw new IOException("Corrupt power-up type " + type + " in " + path);
+                    }
+                    room.setPowerUp(new PowerUp(powerUpTypes[type], in.readInt(), in.readInt()));
+                }
+                if ((flags & HAS_GUARD) != 0) {
+                    if (room.getGuard() == null) {
+                        throw new IOException("Chunk state " + path + " has a guard for " + room.getName());
+                    }
+                    room.getGuard().restorePatrol(in.readDouble(), (flags & GUARD_OUTBOUND) != 0,
+                            in.readDouble(), in.readLong(), in.readLong());
+                }
+            }
+        }
+    }
+
+    private Path levelPath(Chunk chunk) {
+        return directory.resolve("chunk-" + chunk.id + Level.BINARY_EXTENSION);
+    }
+
+    private Path statePath(Chunk chunk) {
+        return directory.resolve("chunk-" + chunk.id + ".state");
+    }
+
+    public void close() {
+        io.shutdownNow();
+        try {
+            io.awaitTermination(CLOSE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Chunk chunk : chunks) {
+            if (chunk != null) {
+                try {
+                    Files.deleteIfExists(levelPath(chunk));
+                    Files.deleteIfExists(statePath(chunk));
+                } catch (IOException e) {
+                    System.err.println("Failed to delete chunk " + chunk.id + ": " + e.getMessage());
+                }
+            }
+        }
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            System.err.println("Failed to delete world directory " + directory + ": " + e.getMessage());
+        }
+    }
+
+    List<Room> getActiveRooms() {
+        return activeRooms;
+    }
+
+    public int getCucumberCount() {
+        return cucumberCount;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getInstalledChunkCount() {
+        return installed.size();
+    }
+
+    public int getLoadCount() {
+        return loadCount;
+    }
+
+    public int getBlockingLoadCount() {
+        return blockingLoadCount;
+    }
+
+    public int getEvictionCount() {
+        return evictionCount;
+    }
+
+    private static class Chunk {
+        private final int id;
+        private final int column;
+        private final int row;
+        private int[] roomIds = new int[4];
+        private List<Room> rooms = new ArrayList<>();
+        private List<Rectangle> doors = new ArrayList<>();
+        private Future<Level> pending;
+        private boolean active;
+        private long suspendedAt;
+        private long evictedAt;
+        private int evictedSpeedChange;
+        private boolean resetPending;
+        private long resetSeed;
+
+        Chunk(int id, int column, int row) {
+            this.id = id;
+            this.column = column;
+            this.row = row;
+        }
+
+        void addRoom(Room room, int id) {
+            if (rooms.size() == roomIds.length) {
+                roomIds = Arrays.copyOf(roomIds, roomIds.length * 2);
+            }
+            roomIds[rooms.size()] = id;
+            rooms.add(room);
+        }
+    }
+}